@@ -0,0 +1,107 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.api.model;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openstreetmap.josm.plugins.maproulette.api.UnauthorizedException;
+import org.openstreetmap.josm.plugins.maproulette.api.parsers.ClusteredPointParser;
+import org.openstreetmap.josm.plugins.maproulette.api.parsers.TaskParser;
+import org.openstreetmap.josm.plugins.maproulette.benchmark.BenchmarkUtils;
+import org.openstreetmap.josm.plugins.maproulette.util.SyntheticChallenge;
+
+/**
+ * Benchmark the {@link RecordUtils} backed {@code equals} and {@code hashCode} of {@link ClusteredPoint} and
+ * {@link Task} in the set operations used for selection
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordSetBenchmark {
+    /**
+     * The number of points
+     */
+    @Param({ "1000", "10000" })
+    public int points;
+
+    private List<ClusteredPoint> pointList;
+    private List<ClusteredPoint> pointCopies;
+    private Set<ClusteredPoint> pointSet;
+    private List<Task> taskList;
+    private List<Task> taskCopies;
+    private Set<Task> taskSet;
+
+    @Setup
+    public void setup() throws UnauthorizedException {
+        BenchmarkUtils.setupJosm(false);
+        final var synthetic = BenchmarkUtils.synthetic(this.points, 5);
+        final var data = BenchmarkUtils.clusteredPoints(synthetic);
+        // Parse twice so that lookups compare distinct (but equal) instances
+        this.pointList = List.of((ClusteredPoint[]) ClusteredPointParser.parse(new ByteArrayInputStream(data)));
+        this.pointCopies = List.of((ClusteredPoint[]) ClusteredPointParser.parse(new ByteArrayInputStream(data)));
+        this.pointSet = new HashSet<>(this.pointList);
+        this.taskList = new ArrayList<>();
+        this.taskCopies = new ArrayList<>();
+        for (var i = 0; i < 100; i++) {
+            final var task = synthetic.task(SyntheticChallenge.FIRST_TASK + i);
+            this.taskList.add((Task) TaskParser.parseTask(new ByteArrayInputStream(task)));
+            this.taskCopies.add((Task) TaskParser.parseTask(new ByteArrayInputStream(task)));
+        }
+        this.taskSet = new HashSet<>(this.taskList);
+    }
+
+    @Benchmark
+    public Set<ClusteredPoint> buildPointSet() {
+        return new HashSet<>(this.pointList);
+    }
+
+    @Benchmark
+    public int containsPoints() {
+        var found = 0;
+        for (var point : this.pointCopies) {
+            if (this.pointSet.contains(point)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int containsTasks() {
+        var found = 0;
+        for (var task : this.taskCopies) {
+            if (this.taskSet.contains(task)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int indexOfPoints() {
+        // Mirrors the linear equals scans used by the task table
+        var total = 0;
+        for (var i = 0; i < this.pointCopies.size(); i += Math.max(1, this.pointCopies.size() / 100)) {
+            total += this.pointList.indexOf(this.pointCopies.get(i));
+        }
+        return total;
+    }
+}
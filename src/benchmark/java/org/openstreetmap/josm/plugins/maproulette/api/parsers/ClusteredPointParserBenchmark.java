@@ -0,0 +1,50 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.api.parsers;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openstreetmap.josm.plugins.maproulette.benchmark.BenchmarkUtils;
+
+/**
+ * Benchmark {@link ClusteredPointParser} with the recorded box response and with synthetic responses
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClusteredPointParserBenchmark {
+    /**
+     * The number of points in the synthetic response; {@code 0} uses the recorded fixture
+     */
+    @Param({ "0", "1000", "10000" })
+    public int points;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        BenchmarkUtils.setupJosm(false);
+        this.data = this.points == 0
+                ? BenchmarkUtils.fixture("api/v2/tasks/box/-119.1139411/36.0770518/-119.0992458/36.0839216")
+                : BenchmarkUtils.clusteredPoints(BenchmarkUtils.synthetic(this.points, 1));
+    }
+
+    @Benchmark
+    public Object parse() {
+        return ClusteredPointParser.parse(new ByteArrayInputStream(this.data));
+    }
+}
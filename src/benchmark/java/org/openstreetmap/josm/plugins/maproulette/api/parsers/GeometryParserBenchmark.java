@@ -0,0 +1,59 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.api.parsers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.io.IllegalDataException;
+import org.openstreetmap.josm.plugins.maproulette.benchmark.BenchmarkUtils;
+import org.openstreetmap.josm.plugins.maproulette.util.SyntheticChallenge;
+
+import jakarta.json.JsonObject;
+
+/**
+ * Benchmark {@link GeometryParser} with synthetic feature collections
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeometryParserBenchmark {
+    /**
+     * The number of features in the collection
+     */
+    @Param({ "1", "100", "1000" })
+    public int features;
+
+    private JsonObject geometry;
+    private String geometryString;
+
+    @Setup
+    public void setup() {
+        BenchmarkUtils.setupJosm(false);
+        this.geometry = BenchmarkUtils.synthetic(1, this.features).geometries(SyntheticChallenge.FIRST_TASK);
+        this.geometryString = this.geometry.toString();
+    }
+
+    @Benchmark
+    public DataSet parseValue() throws IllegalDataException {
+        return GeometryParser.parseValue(this.geometry);
+    }
+
+    @Benchmark
+    public DataSet parseString() throws IllegalDataException {
+        return GeometryParser.parse(this.geometryString);
+    }
+}
@@ -0,0 +1,55 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.api.parsers;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openstreetmap.josm.plugins.maproulette.api.UnauthorizedException;
+import org.openstreetmap.josm.plugins.maproulette.benchmark.BenchmarkUtils;
+import org.openstreetmap.josm.plugins.maproulette.util.SyntheticChallenge;
+
+/**
+ * Benchmark {@link TaskParser} with the recorded tasks (including the cooperative OSC task) and synthetic tasks
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskParserBenchmark {
+    /**
+     * The task to parse. Numbers are recorded fixtures, {@code synthetic:n} is a generated task with n features.
+     */
+    @Param({ "132279499", "134808786", "135045992", "synthetic:100", "synthetic:1000" })
+    public String task;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        BenchmarkUtils.setupJosm(false);
+        if (this.task.startsWith("synthetic:")) {
+            final var features = Integer.parseInt(this.task.substring("synthetic:".length()));
+            this.data = BenchmarkUtils.synthetic(1, features).task(SyntheticChallenge.FIRST_TASK);
+        } else {
+            this.data = BenchmarkUtils.fixture("api/v2/task/" + this.task + "/start");
+        }
+    }
+
+    @Benchmark
+    public Object parse() throws UnauthorizedException {
+        return TaskParser.parseTask(new ByteArrayInputStream(this.data));
+    }
+}
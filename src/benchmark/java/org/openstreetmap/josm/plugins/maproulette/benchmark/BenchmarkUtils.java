@@ -0,0 +1,184 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.benchmark;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.UserIdentityManager;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.UserInfo;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.plugins.maproulette.api_caching.ChallengeCache;
+import org.openstreetmap.josm.plugins.maproulette.config.MapRouletteConfig;
+import org.openstreetmap.josm.plugins.maproulette.util.SyntheticChallenge;
+import org.openstreetmap.josm.spi.preferences.Config;
+
+/**
+ * Common setup for the benchmarks
+ */
+public final class BenchmarkUtils {
+    /**
+     * The default area for generated data (around the recorded fixtures)
+     */
+    public static final Bounds DEFAULT_BOUNDS = new Bounds(39.0, -108.6, 39.2, -108.4);
+    /**
+     * The seed for generated data, so that every run (and every commit) sees the same data
+     */
+    public static final long SEED = 42;
+    private static final String[] HIGHWAYS = { "residential", "service", "footway", "track", "unclassified" };
+    private static boolean initialized;
+
+    private BenchmarkUtils() {
+        // Hide constructor
+    }
+
+    /**
+     * Set up JOSM (preferences, projection, and optionally the main window) for a benchmark fork
+     *
+     * @param createGui {@code true} if the benchmark needs a map view
+     */
+    public static synchronized void setupJosm(boolean createGui) {
+        if (!initialized) {
+            try {
+                final var home = Files.createTempDirectory("maproulette-benchmark");
+                home.toFile().deleteOnExit();
+                new JOSMFixture(home.toString()).init(createGui);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            initialized = true;
+        }
+    }
+
+    /**
+     * Get the directory with the test resources (the WireMock root)
+     *
+     * @return The test resource directory
+     */
+    public static Path testResources() {
+        final var basePath = Paths.get("src", "test", "resources");
+        final var maproulette = Path.of("MapRoulette");
+        if (Files.isDirectory(maproulette) && Files.isDirectory(maproulette.resolve(basePath))) {
+            return maproulette.resolve(basePath);
+        }
+        return basePath;
+    }
+
+    /**
+     * Read a recorded response
+     *
+     * @param name The name of the file in {@code src/test/resources/__files}
+     * @return The file contents
+     */
+    public static byte[] fixture(String name) {
+        try {
+            return Files.readAllBytes(testResources().resolve("__files").resolve(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Get the synthetic challenges used by the benchmarks
+     *
+     * @param tasks    The number of tasks
+     * @param features The number of features in each task geometry
+     * @return The generator
+     */
+    public static SyntheticChallenge synthetic(int tasks, int features) {
+        return new SyntheticChallenge(tasks, 4, features, 8, SEED, DEFAULT_BOUNDS);
+    }
+
+    /**
+     * Get every task of the synthetic challenges as clustered points (as returned by {@code /tasks/box})
+     *
+     * @param synthetic The generator for the tasks
+     * @return The JSON response
+     */
+    public static byte[] clusteredPoints(SyntheticChallenge synthetic) {
+        final var bounds = synthetic.bounds();
+        return synthetic.box(bounds.getMinLon(), bounds.getMinLat(), bounds.getMaxLon(), bounds.getMaxLat(), 0, 0);
+    }
+
+    /**
+     * Fill the {@link ChallengeCache} with the synthetic challenges, so that benchmarks which check if a challenge is
+     * hidden do not hit the network.
+     *
+     * @param synthetic The generator for the challenges
+     */
+    public static void seedChallengeCache(SyntheticChallenge synthetic) {
+        final var server = new WireMockServer(
+                options().dynamicPort().usingFilesUnderDirectory(testResources().toString()));
+        server.start();
+        try {
+            for (var i = 0; i < synthetic.challenges(); i++) {
+                final var challenge = SyntheticChallenge.FIRST_CHALLENGE + i;
+                server.stubFor(get("/api/v2/challenge/" + challenge).willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json").withBody(synthetic.challenge(challenge))));
+            }
+            MapRouletteConfig.setInstance(new MapRouletteConfig(server.baseUrl() + "/api/v2"));
+            final var info = new UserInfo();
+            info.setId(1);
+            UserIdentityManager.getInstance().setFullyIdentified("benchmark", info);
+            Config.getPref().put("maproulette.openstreetmap." + MapRouletteConfig.getBaseUrl() + ".1", "benchmark");
+            for (var i = 0; i < synthetic.challenges(); i++) {
+                ChallengeCache.challenge(SyntheticChallenge.FIRST_CHALLENGE + i);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Generate OSM data. The MapRoulette responses come from {@link SyntheticChallenge}.
+     *
+     * @param seed   The random seed
+     * @param nodes  The number of nodes (mostly untagged, used in ways)
+     * @param ways   The number of ways
+     * @param bounds The area for the data
+     * @param isNew  {@code true} to create new primitives (negative ids), {@code false} for "OSM" data with ids
+     *               starting at 1
+     * @return The dataset
+     */
+    public static DataSet dataSet(long seed, int nodes, int ways, Bounds bounds, boolean isNew) {
+        final var random = new SplittableRandom(seed);
+        final var dataSet = new DataSet();
+        final var nodeList = new ArrayList<Node>(nodes);
+        for (var i = 1; i <= nodes; i++) {
+            final var coordinate = new LatLon(random.nextDouble(bounds.getMinLat(), bounds.getMaxLat()),
+                    random.nextDouble(bounds.getMinLon(), bounds.getMaxLon()));
+            final var node = isNew ? new Node(coordinate) : new Node(i, 1);
+            node.setCoor(coordinate);
+            if (random.nextInt(10) == 0) {
+                node.put("amenity", "bench");
+            }
+            dataSet.addPrimitive(node);
+            nodeList.add(node);
+        }
+        for (var i = 1; i <= ways && !nodeList.isEmpty(); i++) {
+            final var way = isNew ? new Way() : new Way(i, 1);
+            final var start = random.nextInt(nodeList.size());
+            final var end = Math.min(nodeList.size(), start + 2 + random.nextInt(10));
+            way.setNodes(nodeList.subList(start, end));
+            way.put("highway", HIGHWAYS[random.nextInt(HIGHWAYS.length)]);
+            dataSet.addPrimitive(way);
+        }
+        return dataSet;
+    }
+}
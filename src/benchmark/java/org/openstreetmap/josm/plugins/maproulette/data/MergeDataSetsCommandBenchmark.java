@@ -0,0 +1,75 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.data;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.plugins.maproulette.benchmark.BenchmarkUtils;
+
+/**
+ * Benchmark {@link MergeDataSetsCommand}, which is used when applying cooperative OSC files.
+ * The source is a copy of part of the target with modified tags, plus new data.
+ */
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MergeDataSetsCommandBenchmark {
+    /**
+     * The number of nodes in the target dataset
+     */
+    @Param({ "1000", "10000" })
+    public int nodes;
+
+    private DataSet target;
+    private DataSet source;
+
+    @Setup
+    public void setupJosm() {
+        BenchmarkUtils.setupJosm(false);
+    }
+
+    /**
+     * The merge modifies the target, so both datasets are rebuilt for each invocation. The merge takes long enough
+     * that the per-invocation setup overhead is negligible.
+     */
+    @Setup(Level.Invocation)
+    public void setupData() {
+        final var bounds = BenchmarkUtils.DEFAULT_BOUNDS;
+        this.target = BenchmarkUtils.dataSet(BenchmarkUtils.SEED, this.nodes, this.nodes / 5, bounds, false);
+        final var changed = BenchmarkUtils.dataSet(BenchmarkUtils.SEED, this.nodes / 10, this.nodes / 50, bounds,
+                false);
+        changed.getWays().forEach(way -> way.put("surface", "asphalt"));
+        final var added = BenchmarkUtils.dataSet(BenchmarkUtils.SEED + 1, this.nodes / 10, this.nodes / 50, bounds,
+                true);
+        this.source = new DataSet();
+        this.source.mergeFrom(changed);
+        this.source.mergeFrom(added);
+    }
+
+    @Benchmark
+    public Collection<OsmPrimitive> merge() {
+        final var modified = new HashSet<OsmPrimitive>();
+        final var deleted = new HashSet<OsmPrimitive>();
+        final var added = new HashSet<OsmPrimitive>();
+        new MergeDataSetsCommand(this.target, this.source, true, null).fillModifiedData(modified, deleted, added);
+        return modified;
+    }
+}
@@ -0,0 +1,90 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.gui.layer;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.MapView;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint;
+import org.openstreetmap.josm.plugins.maproulette.api.model.TaskClusteredPoint;
+import org.openstreetmap.josm.plugins.maproulette.api.parsers.ClusteredPointParser;
+import org.openstreetmap.josm.plugins.maproulette.benchmark.BenchmarkUtils;
+import org.openstreetmap.josm.plugins.maproulette.gui.task.list.TaskListPanel;
+
+/**
+ * Benchmark {@link MapRouletteClusteredPointLayer#paint(Graphics2D, MapView, Bounds)} with synthetic points
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapRouletteClusteredPointLayerBenchmark {
+    /**
+     * The number of points in the layer
+     */
+    @Param({ "1000", "10000" })
+    public int points;
+
+    private MapRouletteClusteredPointLayer layer;
+    private MapView mapView;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setup() {
+        BenchmarkUtils.setupJosm(true);
+        final var synthetic = BenchmarkUtils.synthetic(this.points, 1);
+        BenchmarkUtils.seedChallengeCache(synthetic);
+        final var parsed = (ClusteredPoint[]) ClusteredPointParser
+                .parse(new ByteArrayInputStream(BenchmarkUtils.clusteredPoints(synthetic)));
+        this.layer = new MapRouletteClusteredPointLayer(BenchmarkUtils.DEFAULT_BOUNDS,
+                List.<TaskClusteredPoint>of(parsed));
+        GuiHelper.runInEDTAndWait(() -> {
+            if (MainApplication.getMap() == null) {
+                MainApplication.getLayerManager().addLayer(new OsmDataLayer(new DataSet(), "benchmark", null));
+            }
+            if (MainApplication.getMap().getToggleDialog(TaskListPanel.class) == null) {
+                MainApplication.getMap().addToggleDialog(new TaskListPanel());
+            }
+            this.mapView = MainApplication.getMap().mapView;
+            this.mapView.setSize(1920, 1080);
+            this.mapView.zoomTo(BenchmarkUtils.DEFAULT_BOUNDS);
+        });
+        this.image = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_ARGB);
+        this.graphics = this.image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.graphics.dispose();
+        this.layer.destroy();
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        this.layer.paint(this.graphics, this.mapView, BenchmarkUtils.DEFAULT_BOUNDS);
+        return this.image;
+    }
+}
@@ -1,7 +1,7 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.plugins.maproulette;
 
-import java.io.IOException;
+import java.time.Duration;
 
 import org.openstreetmap.josm.actions.UploadAction;
 import org.openstreetmap.josm.gui.MainApplication;
@@ -12,19 +12,27 @@ import org.openstreetmap.josm.plugins.Plugin;
 import org.openstreetmap.josm.plugins.PluginInformation;
 import org.openstreetmap.josm.plugins.maproulette.actions.downloadtasks.MapRouletteDownloadChallengeTask;
 import org.openstreetmap.josm.plugins.maproulette.actions.downloadtasks.MapRouletteDownloadTask;
-import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
-import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedObjects;
 import org.openstreetmap.josm.plugins.maproulette.gui.task.list.TaskListPanel;
 import org.openstreetmap.josm.plugins.maproulette.gui.download.MapRouletteDownloadSource;
 import org.openstreetmap.josm.plugins.maproulette.gui.preferences.MapRoulettePreferences;
+import org.openstreetmap.josm.plugins.maproulette.io.journal.SessionJournal;
+import org.openstreetmap.josm.plugins.maproulette.io.lock.LockKeepAlive;
 import org.openstreetmap.josm.plugins.maproulette.io.upload.EarlyUploadHook;
 import org.openstreetmap.josm.plugins.maproulette.io.upload.LateUploadHook;
-import org.openstreetmap.josm.plugins.maproulette.util.ExceptionDialogUtil;
+import org.openstreetmap.josm.plugins.maproulette.io.upload.TaskSubmissionOutbox;
+import org.openstreetmap.josm.tools.Destroyable;
 
 /**
  * The POJO entry point
  */
-public class MapRoulette extends Plugin {
+public class MapRoulette extends Plugin implements Destroyable {
+    /**
+     * How long to wait for task locks to be released when the map frame closes
+     */
+    private static final Duration RELEASE_TIMEOUT = Duration.ofSeconds(30);
+    private final EarlyUploadHook earlyUploadHook = new EarlyUploadHook();
+    private final LateUploadHook lateUploadHook = new LateUploadHook();
+
     /**
      * Creates the plugin
      *
@@ -33,8 +41,10 @@ public class MapRoulette extends Plugin {
     public MapRoulette(PluginInformation info) {
         super(info);
         this.getPreferenceSetting().ok();
-        UploadAction.registerUploadHook(new EarlyUploadHook());
-        UploadAction.registerUploadHook(new LateUploadHook(), true);
+        UploadAction.registerUploadHook(this.earlyUploadHook);
+        UploadAction.registerUploadHook(this.lateUploadHook, true);
+        TaskSubmissionOutbox.start();
+        SessionJournal.start();
         OSMDownloadSource.addDownloadType(new MapRouletteDownloadSource());
         MainApplication.getMenu().openLocation.addDownloadTaskClass(MapRouletteDownloadTask.class);
         MainApplication.getMenu().openLocation.addDownloadTaskClass(MapRouletteDownloadChallengeTask.class);
@@ -50,14 +60,16 @@ public class MapRoulette extends Plugin {
         super.mapFrameInitialized(oldFrame, newFrame);
         if (newFrame != null) {
             newFrame.addToggleDialog(new TaskListPanel());
+            LockKeepAlive.start();
         } else {
-            for (var task : ModifiedObjects.getLockedTasks()) {
-                try {
-                    TaskAPI.release(task.id());
-                } catch (IOException e) {
-                    ExceptionDialogUtil.explainException(e);
-                }
-            }
+            LockKeepAlive.releaseAll(RELEASE_TIMEOUT);
         }
     }
+
+    @Override
+    public void destroy() {
+        UploadAction.unregisterUploadHook(this.earlyUploadHook);
+        UploadAction.unregisterUploadHook(this.lateUploadHook);
+        this.earlyUploadHook.destroy();
+    }
 }
@@ -11,11 +11,13 @@ import java.util.Map;
 import java.util.TreeMap;
 
 import jakarta.json.Json;
+import jakarta.json.JsonObject;
 import javax.swing.text.html.Option;
 
 import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
 import org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
+import org.openstreetmap.josm.plugins.maproulette.api.model.TaskPage;
 import org.openstreetmap.josm.plugins.maproulette.api.parsers.ClusteredPointParser;
 import org.openstreetmap.josm.plugins.maproulette.api.parsers.TaskParser;
 import org.openstreetmap.josm.plugins.maproulette.util.HttpClientUtils;
@@ -64,22 +66,7 @@ public final class TaskAPI {
     public static ClusteredPoint[] box(double minLon, double minLat, double maxLon, double maxLat, int limit, int page,
             boolean excludeLocked, String sort, String order, boolean includeTotal, boolean includeGeometries,
             boolean includeTags) throws IOException {
-        Map<String, String> query = new TreeMap<>();
-        if (limit > 0) {
-            query.put("limit", String.valueOf(limit));
-        }
-        if (page > 0) {
-            query.put("page", String.valueOf(page));
-        }
-        if (excludeLocked) {
-            query.put("excludeLocked", "true");
-        }
-        if (sort != null && !sort.isBlank()) {
-            query.put("sort", sort);
-        }
-        if (order != null && !order.isBlank()) {
-            query.put("order", order);
-        }
+        final var query = boxQuery(limit, page, excludeLocked, sort, order);
         if (includeTotal) {
             query.put("includeTotal", "true");
         }
@@ -101,6 +88,55 @@ public final class TaskAPI {
         }
     }
 
+    /**
+     * Get a page of tasks in a bounding box, along with the total number of tasks in the bounding box. The tasks do not
+     * include geometries or tags.
+     *
+     * @param minLon        The minimum longitude for the bounding box
+     * @param minLat        The minimum latitude for the bounding box
+     * @param maxLon        The maximum longitude for the bounding box
+     * @param maxLat        The maximum latitude for the bounding box
+     * @param limit         The number of tasks in a page
+     * @param page          The page to get
+     * @param excludeLocked {@code true} will ignore the lock status of tasks
+     * @param sort          The column to sort the tasks by, so that pages are stable
+     * @param order         The sort order (ASC or DESC)
+     * @return The page of tasks
+     * @throws IOException if there was a problem communicating with the server
+     */
+    public static TaskPage boxPage(double minLon, double minLat, double maxLon, double maxLat, int limit, int page,
+            boolean excludeLocked, String sort, String order) throws IOException {
+        final var query = boxQuery(limit, page, excludeLocked, sort, order);
+        query.put("includeTotal", "true");
+        final var client = put(getBaseUrl() + TASKS + "/box/" + minLon + "/" + minLat + "/" + maxLon + "/" + maxLat,
+                query);
+        try (var inputstream = client.connect().getContent()) {
+            return ClusteredPointParser.parsePage(inputstream);
+        } finally {
+            client.disconnect();
+        }
+    }
+
+    private static Map<String, String> boxQuery(int limit, int page, boolean excludeLocked, String sort, String order) {
+        final Map<String, String> query = new TreeMap<>();
+        if (limit > 0) {
+            query.put("limit", String.valueOf(limit));
+        }
+        if (page > 0) {
+            query.put("page", String.valueOf(page));
+        }
+        if (excludeLocked) {
+            query.put("excludeLocked", "true");
+        }
+        if (sort != null && !sort.isBlank()) {
+            query.put("sort", sort);
+        }
+        if (order != null && !order.isBlank()) {
+            query.put("order", order);
+        }
+        return query;
+    }
+
     /**
      * Get a task without locking it
      *
@@ -196,6 +232,33 @@ public final class TaskAPI {
      */
     public static boolean updateStatus(long task, TaskStatus status, String comment, String tags, Boolean requestReview,
             Map<String, Option> completionResponses) throws IOException {
+        final JsonObject responses;
+        if (completionResponses != null) {
+            var jsonBuilder = Json.createObjectBuilder();
+            for (Map.Entry<String, Option> entry : completionResponses.entrySet()) {
+                jsonBuilder.add(entry.getKey(), entry.getValue().getValue());
+            }
+            responses = jsonBuilder.build();
+        } else {
+            responses = null;
+        }
+        return updateStatus(task, status, comment, tags, requestReview, responses);
+    }
+
+    /**
+     * Update the status of a task
+     *
+     * @param task                The task to update
+     * @param status              The status to set
+     * @param comment             The comment to use
+     * @param tags                The tags to use
+     * @param requestReview       Request review (or not), overrides user settings
+     * @param completionResponses The completion responses, as sent to the server
+     * @return {@code true} if the task update was successful
+     * @throws IOException if there was a problem communicating with the server
+     */
+    public static boolean updateStatus(long task, TaskStatus status, String comment, String tags, Boolean requestReview,
+            JsonObject completionResponses) throws IOException {
         Map<String, String> query = new TreeMap<>();
         if (comment != null && !comment.isBlank()) {
             query.put("comment", comment);
@@ -206,16 +269,9 @@ public final class TaskAPI {
         if (requestReview != null) {
             query.put("requestReview", requestReview.toString());
         }
-        final byte[] body;
-        if (completionResponses != null) {
-            var jsonBuilder = Json.createObjectBuilder();
-            for (Map.Entry<String, Option> entry : completionResponses.entrySet()) {
-                jsonBuilder.add(entry.getKey(), entry.getValue().getValue());
-            }
-            body = jsonBuilder.build().toString().getBytes(StandardCharsets.UTF_8);
-        } else {
-            body = null;
-        }
+        final byte[] body = completionResponses != null
+                ? completionResponses.toString().getBytes(StandardCharsets.UTF_8)
+                : null;
         @SuppressWarnings("EnumOrdinal")
         final var client = put(getBaseUrl() + TASK + "/" + task + "/" + status.ordinal(), query, body);
         client.setHeader("content-type", "text/json");
@@ -0,0 +1,103 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.api.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Objects;
+
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.NoteData;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.io.IllegalDataException;
+import org.openstreetmap.josm.io.OsmChangeReader;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Pair;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * A base64 encoded OSC file from a cooperative challenge. The file is not decoded until it is needed, and it is
+ * decoded as a stream, so we never hold both the decoded bytes and the parsed data in memory.
+ */
+public final class OsmChangeFile {
+    /**
+     * The base64 content; this is dropped once the content has been parsed
+     */
+    private String content;
+    /**
+     * The parsed content
+     */
+    private Pair<DataSet, NoteData> parsed;
+
+    /**
+     * Create a new OSC file
+     *
+     * @param content The base64 encoded OSC content
+     */
+    public OsmChangeFile(@Nonnull String content) {
+        Objects.requireNonNull(content, "content");
+        this.content = content;
+    }
+
+    /**
+     * Get the parsed content, parsing it if necessary
+     *
+     * @return The parsed data and notes, or {@code null} if the content could not be parsed
+     */
+    @Nullable
+    public synchronized Pair<DataSet, NoteData> get() {
+        if (this.parsed == null && this.content != null) {
+            try (var inputStream = Base64.getDecoder().wrap(new AsciiInputStream(this.content))) {
+                this.parsed = OsmChangeReader.parseDataSetAndNotes(inputStream, NullProgressMonitor.INSTANCE);
+            } catch (IllegalDataException | IOException | IllegalArgumentException e) {
+                Logging.error(e);
+            }
+            this.content = null;
+        }
+        return this.parsed;
+    }
+
+    /**
+     * An {@link InputStream} over the characters of an ASCII string (such as base64), without copying the string
+     */
+    private static final class AsciiInputStream extends InputStream {
+        private final String string;
+        private int position;
+
+        AsciiInputStream(String string) {
+            this.string = string;
+        }
+
+        @Override
+        public int read() {
+            if (this.position >= this.string.length()) {
+                return -1;
+            }
+            return this.string.charAt(this.position++) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) {
+                return 0;
+            }
+            final var remaining = this.string.length() - this.position;
+            if (remaining <= 0) {
+                return -1;
+            }
+            final var count = Math.min(len, remaining);
+            for (var i = 0; i < count; i++) {
+                b[off + i] = (byte) this.string.charAt(this.position++);
+            }
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return this.string.length() - this.position;
+        }
+    }
+}
@@ -1,8 +1,9 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.plugins.maproulette.api.model;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.RecordComponent;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -14,6 +15,31 @@ import jakarta.annotation.Nonnull;
  * Utils for {@link Record} classes with array fields
  */
 final class RecordUtils {
+    /**
+     * The accessors for each record class. These are only looked up once per class, since
+     * {@link Class#getRecordComponents()} is expensive and these methods are called for every set operation.
+     */
+    private static final ClassValue<Component[]> COMPONENTS = new ClassValue<>() {
+        @Override
+        protected Component[] computeValue(Class<?> type) {
+            final var recordComponents = type.getRecordComponents();
+            final var lookup = MethodHandles.lookup();
+            final var genericType = MethodType.methodType(Object.class, Object.class);
+            final var components = new Component[recordComponents.length];
+            for (var i = 0; i < recordComponents.length; i++) {
+                final var recordComponent = recordComponents[i];
+                try {
+                    components[i] = new Component(recordComponent.getName(), ArrayType.of(recordComponent.getType()),
+                            lookup.unreflect(recordComponent.getAccessor()).asType(genericType));
+                } catch (IllegalAccessException e) {
+                    // We should never hit this with records
+                    throw new JosmRuntimeException(e);
+                }
+            }
+            return components;
+        }
+    };
+
     private RecordUtils() {
         // Hide constructor
     }
@@ -26,40 +52,19 @@ final class RecordUtils {
      * @param <T> The record type
      */
     static <T extends Record> boolean equals(@Nonnull T first, @Nonnull T second) {
-        for (RecordComponent component : first.getClass().getRecordComponents()) {
-            final var type = component.getType();
-            final var firstObj = getField(first, component);
-            final var secondObj = getField(second, component);
-            if ((type.isArray() && !arrayEquals(type, firstObj, secondObj))
-                    || (!type.isArray() && !Objects.equals(firstObj, secondObj))) {
+        if (first == second) {
+            return true;
+        }
+        for (Component component : COMPONENTS.get(first.getClass())) {
+            final var firstObj = component.get(first);
+            final var secondObj = component.get(second);
+            if (!component.type().fieldEquals(firstObj, secondObj)) {
                 return false;
             }
         }
         return true;
     }
 
-    private static boolean arrayEquals(Class<?> type, Object first, Object second) {
-        if (int[].class.equals(type)) {
-            return Arrays.equals((int[]) first, (int[]) second);
-        } else if (byte[].class.equals(type)) {
-            return Arrays.equals((byte[]) first, (byte[]) second);
-        } else if (short[].class.equals(type)) {
-            return Arrays.equals((short[]) first, (short[]) second);
-        } else if (long[].class.equals(type)) {
-            return Arrays.equals((long[]) first, (long[]) second);
-        } else if (float[].class.equals(type)) {
-            return Arrays.equals((float[]) first, (float[]) second);
-        } else if (double[].class.equals(type)) {
-            return Arrays.equals((double[]) first, (double[]) second);
-        } else if (boolean[].class.equals(type)) {
-            return Arrays.equals((boolean[]) first, (boolean[]) second);
-        } else if (char[].class.equals(type)) {
-            return Arrays.equals((char[]) first, (char[]) second);
-        } else {
-            return Arrays.equals((Object[]) first, (Object[]) second);
-        }
-    }
-
     /**
      * A "sane" {@link #hashCode()} method for record objects with array fields
      * @param hashCode The record to get the hashcode for
@@ -67,41 +72,13 @@ final class RecordUtils {
      */
     static int hashCode(@Nonnull Record hashCode) {
         var hash = 0;
-        for (RecordComponent component : hashCode.getClass().getRecordComponents()) {
+        for (Component component : COMPONENTS.get(hashCode.getClass())) {
             hash *= 31;
-            final Object field = getField(hashCode, component);
-            final var type = component.getType();
-            if (type.isArray()) {
-                hash += arrayHashCode(type, field);
-            } else {
-                hash += Objects.hashCode(field);
-            }
+            hash += component.type().fieldHashCode(component.get(hashCode));
         }
         return hash;
     }
 
-    private static int arrayHashCode(Class<?> type, Object field) {
-        if (int[].class.equals(type)) {
-            return Arrays.hashCode((int[]) field);
-        } else if (byte[].class.equals(type)) {
-            return Arrays.hashCode((byte[]) field);
-        } else if (short[].class.equals(type)) {
-            return Arrays.hashCode((short[]) field);
-        } else if (long[].class.equals(type)) {
-            return Arrays.hashCode((long[]) field);
-        } else if (float[].class.equals(type)) {
-            return Arrays.hashCode((float[]) field);
-        } else if (double[].class.equals(type)) {
-            return Arrays.hashCode((double[]) field);
-        } else if (boolean[].class.equals(type)) {
-            return Arrays.hashCode((boolean[]) field);
-        } else if (char[].class.equals(type)) {
-            return Arrays.hashCode((char[]) field);
-        } else {
-            return Arrays.hashCode((Object[]) field);
-        }
-    }
-
     /**
      * A "sane" {@link #toString()} method for record objects with array fields
      * @param toString The record to convert to a string
@@ -111,49 +88,160 @@ final class RecordUtils {
     static String toString(@Nonnull Record toString) {
         final var stringBuilder = new StringBuilder(256);
         stringBuilder.append(toString.getClass().getSimpleName()).append('[');
-        for (RecordComponent component : toString.getClass().getRecordComponents()) {
-            stringBuilder.append(component.getName()).append('=');
-            final Class<?> type = component.getType();
-            final Object field = getField(toString, component);
+        for (Component component : COMPONENTS.get(toString.getClass())) {
+            stringBuilder.append(component.name()).append('=');
+            final Object field = component.get(toString);
             if (field == null) {
                 stringBuilder.append("null");
-            } else if (type.isArray()) {
-                stringBuilder.append(getArrayString(type, field));
             } else {
-                stringBuilder.append(field);
+                stringBuilder.append(component.type().fieldToString(field));
             }
         }
         return stringBuilder.append(']').toString();
     }
 
-    private static String getArrayString(Class<?> type, Object field) {
-        if (int[].class.equals(type)) {
-            return Arrays.toString((int[]) field);
-        } else if (byte[].class.equals(type)) {
-            return Arrays.toString((byte[]) field);
-        } else if (short[].class.equals(type)) {
-            return Arrays.toString((short[]) field);
-        } else if (long[].class.equals(type)) {
-            return Arrays.toString((long[]) field);
-        } else if (float[].class.equals(type)) {
-            return Arrays.toString((float[]) field);
-        } else if (double[].class.equals(type)) {
-            return Arrays.toString((double[]) field);
-        } else if (boolean[].class.equals(type)) {
-            return Arrays.toString((boolean[]) field);
-        } else if (char[].class.equals(type)) {
-            return Arrays.toString((char[]) field);
-        } else {
-            return Arrays.toString((Object[]) field);
+    /**
+     * A cached record component
+     *
+     * @param name     The name of the component
+     * @param type     The array type of the component
+     * @param accessor The accessor for the component, adapted to {@code (Object)Object}
+     */
+    private record Component(String name, ArrayType type, MethodHandle accessor) {
+        /**
+         * Get the value of this component
+         *
+         * @param object The record to get the value from
+         * @return The value
+         */
+        Object get(Record object) {
+            try {
+                return (Object) this.accessor.invokeExact((Object) object);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // We should never hit this with records
+                throw new JosmRuntimeException(e);
+            }
         }
     }
 
-    private static Object getField(Record object, RecordComponent component) {
-        try {
-            return component.getAccessor().invoke(object);
-        } catch (InvocationTargetException | IllegalAccessException e) {
-            // We should never hit this with records
-            throw new JosmRuntimeException(e);
+    /**
+     * The array type of a component, if any
+     */
+    private enum ArrayType {
+        /** Not an array */
+        NONE,
+        /** {@code int[]} */
+        INT,
+        /** {@code byte[]} */
+        BYTE,
+        /** {@code short[]} */
+        SHORT,
+        /** {@code long[]} */
+        LONG,
+        /** {@code float[]} */
+        FLOAT,
+        /** {@code double[]} */
+        DOUBLE,
+        /** {@code boolean[]} */
+        BOOLEAN,
+        /** {@code char[]} */
+        CHAR,
+        /** {@code Object[]} */
+        OBJECT;
+
+        /**
+         * Get the array type for a class
+         *
+         * @param type The class
+         * @return The array type
+         */
+        static ArrayType of(Class<?> type) {
+            if (!type.isArray()) {
+                return NONE;
+            } else if (int[].class.equals(type)) {
+                return INT;
+            } else if (byte[].class.equals(type)) {
+                return BYTE;
+            } else if (short[].class.equals(type)) {
+                return SHORT;
+            } else if (long[].class.equals(type)) {
+                return LONG;
+            } else if (float[].class.equals(type)) {
+                return FLOAT;
+            } else if (double[].class.equals(type)) {
+                return DOUBLE;
+            } else if (boolean[].class.equals(type)) {
+                return BOOLEAN;
+            } else if (char[].class.equals(type)) {
+                return CHAR;
+            }
+            return OBJECT;
+        }
+
+        /**
+         * Check if two fields of this type are equal
+         *
+         * @param first  The first field
+         * @param second The second field
+         * @return {@code true} if the fields are equal
+         */
+        boolean fieldEquals(Object first, Object second) {
+            return switch (this) {
+            case NONE -> Objects.equals(first, second);
+            case INT -> Arrays.equals((int[]) first, (int[]) second);
+            case BYTE -> Arrays.equals((byte[]) first, (byte[]) second);
+            case SHORT -> Arrays.equals((short[]) first, (short[]) second);
+            case LONG -> Arrays.equals((long[]) first, (long[]) second);
+            case FLOAT -> Arrays.equals((float[]) first, (float[]) second);
+            case DOUBLE -> Arrays.equals((double[]) first, (double[]) second);
+            case BOOLEAN -> Arrays.equals((boolean[]) first, (boolean[]) second);
+            case CHAR -> Arrays.equals((char[]) first, (char[]) second);
+            case OBJECT -> Arrays.equals((Object[]) first, (Object[]) second);
+            };
+        }
+
+        /**
+         * Get the hash code for a field of this type
+         *
+         * @param field The field
+         * @return The hash code
+         */
+        int fieldHashCode(Object field) {
+            return switch (this) {
+            case NONE -> Objects.hashCode(field);
+            case INT -> Arrays.hashCode((int[]) field);
+            case BYTE -> Arrays.hashCode((byte[]) field);
+            case SHORT -> Arrays.hashCode((short[]) field);
+            case LONG -> Arrays.hashCode((long[]) field);
+            case FLOAT -> Arrays.hashCode((float[]) field);
+            case DOUBLE -> Arrays.hashCode((double[]) field);
+            case BOOLEAN -> Arrays.hashCode((boolean[]) field);
+            case CHAR -> Arrays.hashCode((char[]) field);
+            case OBJECT -> Arrays.hashCode((Object[]) field);
+            };
+        }
+
+        /**
+         * Convert a non-null field of this type to a string
+         *
+         * @param field The field
+         * @return The string representation
+         */
+        String fieldToString(Object field) {
+            return switch (this) {
+            case NONE -> String.valueOf(field);
+            case INT -> Arrays.toString((int[]) field);
+            case BYTE -> Arrays.toString((byte[]) field);
+            case SHORT -> Arrays.toString((short[]) field);
+            case LONG -> Arrays.toString((long[]) field);
+            case FLOAT -> Arrays.toString((float[]) field);
+            case DOUBLE -> Arrays.toString((double[]) field);
+            case BOOLEAN -> Arrays.toString((boolean[]) field);
+            case CHAR -> Arrays.toString((char[]) field);
+            case OBJECT -> Arrays.toString((Object[]) field);
+            };
         }
     }
 }
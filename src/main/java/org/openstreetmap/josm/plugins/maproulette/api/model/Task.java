@@ -95,13 +95,16 @@ public record Task(long id, @Nonnull String name, @Nonnull Instant created, @Non
     }
 
     /**
-     * Get the cooperative work as an OSC
+     * Get the cooperative work as an OSC. This may decode and parse the OSC, so avoid calling it unless the data is
+     * needed.
      *
-     * @return The cooperative work
+     * @return The cooperative work, or {@code null} if the work is not an OSC or could not be parsed
      */
     @SuppressWarnings("unchecked")
     public Pair<DataSet, NoteData> cooperativeWorkAsOsc() {
-        if (isCooperativeWorkOsc()) {
+        if (this.cooperativeWork instanceof OsmChangeFile osmChangeFile) {
+            return osmChangeFile.get();
+        } else if (isCooperativeWorkOsc()) {
             return (Pair<DataSet, NoteData>) this.cooperativeWork;
         }
         return null;
@@ -113,6 +116,7 @@ public record Task(long id, @Nonnull String name, @Nonnull Instant created, @Non
      * @return {@code true} if the work is an osc
      */
     public boolean isCooperativeWorkOsc() {
-        return this.cooperativeWork instanceof Pair<?, ?> pair && pair.a instanceof DataSet && pair.b instanceof NoteData;
+        return this.cooperativeWork instanceof OsmChangeFile || this.cooperativeWork instanceof Pair<?, ?> pair
+                && pair.a instanceof DataSet && pair.b instanceof NoteData;
     }
 }
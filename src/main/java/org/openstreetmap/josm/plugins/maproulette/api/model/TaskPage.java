@@ -0,0 +1,27 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.api.model;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * A page of tasks from a bounding box
+ *
+ * @param total The total number of tasks in the bounding box, or {@code -1} if the server did not send it
+ * @param tasks The tasks in this page
+ */
+public record TaskPage(long total, @Nonnull ClusteredPoint[] tasks) {
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof TaskPage other && RecordUtils.equals(this, other);
+    }
+
+    @Override
+    public int hashCode() {
+        return RecordUtils.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return RecordUtils.toString(this);
+    }
+}
@@ -7,14 +7,21 @@ import static org.openstreetmap.josm.plugins.maproulette.api.parsers.ParsingUtil
 
 import java.io.InputStream;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 import org.openstreetmap.josm.io.IllegalDataException;
 import org.openstreetmap.josm.plugins.maproulette.api.enums.Difficulty;
 import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
 import org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint;
+import org.openstreetmap.josm.plugins.maproulette.api.model.PointReview;
+import org.openstreetmap.josm.plugins.maproulette.api.model.PublicUser;
+import org.openstreetmap.josm.plugins.maproulette.api.model.TaskPage;
 import org.openstreetmap.josm.tools.JosmRuntimeException;
 
+import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import jakarta.json.Json;
 import jakarta.json.JsonObject;
@@ -26,6 +33,11 @@ import jakarta.json.stream.JsonParser;
  * Parser for {@link org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint}
  */
 public final class ClusteredPointParser {
+    /**
+     * The key for the points when the server also sends the total
+     */
+    private static final String TASKS = "tasks";
+
     /**
      * Prevent instantiation of this parser
      */
@@ -44,10 +56,14 @@ public final class ClusteredPointParser {
             while (parser.hasNext()) {
                 switch (parser.next()) {
                 case START_ARRAY:
-                    return parser.getArrayStream().map(ClusteredPointParser::parse).filter(Objects::nonNull)
-                            .toArray(ClusteredPoint[]::new);
+                    return parseArray(parser.getArrayStream());
                 case START_OBJECT:
-                    return parse(parser.getObject());
+                    final var object = parser.getObject();
+                    if (object.containsKey(TASKS)) {
+                        // Sent when the total was requested
+                        return parseArray(object.getJsonArray(TASKS).stream());
+                    }
+                    return parse(object, new Dictionary());
                 default:
                     // Keep going
                 }
@@ -56,21 +72,52 @@ public final class ClusteredPointParser {
         throw new IllegalArgumentException("InputStream did not contain a valid ClusteredPoint");
     }
 
+    /**
+     * Parse a page of {@link ClusteredPoint}s, as returned when the total is requested
+     *
+     * @param inputStream The originating stream
+     * @return The page. If the server only sent the points, the total is {@code -1}.
+     */
+    @Nonnull
+    public static TaskPage parsePage(InputStream inputStream) {
+        try (JsonParser parser = Json.createParser(inputStream)) {
+            while (parser.hasNext()) {
+                switch (parser.next()) {
+                case START_ARRAY:
+                    return new TaskPage(-1, parseArray(parser.getArrayStream()));
+                case START_OBJECT:
+                    final var object = parser.getObject();
+                    return new TaskPage(object.getJsonNumber("total").longValue(),
+                            parseArray(object.getJsonArray(TASKS).stream()));
+                default:
+                    // Keep going
+                }
+            }
+        }
+        throw new IllegalArgumentException("InputStream did not contain a valid task page");
+    }
+
+    private static ClusteredPoint[] parseArray(Stream<JsonValue> values) {
+        final var dictionary = new Dictionary();
+        return values.map(value -> parse(value, dictionary)).filter(Objects::nonNull).toArray(ClusteredPoint[]::new);
+    }
+
     /**
      * Create a new point from a value
      *
-     * @param value The value object
+     * @param value      The value object
+     * @param dictionary The dictionary used to share repeated values between points from the same response
      * @return The point
      */
     @Nullable
-    private static ClusteredPoint parse(JsonValue value) {
+    private static ClusteredPoint parse(JsonValue value, Dictionary dictionary) {
         if (value instanceof JsonObject object) {
             return new ClusteredPoint(object.getJsonNumber("id").longValue(), object.getJsonNumber("owner").longValue(),
-                    object.getString("ownerName"), object.getString("title"),
-                    object.getJsonNumber("parentId").longValue(), object.getString("parentName"),
+                    dictionary.string(object.getString("ownerName")), object.getString("title"),
+                    object.getJsonNumber("parentId").longValue(), dictionary.string(object.getString("parentName")),
                     Objects.requireNonNull(PointParser.parse(object.getJsonObject("point"))),
-                    parseBounding(object.get("bounding")), object.getString("blurb"),
-                    Instant.parse(object.getString("modified")),
+                    parseBounding(object.get("bounding"), dictionary), dictionary.string(object.getString("blurb")),
+                    dictionary.instant(object.getString("modified")),
                     object.containsKey("difficulty") && object.getInt("difficulty") > 0
                             ? Difficulty.values()[object.getInt("difficulty") - 1]
                             : null,
@@ -78,17 +125,18 @@ public final class ClusteredPointParser {
                     object.containsKey("status") ? TaskStatus.values()[object.getInt("status")] : null,
                     object.getString("cooperativeWork", null), optionalInstant(object, "mappedOn"),
                     optionalLong(object, "completedTimeSpent"),
-                    optionalObject(object, "completedBy", UserParser::parse),
-                    PointReviewParser.parse(object.getJsonObject("pointReview")), object.getInt("priority", 0),
+                    dictionary.user(optionalObject(object, "completedBy", UserParser::parse)),
+                    dictionary.review(PointReviewParser.parse(object.getJsonObject("pointReview"))),
+                    object.getInt("priority", 0),
                     optionalLong(object, "bundleId"), object.getBoolean("isBundlePrimary", false));
         }
         return null;
     }
 
     @Nullable
-    private static Object parseBounding(JsonValue bounding) {
+    private static Object parseBounding(JsonValue bounding, Dictionary dictionary) {
         if (bounding instanceof JsonString str) {
-            return str.getString();
+            return dictionary.string(str.getString());
         } else if (bounding instanceof JsonObject obj) {
             if (obj.isEmpty()) {
                 return null;
@@ -101,4 +149,63 @@ public final class ClusteredPointParser {
         }
         throw new IllegalArgumentException(bounding.toString());
     }
+
+    /**
+     * A dictionary for values that are repeated across many points in a single response.
+     * Large box responses are usually dominated by a handful of challenges, so the parent name, blurb, owner,
+     * modification time, and (usually empty) review objects are shared instead of being held once per task.
+     */
+    private static final class Dictionary {
+        private final Map<String, String> strings = new HashMap<>();
+        private final Map<String, Instant> instants = new HashMap<>();
+        private final Map<Long, PublicUser> users = new HashMap<>();
+        private final Map<PointReview, PointReview> reviews = new HashMap<>();
+
+        /**
+         * Get the canonical instance of a string
+         *
+         * @param string The string to look up
+         * @return The canonical string
+         */
+        @Nonnull
+        String string(@Nonnull String string) {
+            return this.strings.computeIfAbsent(string, s -> s);
+        }
+
+        /**
+         * Parse an instant, reusing previously parsed instants
+         *
+         * @param instant The instant string
+         * @return The parsed instant
+         */
+        @Nonnull
+        Instant instant(@Nonnull String instant) {
+            return this.instants.computeIfAbsent(instant, Instant::parse);
+        }
+
+        /**
+         * Get the canonical instance of a user
+         *
+         * @param user The user to look up
+         * @return The canonical user
+         */
+        @Nullable
+        PublicUser user(@Nullable PublicUser user) {
+            if (user == null) {
+                return null;
+            }
+            return this.users.computeIfAbsent(user.id(), id -> user);
+        }
+
+        /**
+         * Get the canonical instance of a review
+         *
+         * @param review The review to look up
+         * @return The canonical review
+         */
+        @Nonnull
+        PointReview review(@Nonnull PointReview review) {
+            return this.reviews.computeIfAbsent(review, r -> r);
+        }
+    }
 }
@@ -5,13 +5,10 @@ import static org.openstreetmap.josm.plugins.maproulette.api.parsers.ParsingUtil
 import static org.openstreetmap.josm.plugins.maproulette.api.parsers.ParsingUtils.optionalInteger;
 import static org.openstreetmap.josm.plugins.maproulette.api.parsers.ParsingUtils.optionalLong;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.Collections;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -19,9 +16,7 @@ import java.util.stream.Collectors;
 import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
 import org.openstreetmap.josm.data.osm.PrimitiveId;
 import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
-import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
 import org.openstreetmap.josm.io.IllegalDataException;
-import org.openstreetmap.josm.io.OsmChangeReader;
 import org.openstreetmap.josm.plugins.maproulette.api.UnauthorizedException;
 import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
 import org.openstreetmap.josm.plugins.maproulette.api.model.ElementCreate;
@@ -29,10 +24,10 @@ import org.openstreetmap.josm.plugins.maproulette.api.model.ElementTagChange;
 import org.openstreetmap.josm.plugins.maproulette.api.model.ElementUpdate;
 import org.openstreetmap.josm.plugins.maproulette.api.model.MapillaryImages;
 import org.openstreetmap.josm.plugins.maproulette.api.model.OSMChange;
+import org.openstreetmap.josm.plugins.maproulette.api.model.OsmChangeFile;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Point;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
 import org.openstreetmap.josm.plugins.maproulette.api.model.TaskReviewFields;
-import org.openstreetmap.josm.tools.ExceptionUtil;
 import org.openstreetmap.josm.tools.JosmRuntimeException;
 
 import jakarta.annotation.Nonnull;
@@ -190,15 +185,7 @@ public final class TaskParser {
             final var file = object.getJsonObject("file");
             if ("xml".equals(file.getString("type", null)) && "osc".equals(file.getString("format", null))
                     && "base64".equals(file.getString("encoding"))) {
-                final var dataString = Base64.getDecoder()
-                        .decode(file.getString("content").getBytes(StandardCharsets.UTF_8));
-                try {
-                    return OsmChangeReader.parseDataSetAndNotes(new ByteArrayInputStream(dataString),
-                            NullProgressMonitor.INSTANCE);
-                } catch (IllegalDataException e) {
-                    ExceptionUtil.explainException(e);
-                }
-
+                return new OsmChangeFile(file.getString("content"));
             }
         }
         return null;
@@ -31,12 +31,13 @@ public final class TaskCache {
      * @throws IOException if there was a problem communicating with the server
      */
     public static Task get(long id) throws IOException {
-        if (CACHE.get(id) == null) {
-            synchronized (CACHE) {
-                CACHE.put(id, TaskAPI.get(id));
-            }
+        // Don't hold a lock while fetching, so that different tasks can be fetched in parallel
+        var task = CACHE.get(id);
+        if (task == null) {
+            task = TaskAPI.get(id);
+            CACHE.put(id, task);
         }
-        return CACHE.get(id);
+        return task;
     }
 
     /**
@@ -2,14 +2,20 @@
 package org.openstreetmap.josm.plugins.maproulette.data;
 
 import java.util.Arrays;
-import java.util.function.LongPredicate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.UnaryOperator;
+import java.util.stream.LongStream;
 
 /**
  * Hidden tasks from filters
  */
 public final class HiddenList {
-    private static LongPredicate[] tests = new LongPredicate[0];
-    private static long[] hidden = new long[0];
+    private static final List<UnaryOperator<long[]>> UPDATERS = new CopyOnWriteArrayList<>();
+    /**
+     * The sorted hidden ids. This is replaced as a whole, so readers always see a consistent snapshot.
+     */
+    private static volatile long[] hidden = new long[0];
 
     private HiddenList() {
         // Hide constructor
@@ -20,32 +26,34 @@ public final class HiddenList {
      * @param ids The ids to use
      */
     public static void update(long... ids) {
-        final var t = tests;
-        final var tIds = new long[ids.length];
-        int count = 0;
-        for (long id : ids) {
-            for (LongPredicate test : t) {
-                if (test.test(id)) {
-                    tIds[count++] = id;
-                    break;
-                }
-            }
+        final var sorted = ids.clone();
+        Arrays.sort(sorted);
+        var h = new long[0];
+        for (var updater : UPDATERS) {
+            final var updaterHidden = updater.apply(sorted);
+            h = h.length == 0 ? updaterHidden.clone()
+                    : LongStream.concat(Arrays.stream(h), Arrays.stream(updaterHidden)).toArray();
         }
-        var h = Arrays.copyOf(tIds, count);
         Arrays.sort(h);
-        hidden = h;
+        hidden = LongStream.of(h).distinct().toArray();
     }
 
     /**
-     * Add a function to use for checking whether a task is hidden
-     * @param checkFunction The function to use; a return of {@code true} means that the task should be hidden.
+     * Add a function to use for finding hidden tasks
+     * @param updateFunction The function to use. It is given the sorted ids of all tasks, and should return the ids
+     *                       of the tasks that should be hidden. It should compute all of them in a single pass
+     *                       instead of checking each id separately.
      */
-    public static void addListUpdater(LongPredicate checkFunction) {
-        synchronized (HiddenList.class) {
-            var t = Arrays.copyOf(tests, tests.length + 1);
-            t[t.length - 1] = checkFunction;
-            tests = t;
-        }
+    public static void addListUpdater(UnaryOperator<long[]> updateFunction) {
+        UPDATERS.add(updateFunction);
+    }
+
+    /**
+     * Remove a function used for finding hidden tasks
+     * @param updateFunction The function to remove
+     */
+    public static void removeListUpdater(UnaryOperator<long[]> updateFunction) {
+        UPDATERS.remove(updateFunction);
     }
 
     /**
@@ -1,31 +1,79 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.plugins.maproulette.data;
 
-import java.util.Arrays;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.regex.Pattern;
-import java.util.stream.LongStream;
 
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
 
 /**
- * Lists of ignored objects
+ * Lists of ignored objects.
+ * <p>
+ * The ids are kept in {@link LongBitmap}s, which are replaced on every change, so checks do not lock. They are stored
+ * in the MapRoulette cache directory as a snapshot ({@value #SNAPSHOT}) and a log of the changes since the snapshot
+ * ({@value #LOG}). The log is folded into a new snapshot once it gets large.
  * FIXME: Surface this in the UI somewhere
  */
 public final class IgnoreList {
+    private static final String TASKS_PREFERENCE = "maproulette.ignore.tasks";
+    private static final String CHALLENGES_PREFERENCE = "maproulette.ignore.challenges";
+    private static final String SNAPSHOT = "ignore.bin";
+    private static final String LOG = "ignore.log";
+    /**
+     * The start of a snapshot file ("MRIG")
+     */
+    private static final int MAGIC = 0x4d524947;
+    private static final byte VERSION = 1;
+    private static final byte IGNORE_TASK = 0;
+    private static final byte UNIGNORE_TASK = 1;
+    private static final byte IGNORE_CHALLENGE = 2;
+    private static final byte UNIGNORE_CHALLENGE = 3;
+    /**
+     * The size of a log entry (operation and id)
+     */
+    private static final int LOG_ENTRY_SIZE = Byte.BYTES + Long.BYTES;
+    /**
+     * The minimum number of log entries before the log is folded into the snapshot
+     */
+    private static final int COMPACT_MINIMUM = 1024;
+    /**
+     * Used to avoid writing the files from two threads at once
+     */
+    private static final Object FILE_LOCK = new Object();
+    /**
+     * The changes that have not been written to the log yet. Guarded by the class lock.
+     */
+    private static final ByteArrayOutputStream PENDING = new ByteArrayOutputStream();
     /**
      * The ignored tasks
      */
-    private static long[] ignoredTasks = convertList(Config.getPref().getList("maproulette.ignore.tasks"));
+    private static volatile LongBitmap ignoredTasks = LongBitmap.EMPTY;
     /**
      * The ignored challenges
      */
-    private static long[] ignoredChallenges = convertList(Config.getPref().getList("maproulette.ignore.challenges"));
+    private static volatile LongBitmap ignoredChallenges = LongBitmap.EMPTY;
     /**
-     * {@code true} if a save is required
+     * The number of entries in the log file. Guarded by {@link #FILE_LOCK}.
      */
-    private static boolean save;
+    private static long logEntries;
+
+    static {
+        load();
+    }
 
     /**
      * The default hidden constructor
@@ -35,107 +83,201 @@ public final class IgnoreList {
     }
 
     /**
-     * Convert a list of ids to a long[]
+     * Get the directory for the ignore list
      *
-     * @param ids The ids to convert
-     * @return the array to use
+     * @return The directory, or {@code null} if there is no cache directory (e.g., in some tests)
      */
-    private static long[] convertList(List<String> ids) {
-        final var pattern = Pattern.compile("^\\d\\+$").asMatchPredicate();
-        return ids.stream().filter(pattern).mapToLong(Long::parseLong).toArray();
+    private static File directory() {
+        final var dirs = Config.getDirs();
+        return dirs != null ? new File(dirs.getCacheDirectory(true), "maproulette") : null;
     }
 
     /**
-     * Ignore a task
+     * Load the ignore lists. Lists from older versions (in the preferences) are moved to the cache directory.
+     */
+    private static void load() {
+        final var directory = directory();
+        final var snapshot = directory != null ? new File(directory, SNAPSHOT) : null;
+        final var log = directory != null ? new File(directory, LOG) : null;
+        if (snapshot == null || !snapshot.isFile() && !log.isFile()) {
+            ignoredTasks = LongBitmap.of(convertList(Config.getPref().getList(TASKS_PREFERENCE)));
+            ignoredChallenges = LongBitmap.of(convertList(Config.getPref().getList(CHALLENGES_PREFERENCE)));
+            if (snapshot != null && (ignoredTasks.cardinality() > 0 || ignoredChallenges.cardinality() > 0)) {
+                try {
+                    compact(directory, ignoredTasks, ignoredChallenges);
+                    Config.getPref().putList(TASKS_PREFERENCE, null);
+                    Config.getPref().putList(CHALLENGES_PREFERENCE, null);
+                } catch (IOException ioException) {
+                    Logging.error(ioException);
+                }
+            }
+            return;
+        }
+        try {
+            if (snapshot.isFile()) {
+                try (var input = new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(snapshot.toPath())))) {
+                    if (input.readInt() != MAGIC || input.readByte() != VERSION) {
+                        throw new IOException("Unknown ignore list format: " + snapshot);
+                    }
+                    ignoredTasks = LongBitmap.read(input);
+                    ignoredChallenges = LongBitmap.read(input);
+                }
+            }
+            if (log.isFile()) {
+                replay(log);
+            }
+        } catch (IOException ioException) {
+            Logging.error(ioException);
+        }
+    }
+
+    /**
+     * Apply the changes in the log
      *
-     * @param id The task to ignore
+     * @param log The log file
+     * @throws IOException if the log could not be read
      */
-    public static synchronized void ignoreTask(long id) {
-        final var location = Arrays.binarySearch(ignoredTasks, id);
-        if (location < 0) {
-            ignoredTasks = insertIntoArray(ignoredTasks, id, convertToInsertionPoint(location));
-            save = true;
-            MainApplication.worker.execute(IgnoreList::save);
+    private static void replay(File log) throws IOException {
+        var entries = 0L;
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(log.toPath())))) {
+            while (true) {
+                final byte operation;
+                final long id;
+                try {
+                    operation = input.readByte();
+                    id = input.readLong();
+                } catch (EOFException eofException) {
+                    // Either the end of the log, or a partially written last entry
+                    Logging.trace(eofException);
+                    break;
+                }
+                switch (operation) {
+                case IGNORE_TASK -> ignoredTasks = ignoredTasks.add(id);
+                case UNIGNORE_TASK -> ignoredTasks = ignoredTasks.remove(id);
+                case IGNORE_CHALLENGE -> ignoredChallenges = ignoredChallenges.add(id);
+                case UNIGNORE_CHALLENGE -> ignoredChallenges = ignoredChallenges.remove(id);
+                default -> throw new IOException("Unknown ignore list operation " + operation + " in " + log);
+                }
+                entries++;
+            }
+        }
+        synchronized (FILE_LOCK) {
+            logEntries = entries;
         }
     }
 
     /**
-     * Insert into an array
+     * Convert a list of ids to a long[]
      *
-     * @param array    The array to insert into
-     * @param id       The id to insert
-     * @param location The location to insert
-     * @return The new array
+     * @param ids The ids to convert
+     * @return the array to use
      */
-    private static long[] insertIntoArray(long[] array, long id, int location) {
-        final var newArray = Arrays.copyOf(array, array.length + 1);
-        newArray[location] = id;
-        System.arraycopy(array, location, newArray, location + 1, array.length - location);
-        return newArray;
+    private static long[] convertList(List<String> ids) {
+        final var pattern = Pattern.compile("^\\d+$").asMatchPredicate();
+        return ids.stream().filter(pattern).mapToLong(Long::parseLong).toArray();
     }
 
     /**
-     * Convert a location from {@link Arrays#binarySearch} to something usable
+     * Record a change to be written to the log. The caller must hold the class lock.
      *
-     * @param location The location, as defined by {@code - (insertion point) - 1}
-     * @return The actual insertion point
+     * @param operation The operation
+     * @param id        The id
      */
-    private static int convertToInsertionPoint(int location) {
-        if (location >= 0) {
-            throw new IllegalArgumentException("Invalid location");
+    private static void record(byte operation, long id) {
+        final var output = new DataOutputStream(PENDING);
+        try {
+            output.writeByte(operation);
+            output.writeLong(id);
+        } catch (IOException ioException) {
+            // ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(ioException);
         }
-        return -(location + 1);
+        MainApplication.worker.execute(IgnoreList::save);
     }
 
     /**
-     * Save the ignored tasks and challenges
+     * Ignore a task
+     *
+     * @param id The task to ignore
      */
-    private static synchronized void save() {
-        final var doSave = save;
-        save = false;
-        final var tasks = ignoredTasks;
-        final var challenges = ignoredChallenges;
-        if (doSave) {
-            Config.getPref().putList("maproulette.ignore.tasks", convertList(tasks));
-            Config.getPref().putList("maproulette.ignore.challenges", convertList(challenges));
+    public static synchronized void ignoreTask(long id) {
+        final var updated = ignoredTasks.add(id);
+        if (updated != ignoredTasks) {
+            ignoredTasks = updated;
+            record(IGNORE_TASK, id);
         }
     }
 
     /**
-     * Convert an array of ids to a list
-     *
-     * @param ids The ids to convert
-     * @return The list to save
+     * Save the pending changes to the log, and fold the log into the snapshot if it is large
      */
-    private static List<String> convertList(long[] ids) {
-        return LongStream.of(ids).mapToObj(Long::toString).toList();
+    private static void save() {
+        final byte[] changes;
+        final LongBitmap tasks;
+        final LongBitmap challenges;
+        synchronized (IgnoreList.class) {
+            changes = PENDING.toByteArray();
+            PENDING.reset();
+            tasks = ignoredTasks;
+            challenges = ignoredChallenges;
+        }
+        final var directory = directory();
+        if (changes.length == 0 || directory == null) {
+            return;
+        }
+        synchronized (FILE_LOCK) {
+            try {
+                logEntries += changes.length / LOG_ENTRY_SIZE;
+                if (logEntries > Math.max(COMPACT_MINIMUM, tasks.cardinality() + challenges.cardinality())) {
+                    compact(directory, tasks, challenges);
+                } else {
+                    Files.createDirectories(directory.toPath());
+                    Files.write(new File(directory, LOG).toPath(), changes, StandardOpenOption.CREATE,
+                            StandardOpenOption.APPEND);
+                }
+            } catch (IOException ioException) {
+                Logging.error(ioException);
+            }
+        }
     }
 
     /**
-     * Unignore a task
+     * Write a new snapshot and remove the log
      *
-     * @param id The task to remove from the ignore list
+     * @param directory  The directory to write to
+     * @param tasks      The ignored tasks
+     * @param challenges The ignored challenges
+     * @throws IOException if the snapshot could not be written
      */
-    public static synchronized void unignoreTask(long id) {
-        final var location = Arrays.binarySearch(ignoredTasks, id);
-        if (location >= 0) {
-            ignoredTasks = removeFromArray(ignoredTasks, location);
-            save = true;
-            MainApplication.worker.execute(IgnoreList::save);
+    private static void compact(File directory, LongBitmap tasks, LongBitmap challenges) throws IOException {
+        synchronized (FILE_LOCK) {
+            Files.createDirectories(directory.toPath());
+            final var temporary = new File(directory, SNAPSHOT + ".tmp").toPath();
+            try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                output.writeInt(MAGIC);
+                output.writeByte(VERSION);
+                tasks.write(output);
+                challenges.write(output);
+            }
+            Files.move(temporary, new File(directory, SNAPSHOT).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(new File(directory, LOG).toPath());
+            logEntries = 0;
         }
     }
 
     /**
-     * Remove an array index
+     * Unignore a task
      *
-     * @param array    The array to modify
-     * @param location The location to remove
-     * @return The new array
+     * @param id The task to remove from the ignore list
      */
-    private static long[] removeFromArray(long[] array, int location) {
-        final var newArray = Arrays.copyOf(array, array.length - 1);
-        System.arraycopy(array, location, newArray, location, array.length - 1);
-        return newArray;
+    public static synchronized void unignoreTask(long id) {
+        final var updated = ignoredTasks.remove(id);
+        if (updated != ignoredTasks) {
+            ignoredTasks = updated;
+            record(UNIGNORE_TASK, id);
+        }
     }
 
     /**
@@ -145,7 +287,7 @@ public final class IgnoreList {
      * @return {@code true} if the task is ignored
      */
     public static boolean isTaskIgnored(long id) {
-        return Arrays.binarySearch(ignoredTasks, id) >= 0;
+        return ignoredTasks.contains(id);
     }
 
     /**
@@ -154,11 +296,10 @@ public final class IgnoreList {
      * @param id The challenge to ignore
      */
     public static synchronized void ignoreChallenge(long id) {
-        final var location = Arrays.binarySearch(ignoredChallenges, id);
-        if (location < 0) {
-            ignoredChallenges = insertIntoArray(ignoredChallenges, id, convertToInsertionPoint(location));
-            save = true;
-            MainApplication.worker.execute(IgnoreList::save);
+        final var updated = ignoredChallenges.add(id);
+        if (updated != ignoredChallenges) {
+            ignoredChallenges = updated;
+            record(IGNORE_CHALLENGE, id);
         }
     }
 
@@ -168,11 +309,10 @@ public final class IgnoreList {
      * @param id The challenge to remove
      */
     public static synchronized void unignoreChallenge(long id) {
-        final var location = Arrays.binarySearch(ignoredChallenges, id);
-        if (location >= 0) {
-            ignoredChallenges = removeFromArray(ignoredChallenges, location);
-            save = true;
-            MainApplication.worker.execute(IgnoreList::save);
+        final var updated = ignoredChallenges.remove(id);
+        if (updated != ignoredChallenges) {
+            ignoredChallenges = updated;
+            record(UNIGNORE_CHALLENGE, id);
         }
     }
 
@@ -183,7 +323,7 @@ public final class IgnoreList {
      * @return {@code true} if the challenge is ignored
      */
     public static boolean isChallengeIgnored(long id) {
-        return Arrays.binarySearch(ignoredChallenges, id) >= 0;
+        return ignoredChallenges.contains(id);
     }
 
     /**
@@ -192,7 +332,7 @@ public final class IgnoreList {
      * @return The ignored task ids
      */
     public static long[] ignoredTasks() {
-        return ignoredTasks.clone();
+        return ignoredTasks.toArray();
     }
 
     /**
@@ -201,6 +341,6 @@ public final class IgnoreList {
      * @return The ignored challenge ids
      */
     public static long[] ignoredChallenges() {
-        return ignoredChallenges.clone();
+        return ignoredChallenges.toArray();
     }
 }
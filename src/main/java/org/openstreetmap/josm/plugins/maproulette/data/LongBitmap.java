@@ -0,0 +1,333 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * An immutable, compressed set of {@code long}s. Ids are split into a high key ({@code id >> 16}) and a low
+ * {@code char}. Each key has a container with the low values, which is a sorted {@code char[]} for sparse keys and a
+ * 65536 bit {@code long[]} for dense keys. Changes only copy the container that changed, so that readers can use an
+ * instance without locking.
+ */
+final class LongBitmap {
+    /**
+     * A bitmap with no values
+     */
+    static final LongBitmap EMPTY = new LongBitmap(new long[0], new Object[0], 0);
+    /**
+     * The maximum size of an array container. Past this, a bitmap container is smaller.
+     */
+    private static final int ARRAY_MAX = 4096;
+    /**
+     * The number of words in a bitmap container
+     */
+    private static final int BITMAP_WORDS = 1 << 10;
+    /**
+     * The sorted high keys
+     */
+    private final long[] keys;
+    /**
+     * The containers for each key; either {@code char[]} or {@code long[]}
+     */
+    private final Object[] containers;
+    /**
+     * The number of values
+     */
+    private final long cardinality;
+
+    private LongBitmap(long[] keys, Object[] containers, long cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Create a new bitmap
+     *
+     * @param ids The ids in the bitmap. Duplicates are ignored.
+     * @return The new bitmap
+     */
+    @Nonnull
+    static LongBitmap of(long... ids) {
+        final var sorted = ids.clone();
+        Arrays.sort(sorted);
+        final var newKeys = new long[sorted.length];
+        final var newContainers = new Object[sorted.length];
+        final var lows = new char[1 << 16];
+        var containerCount = 0;
+        var total = 0L;
+        var i = 0;
+        while (i < sorted.length) {
+            final var key = sorted[i] >> 16;
+            var size = 0;
+            for (; i < sorted.length && sorted[i] >> 16 == key; i++) {
+                final var low = (char) sorted[i];
+                if (size == 0 || lows[size - 1] != low) {
+                    lows[size++] = low;
+                }
+            }
+            newKeys[containerCount] = key;
+            newContainers[containerCount++] = container(lows, size);
+            total += size;
+        }
+        return new LongBitmap(Arrays.copyOf(newKeys, containerCount), Arrays.copyOf(newContainers, containerCount),
+                total);
+    }
+
+    /**
+     * Check if a value is in this bitmap
+     *
+     * @param id The value to look for
+     * @return {@code true} if the value is present
+     */
+    boolean contains(long id) {
+        final var index = Arrays.binarySearch(this.keys, id >> 16);
+        if (index < 0) {
+            return false;
+        }
+        final var low = (char) id;
+        if (this.containers[index] instanceof char[] array) {
+            return Arrays.binarySearch(array, low) >= 0;
+        }
+        final var bitmap = (long[]) this.containers[index];
+        return (bitmap[low >>> 6] & (1L << low)) != 0;
+    }
+
+    /**
+     * Get a bitmap with a value added
+     *
+     * @param id The value to add
+     * @return The new bitmap, or this bitmap if the value was already present
+     */
+    @Nonnull
+    LongBitmap add(long id) {
+        final var key = id >> 16;
+        final var low = (char) id;
+        final var index = Arrays.binarySearch(this.keys, key);
+        if (index < 0) {
+            final var insertion = -index - 1;
+            final var newKeys = new long[this.keys.length + 1];
+            final var newContainers = new Object[this.containers.length + 1];
+            System.arraycopy(this.keys, 0, newKeys, 0, insertion);
+            System.arraycopy(this.containers, 0, newContainers, 0, insertion);
+            newKeys[insertion] = key;
+            newContainers[insertion] = new char[] { low };
+            System.arraycopy(this.keys, insertion, newKeys, insertion + 1, this.keys.length - insertion);
+            System.arraycopy(this.containers, insertion, newContainers, insertion + 1,
+                    this.containers.length - insertion);
+            return new LongBitmap(newKeys, newContainers, this.cardinality + 1);
+        }
+        final Object newContainer;
+        if (this.containers[index] instanceof char[] array) {
+            final var position = Arrays.binarySearch(array, low);
+            if (position >= 0) {
+                return this;
+            }
+            final var insertion = -position - 1;
+            final var newArray = new char[array.length + 1];
+            System.arraycopy(array, 0, newArray, 0, insertion);
+            newArray[insertion] = low;
+            System.arraycopy(array, insertion, newArray, insertion + 1, array.length - insertion);
+            newContainer = container(newArray, newArray.length);
+        } else {
+            final var bitmap = (long[]) this.containers[index];
+            if ((bitmap[low >>> 6] & (1L << low)) != 0) {
+                return this;
+            }
+            final var newBitmap = bitmap.clone();
+            newBitmap[low >>> 6] |= 1L << low;
+            newContainer = newBitmap;
+        }
+        return this.replace(index, newContainer, this.cardinality + 1);
+    }
+
+    /**
+     * Get a bitmap with a value removed
+     *
+     * @param id The value to remove
+     * @return The new bitmap, or this bitmap if the value was not present
+     */
+    @Nonnull
+    LongBitmap remove(long id) {
+        final var index = Arrays.binarySearch(this.keys, id >> 16);
+        if (index < 0) {
+            return this;
+        }
+        final var low = (char) id;
+        final Object newContainer;
+        if (this.containers[index] instanceof char[] array) {
+            final var position = Arrays.binarySearch(array, low);
+            if (position < 0) {
+                return this;
+            }
+            if (array.length == 1) {
+                final var newKeys = new long[this.keys.length - 1];
+                final var newContainers = new Object[this.containers.length - 1];
+                System.arraycopy(this.keys, 0, newKeys, 0, index);
+                System.arraycopy(this.containers, 0, newContainers, 0, index);
+                System.arraycopy(this.keys, index + 1, newKeys, index, this.keys.length - index - 1);
+                System.arraycopy(this.containers, index + 1, newContainers, index, this.containers.length - index - 1);
+                return new LongBitmap(newKeys, newContainers, this.cardinality - 1);
+            }
+            final var newArray = new char[array.length - 1];
+            System.arraycopy(array, 0, newArray, 0, position);
+            System.arraycopy(array, position + 1, newArray, position, array.length - position - 1);
+            newContainer = newArray;
+        } else {
+            final var bitmap = (long[]) this.containers[index];
+            if ((bitmap[low >>> 6] & (1L << low)) == 0) {
+                return this;
+            }
+            final var newBitmap = bitmap.clone();
+            newBitmap[low >>> 6] &= ~(1L << low);
+            newContainer = cardinality(newBitmap) <= ARRAY_MAX ? toArray(newBitmap) : newBitmap;
+        }
+        return this.replace(index, newContainer, this.cardinality - 1);
+    }
+
+    /**
+     * Get the number of values
+     *
+     * @return The number of values in this bitmap
+     */
+    long cardinality() {
+        return this.cardinality;
+    }
+
+    /**
+     * Get the values
+     *
+     * @return The sorted values in this bitmap
+     */
+    @Nonnull
+    long[] toArray() {
+        final var values = new long[Math.toIntExact(this.cardinality)];
+        var index = 0;
+        for (var i = 0; i < this.keys.length; i++) {
+            final var high = this.keys[i] << 16;
+            final var array = this.containers[i] instanceof char[] chars ? chars : toArray((long[]) this.containers[i]);
+            for (char low : array) {
+                values[index++] = high | low;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Write this bitmap
+     *
+     * @param output The output to write to
+     * @throws IOException if the output could not be written to
+     */
+    void write(DataOutput output) throws IOException {
+        output.writeInt(this.keys.length);
+        for (var i = 0; i < this.keys.length; i++) {
+            output.writeLong(this.keys[i]);
+            if (this.containers[i] instanceof char[] array) {
+                output.writeInt(array.length);
+                for (char low : array) {
+                    output.writeChar(low);
+                }
+            } else {
+                final var bitmap = (long[]) this.containers[i];
+                output.writeInt(cardinality(bitmap));
+                for (long word : bitmap) {
+                    output.writeLong(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a bitmap written by {@link #write(DataOutput)}
+     *
+     * @param input The input to read from
+     * @return The bitmap
+     * @throws IOException if the input could not be read or is not a bitmap
+     */
+    @Nonnull
+    static LongBitmap read(DataInput input) throws IOException {
+        final var count = input.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid container count: " + count);
+        }
+        final var newKeys = new long[count];
+        final var newContainers = new Object[count];
+        var total = 0L;
+        for (var i = 0; i < count; i++) {
+            newKeys[i] = input.readLong();
+            if (i > 0 && newKeys[i] <= newKeys[i - 1]) {
+                throw new IOException("Keys are not sorted");
+            }
+            final var size = input.readInt();
+            if (size <= 0 || size > 1 << 16) {
+                throw new IOException("Invalid container size: " + size);
+            }
+            if (size <= ARRAY_MAX) {
+                final var array = new char[size];
+                for (var j = 0; j < size; j++) {
+                    array[j] = input.readChar();
+                }
+                newContainers[i] = array;
+            } else {
+                final var bitmap = new long[BITMAP_WORDS];
+                for (var j = 0; j < BITMAP_WORDS; j++) {
+                    bitmap[j] = input.readLong();
+                }
+                newContainers[i] = bitmap;
+            }
+            total += size;
+        }
+        return new LongBitmap(newKeys, newContainers, total);
+    }
+
+    private LongBitmap replace(int index, Object container, long newCardinality) {
+        final var newContainers = this.containers.clone();
+        newContainers[index] = container;
+        return new LongBitmap(this.keys, newContainers, newCardinality);
+    }
+
+    /**
+     * Create a container
+     *
+     * @param lows The sorted, distinct low values
+     * @param size The number of low values to use
+     * @return The container
+     */
+    private static Object container(char[] lows, int size) {
+        if (size <= ARRAY_MAX) {
+            return Arrays.copyOf(lows, size);
+        }
+        final var bitmap = new long[BITMAP_WORDS];
+        for (var i = 0; i < size; i++) {
+            bitmap[lows[i] >>> 6] |= 1L << lows[i];
+        }
+        return bitmap;
+    }
+
+    private static int cardinality(long[] bitmap) {
+        var count = 0;
+        for (long word : bitmap) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static char[] toArray(long[] bitmap) {
+        final var array = new char[cardinality(bitmap)];
+        var index = 0;
+        for (var i = 0; i < bitmap.length; i++) {
+            var word = bitmap[i];
+            while (word != 0) {
+                array[index++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+}
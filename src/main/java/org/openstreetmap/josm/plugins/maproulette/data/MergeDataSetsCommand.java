@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
@@ -40,6 +41,14 @@ import org.openstreetmap.josm.tools.JosmRuntimeException;
  * TODO move to JOSM core
  */
 public class MergeDataSetsCommand extends Command {
+    /**
+     * The number of source primitives of a type before planning is done in parallel
+     */
+    private static final int PARALLEL_THRESHOLD = 10_000;
+    /**
+     * The number of primitives to merge between progress updates
+     */
+    private static final int PROGRESS_BATCH = 1_000;
     /**
      * {@code true} if we want to merge DataSet bounds
      */
@@ -69,10 +78,14 @@ public class MergeDataSetsCommand extends Command {
      */
     private final Map<PrimitiveId, PrimitiveId> mergedMap = new HashMap<>();
     /**
-     * a set of primitive ids for which we have to fix references (to nodes and
-     * to relation members) after the first phase of merging
+     * The source ways for which we have to fix node references after the first phase of merging, in source order
      */
-    private final Set<PrimitiveId> objectsWithChildrenToMerge = new HashSet<>();
+    private final List<Way> waysWithChildrenToMerge = new ArrayList<>();
+    /**
+     * The source relations for which we have to fix member references after the first phase of merging, in source
+     * order
+     */
+    private final List<Relation> relationsWithChildrenToMerge = new ArrayList<>();
     private final Set<OsmPrimitive> objectsToDelete = new HashSet<>();
 
     /**
@@ -119,40 +132,10 @@ public class MergeDataSetsCommand extends Command {
             progressMonitor.beginTask(tr("Merging data..."), sourceDataSet.allPrimitives().size());
         }
         targetDataSet.update(() -> {
-            List<? extends OsmPrimitive> candidates = null;
-            for (Node node : sourceDataSet.getNodes()) {
-                // lazy initialisation to improve performance, see #19898
-                if (candidates == null) {
-                    candidates = new ArrayList<>(targetDataSet.getNodes());
-                }
-                mergePrimitive(node, candidates);
-                if (progressMonitor != null) {
-                    progressMonitor.worked(1);
-                }
-            }
-            candidates = null;
-            for (Way way : sourceDataSet.getWays()) {
-                // lazy initialisation to improve performance
-                if (candidates == null) {
-                    candidates = new ArrayList<>(targetDataSet.getWays());
-                }
-                mergePrimitive(way, candidates);
-                if (progressMonitor != null) {
-                    progressMonitor.worked(1);
-                }
-            }
-            candidates = null;
-            for (Relation relation : sourceDataSet.getRelations()) {
-                // lazy initialisation to improve performance
-                if (candidates == null) {
-                    candidates = new ArrayList<>(targetDataSet.getRelations());
-                }
-                mergePrimitive(relation, candidates);
-                if (progressMonitor != null) {
-                    progressMonitor.worked(1);
-                }
-            }
-            candidates = null;
+            // Each type is planned after the previous type has been applied, since matching ways compares their nodes
+            mergePrimitives(sourceDataSet.getNodes(), targetDataSet::getNodes);
+            mergePrimitives(sourceDataSet.getWays(), targetDataSet::getWays);
+            mergePrimitives(sourceDataSet.getRelations(), targetDataSet::getRelations);
             fixReferences();
 
             Area a = targetDataSet.getDataSourceArea();
@@ -192,53 +175,143 @@ public class MergeDataSetsCommand extends Command {
     }
 
     /**
-     * Merges a primitive onto primitives dataset.
+     * Merge primitives of one type. What to do with each source primitive is planned in parallel (the target dataset
+     * is not changed while planning), and then the plans are applied in order on this thread.
+     *
+     * @param sources The source primitives
+     * @param targets The target primitives of the same type
+     */
+    private void mergePrimitives(Collection<? extends OsmPrimitive> sources,
+            Supplier<Collection<? extends OsmPrimitive>> targets) {
+        if (sources.isEmpty()) {
+            return;
+        }
+        final var sourceList = new ArrayList<OsmPrimitive>(sources);
+        final var candidates = new SemanticIndex(targets);
+        if (sourceList.stream().anyMatch(source -> source.isNew() && !source.isDeleted())) {
+            // Build the index before planning, since planning is done from multiple threads
+            candidates.build();
+        }
+        final var stream = sourceList.size() >= PARALLEL_THRESHOLD ? sourceList.parallelStream() : sourceList.stream();
+        final var plans = stream.map(source -> plan(source, candidates)).toList();
+        var worked = 0;
+        for (Plan plan : plans) {
+            apply(plan);
+            if (++worked == PROGRESS_BATCH) {
+                reportProgress(worked);
+                worked = 0;
+            }
+        }
+        reportProgress(worked);
+    }
+
+    private void reportProgress(int worked) {
+        if (progressMonitor != null && worked > 0) {
+            progressMonitor.worked(worked);
+        }
+    }
+
+    /**
+     * Plan how to merge a primitive onto the target dataset. This must not modify anything.
      * <p>
      * If other.id != 0 it tries to merge it with an corresponding primitive from
-     * my dataset with the same id. If this is not possible a conflict is remembered
-     * in {@link #conflicts}.
+     * my dataset with the same id.
      * <p>
      * If other.id == 0 (new primitive) it tries to find a primitive in my dataset with id == 0 which
      * is semantically equal. If it finds one it merges its technical attributes onto
      * my primitive.
      *
      * @param source     the primitive to merge
-     * @param candidates a set of possible candidates for a new primitive
+     * @param candidates the index of possible candidates for a new primitive
+     * @return The plan for the primitive
      */
-    protected void mergePrimitive(OsmPrimitive source, Collection<? extends OsmPrimitive> candidates) {
+    private Plan plan(OsmPrimitive source, SemanticIndex candidates) {
         if (!source.isNew()) {
             // try to merge onto a matching primitive with the same defined id
-            //
-            if (mergeById(source))
-                return;
+            final var target = targetDataSet.getPrimitiveById(source.getId(), source.getType());
+            if (target != null) {
+                return new Plan(source, planById(source, target), target);
+            }
         } else {
             // ignore deleted primitives from source
-            if (source.isDeleted())
-                return;
-
-            // try to merge onto a primitive  which has no id assigned
+            if (source.isDeleted()) {
+                return new Plan(source, Action.IGNORE, null);
+            }
+            // try to merge onto a primitive which has no id assigned
             // yet but which is equal in its semantic attributes
-            //
-            for (OsmPrimitive target : candidates) {
-                if (!target.isNew() || target.isDeleted()) {
-                    continue;
-                }
-                if (target.hasEqualSemanticAttributes(source)) {
-                    mergedMap.put(source.getPrimitiveId(), target.getPrimitiveId());
-                    // copy the technical attributes from other version
-                    target.setVisible(source.isVisible());
-                    target.setUser(source.getUser());
-                    target.setRawTimestamp(source.getRawTimestamp());
-                    target.setModified(source.isModified());
-                    objectsWithChildrenToMerge.add(source.getPrimitiveId());
-                    return;
+            final var match = candidates.find(source);
+            if (match != null) {
+                return new Plan(source, Action.MATCH, match);
+            }
+        }
+        // We didn't find a suitable primitive in the target dataset, so a clone will be added
+        return new Plan(source, Action.ADD, null);
+    }
+
+    /**
+     * Apply a plan to the target dataset
+     *
+     * @param plan The plan to apply
+     */
+    private void apply(Plan plan) {
+        final var source = plan.source();
+        final var target = plan.target();
+        if (target != null) {
+            mergedMap.put(source.getPrimitiveId(), target.getPrimitiveId());
+        }
+        switch (plan.action()) {
+        case IGNORE, KEEP:
+            break;
+        case MATCH:
+            // copy the technical attributes from other version
+            target.setVisible(source.isVisible());
+            target.setUser(source.getUser());
+            target.setRawTimestamp(source.getRawTimestamp());
+            target.setModified(source.isModified());
+            addChildrenToMerge(source);
+            break;
+        case ADD:
+            addPrimitive(source);
+            break;
+        case MERGE:
+            target.mergeFrom(source);
+            addChildrenToMerge(source);
+            break;
+        case DELETE:
+            objectsToDelete.add(target);
+            break;
+        case CONFLICT:
+            addConflict(target, source);
+            break;
+        case RESET_MODIFIED:
+            target.setModified(false);
+            break;
+        case CHECK_DELETED:
+            // if source is modified, there is a conflict
+            if (source.isModified()) {
+                addConflict(new Conflict<>(target, source, true));
+            }
+            // or, if source has a referrer that is not in the target dataset there is a conflict
+            // If target dataset refers to the deleted primitive, conflict will be added in fixReferences method
+            for (OsmPrimitive referrer : source.getReferrers()) {
+                if (targetDataSet.getPrimitiveById(referrer.getPrimitiveId()) == null) {
+                    addConflict(new Conflict<>(target, source, true));
+                    target.setDeleted(false);
+                    break;
                 }
             }
+            break;
+        default:
+            throw new AssertionError(plan.action());
         }
+    }
 
-        // If we get here we didn't find a suitable primitive in
-        // the target dataset. Create a clone and add it to the target dataset.
-        //
+    /**
+     * Add a clone of a source primitive to the target dataset
+     *
+     * @param source The source primitive
+     */
+    private void addPrimitive(OsmPrimitive source) {
         OsmPrimitive target;
         switch (source.getType()) {
         case NODE:
@@ -257,7 +330,20 @@ public class MergeDataSetsCommand extends Command {
         targetDataSet.addPrimitive(target);
         this.added.add(target);
         mergedMap.put(source.getPrimitiveId(), target.getPrimitiveId());
-        objectsWithChildrenToMerge.add(source.getPrimitiveId());
+        addChildrenToMerge(source);
+    }
+
+    /**
+     * Remember that the references of a source primitive have to be fixed
+     *
+     * @param source The source primitive
+     */
+    private void addChildrenToMerge(OsmPrimitive source) {
+        if (source instanceof Way way) {
+            waysWithChildrenToMerge.add(way);
+        } else if (source instanceof Relation relation) {
+            relationsWithChildrenToMerge.add(relation);
+        }
     }
 
     protected OsmPrimitive getMergeTarget(OsmPrimitive mergeSource) {
@@ -287,14 +373,14 @@ public class MergeDataSetsCommand extends Command {
      * data.
      */
     public void fixReferences() {
-        for (Way w : sourceDataSet.getWays()) {
-            if (!conflicts.hasConflictForTheir(w) && objectsWithChildrenToMerge.contains(w.getPrimitiveId())) {
+        for (Way w : waysWithChildrenToMerge) {
+            if (!conflicts.hasConflictForTheir(w)) {
                 mergeNodeList(w);
                 fixIncomplete(w);
             }
         }
-        for (Relation r : sourceDataSet.getRelations()) {
-            if (!conflicts.hasConflictForTheir(r) && objectsWithChildrenToMerge.contains(r.getPrimitiveId())) {
+        for (Relation r : relationsWithChildrenToMerge) {
+            if (!conflicts.hasConflictForTheir(r)) {
                 mergeRelationMembers(r);
             }
         }
@@ -416,25 +502,17 @@ public class MergeDataSetsCommand extends Command {
     }
 
     /**
-     * Tries to merge a primitive <code>source</code> into an existing primitive with the same id.
+     * Plan how to merge a primitive <code>source</code> into an existing primitive with the same id.
      *
      * @param source the source primitive which is to be merged into a target primitive
-     * @return true, if this method was able to merge <code>source</code> into a target object; false, otherwise
+     * @param target the target primitive with the same id
+     * @return what to do with the source primitive
      */
-    private boolean mergeById(OsmPrimitive source) {
-        OsmPrimitive target = targetDataSet.getPrimitiveById(source.getId(), source.getType());
-        // merge other into an existing primitive with the same id, if possible
-        //
-        if (target == null)
-            return false;
-        // found a corresponding target, remember it
-        mergedMap.put(source.getPrimitiveId(), target.getPrimitiveId());
-
+    private static Action planById(OsmPrimitive source, OsmPrimitive target) {
         if (target.getVersion() > source.getVersion())
             // target.version > source.version => keep target version
-            return true;
+            return Action.KEEP;
 
-        boolean mergeFromSource = false;
         boolean haveSameVersion = target.getVersion() == source.getVersion();
 
         if (haveSameVersion && !target.isModified() && !source.isModified()
@@ -451,71 +529,207 @@ public class MergeDataSetsCommand extends Command {
         if (!target.isModified() && source.isDeleted()) {
             // target not modified and source is deleted
             // So mark it to be deleted. See #20091
-            //
-            objectsToDelete.add(target);
+            return Action.DELETE;
         } else if (source.isIncomplete()) {
             // source is incomplete. Nothing to do.
-            //
+            return Action.KEEP;
         } else if (target.isIncomplete()) {
             // target is incomplete, source completes it
             // => merge source into target
-            //
-            mergeFromSource = true;
+            return Action.MERGE;
         } else if (target.isDeleted() && source.isDeleted() && !haveSameVersion) {
             // both deleted. Source is newer. Take source. See #19783
-            mergeFromSource = true;
+            return Action.MERGE;
         } else if (target.isDeleted() && !source.isDeleted() && haveSameVersion) {
             // same version, but target is deleted. Assume target takes precedence
-            // otherwise too many conflicts when refreshing from the server
-            // but, if source is modified, there is a conflict
-            if (source.isModified()) {
-                addConflict(new Conflict<>(target, source, true));
-            }
-            // or, if source has a referrer that is not in the target dataset there is a conflict
-            // If target dataset refers to the deleted primitive, conflict will be added in fixReferences method
-            for (OsmPrimitive referrer : source.getReferrers()) {
-                if (targetDataSet.getPrimitiveById(referrer.getPrimitiveId()) == null) {
-                    addConflict(new Conflict<>(target, source, true));
-                    target.setDeleted(false);
-                    break;
-                }
-            }
+            // otherwise too many conflicts when refreshing from the server.
+            // This depends on what has been added to the target, so it is checked when applying.
+            return Action.CHECK_DELETED;
         } else if (!target.isModified() && source.isModified()) {
             // target not modified. We can assume that source is the most recent version.
             // clone it into target.
-            mergeFromSource = true;
+            return Action.MERGE;
         } else if (!target.isModified() && !source.isModified()) {
             // both not modified. Merge nevertheless, even if versions are the same
             // This helps when updating "empty" relations, see #4295
-            mergeFromSource = true;
+            return Action.MERGE;
         } else if (target.isModified() && !source.isModified() && haveSameVersion) {
             // target is same as source but target is modified
             // => keep target and reset modified flag if target and source are semantically equal
-            if (target.hasEqualSemanticAttributes(source)) {
-                target.setModified(false);
-            }
+            return target.hasEqualSemanticAttributes(source) ? Action.RESET_MODIFIED : Action.KEEP;
         } else if (source.isDeleted() != target.isDeleted()) {
             // target is modified and deleted state differs.
             // this has to be resolved manually.
-            //
-            addConflict(target, source);
+            return Action.CONFLICT;
         } else if (!target.hasEqualSemanticAttributes(source)) {
             // target is modified and is not semantically equal with source. Can't automatically
             // resolve the differences
             // =>  create a conflict
-            addConflict(target, source);
-        } else {
-            // clone from other. mergeFrom will mainly copy
-            // technical attributes like timestamp or user information. Semantic
-            // attributes should already be equal if we get here.
-            //
-            mergeFromSource = true;
+            return Action.CONFLICT;
         }
-        if (mergeFromSource) {
-            target.mergeFrom(source);
-            objectsWithChildrenToMerge.add(source.getPrimitiveId());
+        // clone from other. mergeFrom will mainly copy
+        // technical attributes like timestamp or user information. Semantic
+        // attributes should already be equal if we get here.
+        return Action.MERGE;
+    }
+
+    /**
+     * What to do with a source primitive
+     */
+    private enum Action {
+        /**
+         * Nothing (a deleted new primitive)
+         */
+        IGNORE,
+        /**
+         * Copy the technical attributes onto a semantically equal new target primitive
+         */
+        MATCH,
+        /**
+         * Add a copy to the target dataset
+         */
+        ADD,
+        /**
+         * Only remember the target primitive with the same id
+         */
+        KEEP,
+        /**
+         * Merge into the target primitive with the same id
+         */
+        MERGE,
+        /**
+         * Delete the target primitive with the same id, unless something else still refers to it
+         */
+        DELETE,
+        /**
+         * Add a conflict with the target primitive with the same id
+         */
+        CONFLICT,
+        /**
+         * The modified target primitive is the same as the source primitive, so it is no longer modified
+         */
+        RESET_MODIFIED,
+        /**
+         * The target primitive with the same id was deleted, but the source was not; check for conflicts
+         */
+        CHECK_DELETED
+    }
+
+    /**
+     * What to do with a source primitive
+     *
+     * @param source The source primitive
+     * @param action The action to take
+     * @param target The target primitive to merge into, if any
+     */
+    private record Plan(@Nonnull OsmPrimitive source, @Nonnull Action action, @Nullable OsmPrimitive target) {
+    }
+
+    /**
+     * An index of the new, non-deleted primitives of one type in the target dataset, so that a new source primitive is
+     * not compared with every target primitive. The keys are necessary (but not sufficient) for
+     * {@link OsmPrimitive#hasEqualSemanticAttributes(OsmPrimitive)}, so every match is still checked with it.
+     * <ul>
+     * <li>Nodes are keyed by a grid cell that is larger than the coordinate tolerance, and looked up in the neighbouring
+     * cells as well.</li>
+     * <li>Ways and relations are keyed by their node or member count and their interesting tags.</li>
+     * </ul>
+     * The index is built the first time it is used, from the primitives in the target dataset at that time.
+     */
+    private static final class SemanticIndex {
+        /**
+         * The size of a node grid cell, in degrees. This must be larger than
+         * {@link org.openstreetmap.josm.data.coor.LatLon#MAX_SERVER_PRECISION}.
+         */
+        private static final double CELL_SIZE = 1e-6;
+        /**
+         * The key for nodes without coordinates
+         */
+        private static final Object NO_COORDINATES = new Object();
+        private final Supplier<Collection<? extends OsmPrimitive>> targets;
+        private Map<Object, List<OsmPrimitive>> buckets;
+
+        /**
+         * Create a new index
+         *
+         * @param targets The primitives to index
+         */
+        SemanticIndex(Supplier<Collection<? extends OsmPrimitive>> targets) {
+            this.targets = targets;
+        }
+
+        /**
+         * Build the index, if it has not been built yet. This is not thread safe.
+         */
+        void build() {
+            if (this.buckets == null) {
+                final var newBuckets = new HashMap<Object, List<OsmPrimitive>>();
+                for (OsmPrimitive target : this.targets.get()) {
+                    if (target.isNew() && !target.isDeleted()) {
+                        newBuckets.computeIfAbsent(key(target), ignored -> new ArrayList<>(1)).add(target);
+                    }
+                }
+                this.buckets = newBuckets;
+            }
+        }
+
+        /**
+         * Find a target primitive that is semantically equal to a source primitive
+         *
+         * @param source The source primitive
+         * @return The first matching target, or {@code null}
+         */
+        @Nullable
+        OsmPrimitive find(OsmPrimitive source) {
+            this.build();
+            if (source instanceof Node node && node.isLatLonKnown()) {
+                final var lat = cell(node.lat());
+                final var lon = cell(node.lon());
+                for (var dLat = -1; dLat <= 1; dLat++) {
+                    for (var dLon = -1; dLon <= 1; dLon++) {
+                        final var match = find(this.buckets.get(new NodeCell(lat + dLat, lon + dLon)), source);
+                        if (match != null) {
+                            return match;
+                        }
+                    }
+                }
+                return null;
+            }
+            return find(this.buckets.get(key(source)), source);
+        }
+
+        @Nullable
+        private static OsmPrimitive find(@Nullable List<OsmPrimitive> bucket, OsmPrimitive source) {
+            if (bucket != null) {
+                for (OsmPrimitive target : bucket) {
+                    if (target.hasEqualSemanticAttributes(source)) {
+                        return target;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private static Object key(OsmPrimitive primitive) {
+            if (primitive instanceof Node node) {
+                return node.isLatLonKnown() ? new NodeCell(cell(node.lat()), cell(node.lon())) : NO_COORDINATES;
+            } else if (primitive instanceof Way way) {
+                return new MemberKey(way.getNodesCount(), way.getInterestingTags());
+            } else if (primitive instanceof Relation relation) {
+                return new MemberKey(relation.getMembersCount(), relation.getInterestingTags());
+            }
+            throw new IllegalArgumentException("Unknown primitive type: " + primitive.getType());
+        }
+
+        private static long cell(double coordinate) {
+            return (long) Math.floor(coordinate / CELL_SIZE);
+        }
+
+        private record NodeCell(long lat, long lon) {
+        }
+
+        private record MemberKey(int count, Map<String, String> tags) {
         }
-        return true;
     }
 
     @Override
@@ -4,11 +4,17 @@ package org.openstreetmap.josm.plugins.maproulette.gui;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.io.Serial;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.StringJoiner;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.commonmark.parser.Parser;
@@ -42,6 +48,20 @@ public final class MRGuiHelper {
             // Atlas checks
             "flag:check", "flag:generator", "identifier", "itemType", "last_edit_changeset", "last_edit_time",
             "last_edit_user_id", "last_edit_version");
+    /**
+     * The markdown extensions. The parser and renderer are thread-safe, so they are shared.
+     */
+    private static final List<SelectParser> EXTENSIONS = List.of(new SelectParser());
+    private static final Parser PARSER = Parser.builder().extensions(EXTENSIONS).build();
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder().extensions(EXTENSIONS).build();
+    /**
+     * The compiled instructions, by challenge
+     */
+    private static final Map<Long, InstructionTemplate> TEMPLATES = lruCache(32);
+    /**
+     * The rendered instructions, by task
+     */
+    private static final Map<RenderKey, String> RENDERED = lruCache(64);
 
     private MRGuiHelper() {
         // Hide constructor
@@ -58,7 +78,8 @@ public final class MRGuiHelper {
         if (currentTask == null) {
             return "";
         }
-        final String instruction;
+        final InstructionTemplate template;
+        final Instant challengeModified;
         if (Utils.isStripEmpty(currentTask.instruction())) {
             Challenge challenge;
             try {
@@ -68,31 +89,120 @@ public final class MRGuiHelper {
                 challenge = null;
             }
             if (challenge == null) {
-                instruction = tr("Could not fetch instruction from parent challenge");
-            } else if (!Utils.isStripEmpty(challenge.general().instruction())) {
-                instruction = challenge.general().instruction();
-            } else if (!Utils.isStripEmpty(challenge.description())) {
-                instruction = challenge.description();
-            } else {
-                instruction = challenge.name();
+                // Don't cache this, so that the challenge is fetched again next time
+                return render(InstructionTemplate.compile(tr("Could not fetch instruction from parent challenge")),
+                        currentTask);
             }
+            template = getTemplate(challenge);
+            challengeModified = challenge.modified();
         } else {
-            instruction = currentTask.instruction();
+            template = null;
+            challengeModified = null;
         }
-        final var matcher = MUSTACHE_PATTERN.matcher(instruction);
-        final var builder = new StringBuilder(instruction.length());
-        while (matcher.find()) {
-            final var tag = matcher.group(1);
-            final var replacement = currentTask.geometries().allPrimitives().stream().map(prim -> prim.get(tag))
-                    .filter(Objects::nonNull).collect(Collectors.joining(System.lineSeparator()));
-            matcher.appendReplacement(builder, Utils.isStripEmpty(replacement) ? matcher.group(0) : replacement);
+        final var key = new RenderKey(currentTask.id(), currentTask.modified(), challengeModified);
+        synchronized (RENDERED) {
+            final var html = RENDERED.get(key);
+            if (html != null) {
+                return html;
+            }
+        }
+        final var html = render(template != null ? template : InstructionTemplate.compile(currentTask.instruction()),
+                currentTask);
+        synchronized (RENDERED) {
+            RENDERED.put(key, html);
         }
-        matcher.appendTail(builder);
+        return html;
+    }
 
+    /**
+     * Get the compiled instructions for a challenge
+     *
+     * @param challenge The challenge
+     * @return The compiled instructions
+     */
+    @Nonnull
+    private static InstructionTemplate getTemplate(Challenge challenge) {
+        synchronized (TEMPLATES) {
+            final var template = TEMPLATES.get(challenge.id());
+            if (template != null && Objects.equals(template.modified(), challenge.modified())) {
+                return template;
+            }
+        }
+        final String instruction;
+        if (!Utils.isStripEmpty(challenge.general().instruction())) {
+            instruction = challenge.general().instruction();
+        } else if (!Utils.isStripEmpty(challenge.description())) {
+            instruction = challenge.description();
+        } else {
+            instruction = challenge.name();
+        }
+        final var template = InstructionTemplate.compile(instruction, challenge.modified());
+        synchronized (TEMPLATES) {
+            TEMPLATES.put(challenge.id(), template);
+        }
+        return template;
+    }
+
+    /**
+     * Fill in the instructions for a task, and convert them to html
+     *
+     * @param template The compiled instructions
+     * @param task     The task to fill the instructions in for
+     * @return The html
+     */
+    @Nonnull
+    private static String render(InstructionTemplate template, Task task) {
+        final var builder = new StringBuilder();
+        builder.append(template.literals().get(0));
+        if (!template.tags().isEmpty()) {
+            final var values = getTagValues(task, template.tags());
+            for (var i = 0; i < template.tags().size(); i++) {
+                final var replacement = values.get(template.tags().get(i));
+                if (Utils.isStripEmpty(replacement)) {
+                    builder.append("{{").append(template.tags().get(i)).append("}}");
+                } else {
+                    builder.append(replacement);
+                }
+                builder.append(template.literals().get(i + 1));
+            }
+        }
         // Instructions can be markdown, so we want to convert it to html
-        final var selectParser = Collections.singletonList(new SelectParser());
-        final var node = Parser.builder().extensions(selectParser).build().parse(builder.toString());
-        return "<html>" + HtmlRenderer.builder().extensions(selectParser).build().render(node) + "</html>";
+        return "<html>" + RENDERER.render(PARSER.parse(builder.toString())) + "</html>";
+    }
+
+    /**
+     * Get the values of tags on the task primitives, looking at each primitive only once
+     *
+     * @param task The task
+     * @param tags The tags to get
+     * @return The values for each tag, joined with line separators
+     */
+    @Nonnull
+    private static Map<String, String> getTagValues(Task task, List<String> tags) {
+        final var values = new HashMap<String, StringJoiner>(tags.size());
+        for (var primitive : task.geometries().allPrimitives()) {
+            for (var tag : tags) {
+                final var value = primitive.get(tag);
+                if (value != null) {
+                    values.computeIfAbsent(tag, ignored -> new StringJoiner(System.lineSeparator())).add(value);
+                }
+            }
+        }
+        final var joined = new HashMap<String, String>(values.size());
+        values.forEach((tag, value) -> joined.put(tag, value.toString()));
+        return joined;
+    }
+
+    private static <K, V> Map<K, V> lruCache(int size) {
+        return new LinkedHashMap<>(size, 0.75f, true) {
+            @Serial
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return this.size() > size;
+            }
+        };
     }
 
     /**
@@ -104,4 +214,42 @@ public final class MRGuiHelper {
     public static Stream<String> filterKeys(Stream<String> keys) {
         return keys.filter(DISCARDABLE_KEYS::contains);
     }
+
+    /**
+     * The key for rendered instructions
+     *
+     * @param task              The task id
+     * @param modified          When the task was last modified
+     * @param challengeModified When the challenge was last modified, if the challenge instructions were used
+     */
+    private record RenderKey(long task, @Nonnull Instant modified, @Nullable Instant challengeModified) {
+    }
+
+    /**
+     * Instructions split around the mustache variables
+     *
+     * @param literals The text between the variables; there is one more of these than there are tags
+     * @param tags     The tag for each variable
+     * @param modified When the source of the instructions was last modified, if known
+     */
+    private record InstructionTemplate(@Nonnull List<String> literals, @Nonnull List<String> tags,
+            @Nullable Instant modified) {
+        static InstructionTemplate compile(String instruction) {
+            return compile(instruction, null);
+        }
+
+        static InstructionTemplate compile(String instruction, @Nullable Instant modified) {
+            final var literals = new ArrayList<String>();
+            final var tags = new ArrayList<String>();
+            final var matcher = MUSTACHE_PATTERN.matcher(instruction);
+            var last = 0;
+            while (matcher.find()) {
+                literals.add(instruction.substring(last, matcher.start()));
+                tags.add(matcher.group(1));
+                last = matcher.end();
+            }
+            literals.add(instruction.substring(last));
+            return new InstructionTemplate(List.copyOf(literals), List.copyOf(tags), modified);
+        }
+    }
 }
@@ -1,27 +1,36 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.plugins.maproulette.gui;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
+import org.openstreetmap.josm.tools.ListenerList;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 
 /**
- * A class holding modified objects
+ * A class holding modified objects.
+ * <p>
+ * The objects are kept in an immutable {@link Snapshot} that is replaced on every change, so it can be read from any
+ * thread without locking. Readers that look at several objects (e.g., while painting) should use one
+ * {@link #snapshot()} for all of them.
  */
 public final class ModifiedObjects {
     /**
-     * The current task list (these should all be locked tasks)
+     * The current objects
      */
-    private static final Map<Long, Task> LOCKED_TASK_MAP = new TreeMap<>();
+    private static final AtomicReference<Snapshot> SNAPSHOT = new AtomicReference<>(Snapshot.EMPTY);
     /**
-     * The modified task list
+     * The listeners for changes
      */
-    private static final Map<Long, ModifiedTask> MODIFIED_TASK_MAP = new TreeMap<>();
+    private static final ListenerList<Consumer<Snapshot>> LISTENERS = ListenerList.create();
 
     /**
      * Don't allow this static class to be instantiated
@@ -30,6 +39,55 @@ public final class ModifiedObjects {
         // Hide constructor
     }
 
+    /**
+     * Get the current objects
+     *
+     * @return The current snapshot
+     */
+    @Nonnull
+    public static Snapshot snapshot() {
+        return SNAPSHOT.get();
+    }
+
+    /**
+     * Add a listener for changes. Listeners are called on the thread that made the change.
+     *
+     * @param listener The listener, which is given the new snapshot
+     */
+    public static void addListener(Consumer<Snapshot> listener) {
+        LISTENERS.addListener(listener);
+    }
+
+    /**
+     * Remove a listener for changes
+     *
+     * @param listener The listener to remove
+     */
+    public static void removeListener(Consumer<Snapshot> listener) {
+        LISTENERS.removeListener(listener);
+    }
+
+    /**
+     * Change the objects
+     *
+     * @param change The change to make; this may be called more than once if another thread changes the objects
+     * @return {@code true} if the objects changed
+     */
+    private static boolean update(UnaryOperator<Snapshot> change) {
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = SNAPSHOT.get();
+            updated = change.apply(current);
+            if (updated == current) {
+                return false;
+            }
+        } while (!SNAPSHOT.compareAndSet(current, updated));
+        final var newSnapshot = updated;
+        LISTENERS.fireEvent(listener -> listener.accept(newSnapshot));
+        return true;
+    }
+
     /**
      * Add a modified task
      *
@@ -37,7 +95,38 @@ public final class ModifiedObjects {
      * @return {@code true} if the task list changed
      */
     public static boolean addLockedTask(Task task) {
-        return LOCKED_TASK_MAP.put(task.id(), task) == null;
+        return addLockedTask(task, Instant.now());
+    }
+
+    /**
+     * Add a modified task
+     *
+     * @param task     The modified task
+     * @param lockTime When the lock was acquired or last refreshed
+     * @return {@code true} if the task list changed
+     */
+    public static boolean addLockedTask(Task task, Instant lockTime) {
+        final var added = new boolean[1];
+        update(snapshot -> {
+            added[0] = snapshot.getLockedTask(task.id()) == null;
+            return new Snapshot(snapshot.version + 1, snapshot.locked.with(task.id(), task),
+                    snapshot.lockTimes.with(task.id(), lockTime), snapshot.modified);
+        });
+        return added[0];
+    }
+
+    /**
+     * Update a locked task after its lock was refreshed. Nothing is changed if the task is no longer locked, so a lock
+     * that was released while it was being refreshed is not added back.
+     *
+     * @param task     The refreshed task
+     * @param lockTime When the lock was refreshed
+     * @return {@code true} if the task was still locked
+     */
+    public static boolean refreshLockedTask(Task task, Instant lockTime) {
+        return update(snapshot -> snapshot.getLockedTask(task.id()) == null ? snapshot
+                : new Snapshot(snapshot.version + 1, snapshot.locked.with(task.id(), task),
+                        snapshot.lockTimes.with(task.id(), lockTime), snapshot.modified));
     }
 
     /**
@@ -47,7 +136,9 @@ public final class ModifiedObjects {
      * @return {@code true} if the task list changed
      */
     public static boolean removeLockedTask(Task task) {
-        return LOCKED_TASK_MAP.remove(task.id()) != null;
+        return update(snapshot -> snapshot.getLockedTask(task.id()) == null ? snapshot
+                : new Snapshot(snapshot.version + 1, snapshot.locked.without(task.id()),
+                        snapshot.lockTimes.without(task.id()), snapshot.modified));
     }
 
     /**
@@ -57,7 +148,7 @@ public final class ModifiedObjects {
      */
     @Nonnull
     public static List<Task> getLockedTasks() {
-        return List.copyOf(LOCKED_TASK_MAP.values());
+        return snapshot().getLockedTasks();
     }
 
     /**
@@ -68,7 +159,18 @@ public final class ModifiedObjects {
      */
     @Nullable
     public static Task getLockedTask(long id) {
-        return LOCKED_TASK_MAP.get(id);
+        return snapshot().getLockedTask(id);
+    }
+
+    /**
+     * Get when a lock was acquired or last refreshed
+     *
+     * @param id The task id
+     * @return The time, or {@code null} if the task is not locked
+     */
+    @Nullable
+    public static Instant getLockTime(long id) {
+        return snapshot().getLockTime(id);
     }
 
     /**
@@ -78,7 +180,7 @@ public final class ModifiedObjects {
      */
     @Nonnull
     public static List<ModifiedTask> getModifiedTasks() {
-        return List.copyOf(MODIFIED_TASK_MAP.values());
+        return snapshot().getModifiedTasks();
     }
 
     /**
@@ -88,7 +190,13 @@ public final class ModifiedObjects {
      * @return {@code true} if the task was added
      */
     public static boolean addModifiedTask(ModifiedTask task) {
-        return MODIFIED_TASK_MAP.put(task.task().id(), task) == null;
+        final var added = new boolean[1];
+        update(snapshot -> {
+            added[0] = snapshot.getModifiedTask(task.task().id()) == null;
+            return new Snapshot(snapshot.version + 1, snapshot.locked, snapshot.lockTimes,
+                    snapshot.modified.with(task.task().id(), task));
+        });
+        return added[0];
     }
 
     /**
@@ -98,7 +206,9 @@ public final class ModifiedObjects {
      * @return {@code true} if the task was removed
      */
     public static boolean removeModifiedTask(ModifiedTask task) {
-        return MODIFIED_TASK_MAP.remove(task.task().id()) != null;
+        return update(snapshot -> snapshot.getModifiedTask(task.task().id()) == null ? snapshot
+                : new Snapshot(snapshot.version + 1, snapshot.locked, snapshot.lockTimes,
+                        snapshot.modified.without(task.task().id())));
     }
 
     /**
@@ -109,6 +219,157 @@ public final class ModifiedObjects {
      */
     @Nullable
     public static ModifiedTask getModifiedTask(long id) {
-        return MODIFIED_TASK_MAP.get(id);
+        return snapshot().getModifiedTask(id);
+    }
+
+    /**
+     * An immutable view of the modified objects
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0, IdMap.empty(), IdMap.empty(), IdMap.empty());
+        private final long version;
+        private final IdMap<Task> locked;
+        private final IdMap<Instant> lockTimes;
+        private final IdMap<ModifiedTask> modified;
+
+        private Snapshot(long version, IdMap<Task> locked, IdMap<Instant> lockTimes, IdMap<ModifiedTask> modified) {
+            this.version = version;
+            this.locked = locked;
+            this.lockTimes = lockTimes;
+            this.modified = modified;
+        }
+
+        /**
+         * Get the version of this snapshot. Each change increments the version.
+         *
+         * @return The version
+         */
+        public long version() {
+            return this.version;
+        }
+
+        /**
+         * Get the locked tasks
+         *
+         * @return The locked tasks, sorted by id
+         */
+        @Nonnull
+        public List<Task> getLockedTasks() {
+            return this.locked.values();
+        }
+
+        /**
+         * Get a locked task
+         *
+         * @param id The task id
+         * @return The task, or {@code null} if it is not locked
+         */
+        @Nullable
+        public Task getLockedTask(long id) {
+            return this.locked.get(id);
+        }
+
+        /**
+         * Get when a lock was acquired or last refreshed
+         *
+         * @param id The task id
+         * @return The time, or {@code null} if the task is not locked
+         */
+        @Nullable
+        public Instant getLockTime(long id) {
+            return this.lockTimes.get(id);
+        }
+
+        /**
+         * Get the modified tasks
+         *
+         * @return The modified tasks, sorted by task id
+         */
+        @Nonnull
+        public List<ModifiedTask> getModifiedTasks() {
+            return this.modified.values();
+        }
+
+        /**
+         * Get the task modification for a task
+         *
+         * @param id The task id
+         * @return The modified task, or {@code null}
+         */
+        @Nullable
+        public ModifiedTask getModifiedTask(long id) {
+            return this.modified.get(id);
+        }
+    }
+
+    /**
+     * An immutable map from ids to values, kept as sorted arrays so that lookups do not box the id
+     *
+     * @param <T> The value type
+     */
+    private static final class IdMap<T> {
+        private static final IdMap<?> EMPTY = new IdMap<>(new long[0], new Object[0]);
+        private final long[] ids;
+        private final Object[] values;
+        /**
+         * The values as a list; created once, since it is used while painting
+         */
+        private final List<T> valueList;
+
+        @SuppressWarnings("unchecked")
+        private IdMap(long[] ids, Object[] values) {
+            this.ids = ids;
+            this.values = values;
+            this.valueList = (List<T>) Collections.unmodifiableList(Arrays.asList(values));
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> IdMap<T> empty() {
+            return (IdMap<T>) EMPTY;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Nullable
+        T get(long id) {
+            final var index = Arrays.binarySearch(this.ids, id);
+            return index >= 0 ? (T) this.values[index] : null;
+        }
+
+        IdMap<T> with(long id, T value) {
+            final var index = Arrays.binarySearch(this.ids, id);
+            if (index >= 0) {
+                final var newValues = this.values.clone();
+                newValues[index] = value;
+                return new IdMap<>(this.ids, newValues);
+            }
+            final var insertion = -index - 1;
+            final var newIds = new long[this.ids.length + 1];
+            final var newValues = new Object[this.values.length + 1];
+            System.arraycopy(this.ids, 0, newIds, 0, insertion);
+            System.arraycopy(this.values, 0, newValues, 0, insertion);
+            newIds[insertion] = id;
+            newValues[insertion] = value;
+            System.arraycopy(this.ids, insertion, newIds, insertion + 1, this.ids.length - insertion);
+            System.arraycopy(this.values, insertion, newValues, insertion + 1, this.values.length - insertion);
+            return new IdMap<>(newIds, newValues);
+        }
+
+        IdMap<T> without(long id) {
+            final var index = Arrays.binarySearch(this.ids, id);
+            if (index < 0) {
+                return this;
+            }
+            final var newIds = new long[this.ids.length - 1];
+            final var newValues = new Object[this.values.length - 1];
+            System.arraycopy(this.ids, 0, newIds, 0, index);
+            System.arraycopy(this.values, 0, newValues, 0, index);
+            System.arraycopy(this.ids, index + 1, newIds, index, this.ids.length - index - 1);
+            System.arraycopy(this.values, index + 1, newValues, index, this.values.length - index - 1);
+            return new IdMap<>(newIds, newValues);
+        }
+
+        List<T> values() {
+            return this.valueList;
+        }
     }
 }
@@ -112,6 +112,11 @@ public class MapRouletteClusteredPointLayer extends Layer implements MouseListen
      */
     private final ListenerList<Consumer<Map<Long, TaskClusteredPoint>>> updatedDataListeners = ListenerList.create();
     private final Consumer<Map<Long, Task>> taskUpdated;
+    /**
+     * Repaints the layer when tasks are locked or unlocked
+     */
+    private final Consumer<ModifiedObjects.Snapshot> modifiedListener = snapshot -> GuiHelper
+            .runInEDT(this::invalidate);
     /**
      * The bounds of the points
      */
@@ -136,6 +141,7 @@ public class MapRouletteClusteredPointLayer extends Layer implements MouseListen
             this.updatedDataListeners.fireEvent(listener -> listener.accept(Collections.emptyMap()));
         };
         LateUploadHook.addUploadListener(this.taskUpdated);
+        ModifiedObjects.addListener(this.modifiedListener);
         this.pointMap.addAll(points);
     }
 
@@ -205,6 +211,8 @@ public class MapRouletteClusteredPointLayer extends Layer implements MouseListen
         final var taskListPanel = MainApplication.getMap().getToggleDialog(TaskListPanel.class);
 
         final var listSelected = taskListPanel.getSelected();
+        // Use one snapshot, so the locked tasks are consistent for the whole paint
+        final var modified = ModifiedObjects.snapshot();
 
         painter.enableSlowOperations(mv.getMapMover() == null || !mv.getMapMover().movementInProgress()
                 || !PROPERTY_HIDE_LABELS_WHILE_DRAGGING.get());
@@ -218,7 +226,7 @@ public class MapRouletteClusteredPointLayer extends Layer implements MouseListen
         final var statusSymbol = new Symbol(SymbolShape.SQUARE, 25, null, fixedColor, fixedColor);
         final var disabledStatusSymbol = new Symbol(SymbolShape.SQUARE, 13, null, fixedColor, fixedColor);
         for (var point : this.pointBucket.search(box)) {
-            if (ModifiedObjects.getLockedTask(point.id()) == null && !TaskCache.isHidden(point)
+            if (modified.getLockedTask(point.id()) == null && !TaskCache.isHidden(point)
                     && !HiddenList.isHidden(point.id())) {
                 final boolean isSelected = this.selected.contains(point) || listSelected.contains(point);
                 final var symbolColor = switch (point.status()) {
@@ -250,7 +258,7 @@ public class MapRouletteClusteredPointLayer extends Layer implements MouseListen
 
         final var symbol = new Symbol(SymbolShape.CIRCLE, 10, null, mrColorOpacity, mrColorOpacity);
         final var stroke = new BasicStroke(8f);
-        for (var task : ModifiedObjects.getLockedTasks()) {
+        for (var task : modified.getLockedTasks()) {
             for (INode n : task.geometries().searchNodes(box)) {
                 if (n.isTagged() || !n.isReferredByWays(1)) {
                     painter.drawNodeSymbol(n, symbol, mrColorOpacity, mrColorOpacity);
@@ -357,6 +365,7 @@ public class MapRouletteClusteredPointLayer extends Layer implements MouseListen
         this.selectionListeners.fireEvent(listener -> listener.accept(Collections.emptyList()));
         MainApplication.getMap().mapView.removeMouseListener(this);
         LateUploadHook.removeUploadListener(this.taskUpdated);
+        ModifiedObjects.removeListener(this.modifiedListener);
     }
 
     /**
@@ -4,10 +4,16 @@ package org.openstreetmap.josm.plugins.maproulette.gui.preferences;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.awt.GridBagLayout;
-import java.io.IOException;
+import java.awt.event.HierarchyEvent;
 import java.io.Serial;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.swing.JPanel;
 import javax.swing.JTable;
@@ -18,14 +24,19 @@ import javax.swing.table.TableColumn;
 import org.openstreetmap.josm.gui.preferences.PreferenceTabbedPane;
 import org.openstreetmap.josm.gui.preferences.SubPreferenceSetting;
 import org.openstreetmap.josm.gui.preferences.TabPreferenceSetting;
+import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.gui.widgets.HideableTabbedPane;
 import org.openstreetmap.josm.gui.widgets.VerticallyScrollablePanel;
+import org.openstreetmap.josm.plugins.maproulette.api.model.Challenge;
+import org.openstreetmap.josm.plugins.maproulette.api.model.Project;
+import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
 import org.openstreetmap.josm.plugins.maproulette.api_caching.ChallengeCache;
 import org.openstreetmap.josm.plugins.maproulette.api_caching.ProjectCache;
 import org.openstreetmap.josm.plugins.maproulette.api_caching.TaskCache;
 import org.openstreetmap.josm.plugins.maproulette.data.IgnoreList;
-import org.openstreetmap.josm.plugins.maproulette.util.ExceptionDialogUtil;
+import org.openstreetmap.josm.plugins.maproulette.util.NetworkExecutor;
 import org.openstreetmap.josm.tools.GBC;
+import org.openstreetmap.josm.tools.Logging;
 
 /**
  * Task list settings
@@ -33,81 +44,94 @@ import org.openstreetmap.josm.tools.GBC;
 public class MapRouletteTaskListPreferences implements SubPreferenceSetting {
     private JTable ignoredTaskTable;
     private JTable ignoredChallengeTable;
+    private DetailsLoader loader;
 
     @Override
     public void addGui(PreferenceTabbedPane gui) {
-        try {
-            final var pane = new HideableTabbedPane();
-            final var ignoredTaskPanel = new JPanel(new GridBagLayout());
-            final var ignoredChallengePanel = new JPanel(new GridBagLayout());
-            ignoredTaskTable = buildTaskTable();
-            ignoredChallengeTable = buildChallengeTable();
-            final var scrollTaskTable = new VerticallyScrollablePanel(new GridBagLayout());
-            final var scrollChallengeTable = new VerticallyScrollablePanel(new GridBagLayout());
-            scrollTaskTable.add(ignoredTaskTable, GBC.eol().fill(GBC.BOTH));
-            scrollChallengeTable.add(ignoredChallengeTable, GBC.eol().fill(GBC.BOTH));
-            ignoredTaskPanel.add(ignoredTaskTable.getTableHeader(), GBC.eol().fill(GBC.HORIZONTAL));
-            ignoredTaskPanel.add(scrollTaskTable, GBC.eol().fill(GBC.BOTH));
-            ignoredChallengePanel.add(ignoredChallengeTable.getTableHeader(), GBC.eol().fill(GBC.HORIZONTAL));
-            ignoredChallengePanel.add(scrollChallengeTable, GBC.eol().fill(GBC.BOTH));
-            pane.add(tr("Ignored Tasks"), ignoredTaskPanel);
-            pane.add(tr("Ignored Challenges"), ignoredChallengePanel);
-            getTabPreferenceSetting(gui).addSubTab(this, tr("Task List"), pane, tr("MapRoulette Task List Settings"));
-        } catch (IOException ioException) {
-            ExceptionDialogUtil.explainException(ioException);
-        }
+        final var pane = new HideableTabbedPane();
+        final var ignoredTaskPanel = new JPanel(new GridBagLayout());
+        final var ignoredChallengePanel = new JPanel(new GridBagLayout());
+        this.loader = new DetailsLoader();
+        ignoredTaskTable = buildTaskTable(this.loader);
+        ignoredChallengeTable = buildChallengeTable(this.loader);
+        final var currentLoader = this.loader;
+        // Stop fetching once the preferences are closed
+        pane.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0 && !pane.isDisplayable()) {
+                currentLoader.cancel();
+            }
+        });
+        final var scrollTaskTable = new VerticallyScrollablePanel(new GridBagLayout());
+        final var scrollChallengeTable = new VerticallyScrollablePanel(new GridBagLayout());
+        scrollTaskTable.add(ignoredTaskTable, GBC.eol().fill(GBC.BOTH));
+        scrollChallengeTable.add(ignoredChallengeTable, GBC.eol().fill(GBC.BOTH));
+        ignoredTaskPanel.add(ignoredTaskTable.getTableHeader(), GBC.eol().fill(GBC.HORIZONTAL));
+        ignoredTaskPanel.add(scrollTaskTable, GBC.eol().fill(GBC.BOTH));
+        ignoredChallengePanel.add(ignoredChallengeTable.getTableHeader(), GBC.eol().fill(GBC.HORIZONTAL));
+        ignoredChallengePanel.add(scrollChallengeTable, GBC.eol().fill(GBC.BOTH));
+        pane.add(tr("Ignored Tasks"), ignoredTaskPanel);
+        pane.add(tr("Ignored Challenges"), ignoredChallengePanel);
+        getTabPreferenceSetting(gui).addSubTab(this, tr("Task List"), pane, tr("MapRoulette Task List Settings"));
     }
 
     /**
-     * Build a task table
+     * Build a task table. Only the ids are filled in; the other columns are filled in as the details are fetched.
      *
+     * @param loader The loader to fetch the details with
      * @return The task table
-     * @throws IOException if there was a problem communicating with the server
      */
-    private static JTable buildTaskTable() throws IOException {
+    private static JTable buildTaskTable(DetailsLoader loader) {
         final var ignoredTasks = IgnoreList.ignoredTasks();
         final var table = buildTable(ignoredTasks.length, tr("Project"), tr("Challenge"), tr("Task Name"),
                 tr("Task ID"), tr("Keep"));
+        final var model = (NonEditableTableModel) table.getModel();
         var row = 0;
         for (var taskId : ignoredTasks) {
-            final var task = TaskCache.get(taskId);
-            final var challenge = ChallengeCache.challenge(task.parentId());
-            final var project = ProjectCache.get(challenge.general().parent());
-            table.setValueAt(project.displayName(), row, 0);
-            table.setValueAt(challenge.name(), row, 1);
-            table.setValueAt(task.name(), row, 2);
-            table.setValueAt(task.id(), row, 3);
-            table.setValueAt(true, row, 4);
+            final var currentRow = row;
+            model.setValueAt(taskId, row, 3);
+            model.setValueAt(true, row, 4);
+            loader.task(taskId).thenCompose(task -> {
+                GuiHelper.runInEDT(() -> model.setValueAt(task.name(), currentRow, 2));
+                return loader.challenge(task.parentId());
+            }).thenCompose(challenge -> {
+                GuiHelper.runInEDT(() -> model.setValueAt(challenge.name(), currentRow, 1));
+                return loader.project(challenge.general().parent());
+            }).thenAccept(project -> GuiHelper.runInEDT(() -> model.setValueAt(project.displayName(), currentRow, 0)))
+                    .whenComplete(DetailsLoader::logFailure);
             row++;
         }
-        ((NonEditableTableModel) table.getModel()).setColumnClass(3, Long.class);
-        ((NonEditableTableModel) table.getModel()).setColumnEditable(4);
-        ((NonEditableTableModel) table.getModel()).setColumnClass(4, Boolean.class);
+        model.setColumnClass(3, Long.class);
+        model.setColumnEditable(4);
+        model.setColumnClass(4, Boolean.class);
         return table;
     }
 
     /**
-     * Build a challenge table
+     * Build a challenge table. Only the ids are filled in; the other columns are filled in as the details are fetched.
      *
+     * @param loader The loader to fetch the details with
      * @return The table with ignored challenges
-     * @throws IOException if there was a problem communicating with the server
      */
-    private static JTable buildChallengeTable() throws IOException {
+    private static JTable buildChallengeTable(DetailsLoader loader) {
         final var ignoredChallenges = IgnoreList.ignoredChallenges();
         final var table = buildTable(ignoredChallenges.length, tr("Project"), tr("Challenge Name"), tr("Challenge ID"),
                 tr("Keep"));
+        final var model = (NonEditableTableModel) table.getModel();
         var row = 0;
         for (var challengeId : ignoredChallenges) {
-            final var challenge = ChallengeCache.challenge(challengeId);
-            final var project = ProjectCache.get(challenge.general().parent());
-            table.setValueAt(project.displayName(), row, 0);
-            table.setValueAt(challenge.name(), row, 1);
-            table.setValueAt(challenge.id(), row, 2);
-            table.setValueAt(true, row, 3);
-        }
-        ((NonEditableTableModel) table.getModel()).setColumnClass(2, Long.class);
-        ((NonEditableTableModel) table.getModel()).setColumnEditable(3);
-        ((NonEditableTableModel) table.getModel()).setColumnClass(3, Boolean.class);
+            final var currentRow = row;
+            model.setValueAt(challengeId, row, 2);
+            model.setValueAt(true, row, 3);
+            loader.challenge(challengeId).thenCompose(challenge -> {
+                GuiHelper.runInEDT(() -> model.setValueAt(challenge.name(), currentRow, 1));
+                return loader.project(challenge.general().parent());
+            }).thenAccept(project -> GuiHelper.runInEDT(() -> model.setValueAt(project.displayName(), currentRow, 0)))
+                    .whenComplete(DetailsLoader::logFailure);
+            row++;
+        }
+        model.setColumnClass(2, Long.class);
+        model.setColumnEditable(3);
+        model.setColumnClass(3, Boolean.class);
         return table;
     }
 
@@ -139,6 +163,9 @@ public class MapRouletteTaskListPreferences implements SubPreferenceSetting {
 
     @Override
     public boolean ok() {
+        if (this.loader != null) {
+            this.loader.cancel();
+        }
         if (this.ignoredTaskTable != null) {
             for (var row = 0; row < this.ignoredTaskTable.getRowCount(); row++) {
                 if (Boolean.FALSE.equals(this.ignoredTaskTable.getValueAt(row, 4))) {
@@ -163,6 +190,64 @@ public class MapRouletteTaskListPreferences implements SubPreferenceSetting {
         return true;
     }
 
+    /**
+     * Fetch the details for the ignored tasks and challenges in parallel. Each task, challenge, and project is only
+     * fetched once, and everything that has not been fetched yet can be cancelled.
+     */
+    private static final class DetailsLoader {
+        private final Map<Long, CompletableFuture<Challenge>> challenges = new ConcurrentHashMap<>();
+        private final Map<Long, CompletableFuture<Project>> projects = new ConcurrentHashMap<>();
+        private final Queue<CompletableFuture<?>> futures = new ConcurrentLinkedQueue<>();
+        private volatile boolean cancelled;
+
+        CompletableFuture<Task> task(long id) {
+            return this.track(NetworkExecutor.supply(() -> TaskCache.get(id)));
+        }
+
+        CompletableFuture<Challenge> challenge(long id) {
+            return this.challenges.computeIfAbsent(id,
+                    challenge -> this.track(NetworkExecutor.supply(() -> ChallengeCache.challenge(challenge))));
+        }
+
+        CompletableFuture<Project> project(long id) {
+            return this.projects.computeIfAbsent(id,
+                    project -> this.track(NetworkExecutor.supply(() -> ProjectCache.get(project))));
+        }
+
+        /**
+         * Cancel everything that has not been fetched yet
+         */
+        void cancel() {
+            this.cancelled = true;
+            for (var future = this.futures.poll(); future != null; future = this.futures.poll()) {
+                future.cancel(false);
+            }
+        }
+
+        private <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+            if (this.cancelled) {
+                future.cancel(false);
+            } else {
+                this.futures.add(future);
+                future.whenComplete((result, throwable) -> this.futures.remove(future));
+            }
+            return future;
+        }
+
+        /**
+         * Log a failure to get details. This does not show a dialog, since there may be one failure per row.
+         *
+         * @param result    The result (ignored)
+         * @param throwable The failure, if any
+         */
+        static void logFailure(Object result, Throwable throwable) {
+            if (throwable != null && !(throwable instanceof CancellationException
+                    || throwable.getCause() instanceof CancellationException)) {
+                Logging.warn(throwable.getCause() != null ? throwable.getCause() : throwable);
+            }
+        }
+    }
+
     /**
      * A table model for editing only some columns
      */
@@ -10,9 +10,12 @@ import java.io.IOException;
 import java.io.Serial;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -23,6 +26,8 @@ import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.text.html.HTMLDocument;
 
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.command.SequenceCommand;
 import org.openstreetmap.josm.data.UndoRedoHandler;
 import org.openstreetmap.josm.data.osm.OsmDataManager;
 import org.openstreetmap.josm.gui.ConditionalOptionPaneUtil;
@@ -30,10 +35,12 @@ import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.SideButton;
 import org.openstreetmap.josm.gui.layer.OsmDataLayer;
 import org.openstreetmap.josm.gui.tagging.ac.AutoCompComboBox;
+import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.gui.widgets.JosmTextArea;
 import org.openstreetmap.josm.gui.widgets.QuadStateCheckBox;
 import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
+import org.openstreetmap.josm.plugins.maproulette.api.model.TaskClusteredPoint;
 import org.openstreetmap.josm.plugins.maproulette.api_caching.ChallengeCache;
 import org.openstreetmap.josm.plugins.maproulette.api_caching.TaskCache;
 import org.openstreetmap.josm.plugins.maproulette.data.ApplyCooperativeChange;
@@ -42,7 +49,9 @@ import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedObjects;
 import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedTask;
 import org.openstreetmap.josm.plugins.maproulette.gui.task.list.TaskListPanel;
 import org.openstreetmap.josm.plugins.maproulette.util.ExceptionDialogUtil;
+import org.openstreetmap.josm.plugins.maproulette.util.NetworkExecutor;
 import org.openstreetmap.josm.tools.GBC;
+import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.Shortcut;
 
 /**
@@ -114,20 +123,7 @@ class TaskStatusAction extends CurrentTaskPanel.InnerAction {
                     tr("Mark all selected tasks?"), JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE,
                     JOptionPane.YES_OPTION);
             if (markAll) {
-                ConditionalOptionPaneUtil.startBulkOperation("maproulette.task.feedback");
-                try {
-                    for (var toMark : selected) {
-                        if (toMark instanceof Task t) {
-                            handleTask(t);
-                        } else {
-                            handleTask(TaskCache.get(toMark.id()));
-                        }
-                    }
-                } catch (IOException ioException) {
-                    ExceptionDialogUtil.explainException(ioException);
-                } finally {
-                    ConditionalOptionPaneUtil.endBulkOperation("maproulette.task.feedback");
-                }
+                fetchTasks(selected).thenAccept(tasks -> GuiHelper.runInEDT(() -> handleTasks(tasks)));
             }
         }
 
@@ -153,42 +149,144 @@ class TaskStatusAction extends CurrentTaskPanel.InnerAction {
         }
     }
 
+    /**
+     * Get the full tasks for the selected points. Tasks that are not already available are fetched at the same time.
+     *
+     * @param selected The selected points
+     * @return A future with the tasks that could be fetched, in the same order
+     */
+    private static CompletableFuture<List<Task>> fetchTasks(List<TaskClusteredPoint> selected) {
+        final var futures = new ArrayList<CompletableFuture<Task>>(selected.size());
+        for (var toMark : selected) {
+            if (toMark instanceof Task t) {
+                futures.add(CompletableFuture.completedFuture(t));
+            } else {
+                futures.add(NetworkExecutor.supply(() -> TaskCache.get(toMark.id())));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).handle((ignored, throwable) -> {
+            final var tasks = new ArrayList<Task>(futures.size());
+            for (var future : futures) {
+                try {
+                    tasks.add(future.join());
+                } catch (CompletionException completionException) {
+                    if (completionException.getCause() instanceof IOException ioException) {
+                        GuiHelper.runInEDT(() -> ExceptionDialogUtil.explainException(ioException));
+                    } else {
+                        Logging.error(completionException);
+                    }
+                }
+            }
+            return tasks;
+        });
+    }
+
+    /**
+     * Mark many tasks at once. Tag changes are applied as one command, and the current task panel is refreshed once.
+     *
+     * @param tasks The tasks to mark
+     */
+    private void handleTasks(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        final var tagChanges = new ArrayList<Task>();
+        Task lastMarked = null;
+        ConditionalOptionPaneUtil.startBulkOperation("maproulette.task.feedback");
+        try {
+            for (var task : tasks) {
+                if (handleTask(task, tagChanges)) {
+                    lastMarked = task;
+                }
+            }
+        } finally {
+            ConditionalOptionPaneUtil.endBulkOperation("maproulette.task.feedback");
+        }
+        applyTagChanges(tagChanges);
+        if (lastMarked != null) {
+            refreshCurrentTask(lastMarked);
+        }
+    }
+
     private void handleTask(Task task) {
+        final var tagChanges = new ArrayList<Task>(1);
+        if (handleTask(task, tagChanges)) {
+            applyTagChanges(tagChanges);
+            refreshCurrentTask(task);
+        }
+    }
+
+    /**
+     * Mark a task
+     *
+     * @param task       The task to mark
+     * @param tagChanges The list to add the task to if its cooperative tag changes should be applied
+     * @return {@code true} if the task was marked, {@code false} if the user cancelled or the OSC could not be read
+     */
+    private boolean handleTask(Task task, List<Task> tagChanges) {
         if (task != null) {
             final var modifiedTask = getModifiedTask(task);
             if (modifiedTask == null) {
-                return;
+                return false;
             }
             ModifiedObjects.addModifiedTask(modifiedTask);
             if (task.isCooperativeWorkOsmChange() && this.status == TaskStatus.FIXED) {
-                final var command = new ApplyCooperativeChange(
-                        Objects.requireNonNull(task.cooperativeWorkAsOsmChange()))
-                                .generateCommand(OsmDataManager.getInstance().getEditDataSet());
-                if (command != null) {
-                    command.executeCommand();
-                    if (!command.getParticipatingPrimitives().isEmpty()) {
-                        UndoRedoHandler.getInstance().add(command, false);
-                    }
-                }
+                tagChanges.add(task);
             } else if (task.isCooperativeWorkOsc() && this.status == TaskStatus.FIXED) {
                 final var message = tr("Apply OSC directly to the edit layer?");
                 final var options = new String[] { tr("Apply"), tr("Show"), tr("Cancel") };
                 final var option = ConditionalOptionPaneUtil.showOptionDialog("maproulette.task.apply_osc",
                         MainApplication.getMainFrame(), message, message, JOptionPane.YES_NO_CANCEL_OPTION,
                         JOptionPane.YES_OPTION, options, options[0]);
-                final var osc = Objects.requireNonNull(task.cooperativeWorkAsOsc());
-                if (option == 0) {
+                // Only decode the OSC once we know that the user wants it
+                final var osc = option == 0 || option == 1 ? task.cooperativeWorkAsOsc() : null;
+                if (osc == null) {
+                    ModifiedObjects.removeModifiedTask(modifiedTask);
+                    if (option == 0 || option == 1) {
+                        JOptionPane.showMessageDialog(MainApplication.getMainFrame(),
+                                tr("The OSC for task {0} could not be read.", Long.toString(task.id())),
+                                tr("MapRoulette"), JOptionPane.ERROR_MESSAGE);
+                    }
+                    return false;
+                } else if (option == 0) {
                     UndoRedoHandler.getInstance()
                             .add(new ApplyOscChange(OsmDataManager.getInstance().getEditDataSet(), osc.a));
-                } else if (option == 1) {
+                } else {
                     final var layer = new OsmDataLayer(osc.a, task.name(), null);
                     MainApplication.getLayerManager().addLayer(layer);
-                } else {
-                    ModifiedObjects.removeModifiedTask(modifiedTask);
-                    return;
                 }
             }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Apply the cooperative tag changes for tasks as a single undoable command
+     *
+     * @param tasks The tasks with tag changes
+     */
+    private static void applyTagChanges(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        final var dataSet = OsmDataManager.getInstance().getEditDataSet();
+        final var commands = new ArrayList<Command>(tasks.size());
+        for (var task : tasks) {
+            final var command = new ApplyCooperativeChange(Objects.requireNonNull(task.cooperativeWorkAsOsmChange()))
+                    .generateCommand(dataSet);
+            if (command != null && !command.getParticipatingPrimitives().isEmpty()) {
+                commands.add(command);
+            }
         }
+        if (!commands.isEmpty()) {
+            final var command = SequenceCommand.wrapIfNeeded(tr("MapRoulette Cooperative Challenge"), commands);
+            // Only fire one dataset event for all the changes
+            dataSet.update(() -> UndoRedoHandler.getInstance().add(command));
+        }
+    }
+
+    private static void refreshCurrentTask(Task task) {
         Optional.ofNullable(MainApplication.getMap().getToggleDialog(CurrentTaskPanel.class))
                 .ifPresent(p -> p.refreshModel(task));
     }
@@ -9,9 +9,13 @@ import java.awt.event.KeyEvent;
 import java.io.IOException;
 import java.io.Serial;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 import javax.swing.JTable;
 
@@ -19,14 +23,21 @@ import org.openstreetmap.josm.actions.AutoScaleAction;
 import org.openstreetmap.josm.actions.JosmAction;
 import org.openstreetmap.josm.data.osm.IPrimitive;
 import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.PleaseWaitRunnable;
 import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
+import org.openstreetmap.josm.plugins.maproulette.api.model.TaskClusteredPoint;
 import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedObjects;
+import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedTask;
 import org.openstreetmap.josm.plugins.maproulette.gui.layer.MapRouletteClusteredPointLayer;
 import org.openstreetmap.josm.plugins.maproulette.util.ExceptionDialogUtil;
+import org.openstreetmap.josm.plugins.maproulette.util.NetworkExecutor;
 import org.openstreetmap.josm.tools.ImageProvider;
+import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.Shortcut;
 
+import jakarta.annotation.Nullable;
+
 /**
  * Lock tasks
  */
@@ -66,83 +77,123 @@ final class LockUnlockTaskAction extends JosmAction {
     }
 
     /**
-     * Perform lock actions
+     * Get the selected tasks
+     *
+     * @param selected The selected rows
+     * @return The tasks for the rows
      */
-    private void lockTasks() {
-        final var selected = this.table.getSelectionModel().getSelectedIndices();
+    private List<TaskClusteredPoint> getTasks(int[] selected) {
         final var model = (TaskTableModel) this.table.getModel();
-        final var selectedTasks = new ArrayList<Task>();
-        for (int index : selected) {
-            try {
-                final var i = table.getRowSorter().convertRowIndexToModel(index);
-                final var task = model.get(i);
-                final var lockedTask = TaskAPI.start(task.id());
-                ModifiedObjects.addLockedTask(lockedTask);
-                selectedTasks.add(lockedTask);
-            } catch (IOException e) {
-                ExceptionDialogUtil.explainException(e);
-            }
+        final var tasks = new ArrayList<TaskClusteredPoint>(selected.length);
+        for (var index : selected) {
+            tasks.add(model.get(this.table.getRowSorter().convertRowIndexToModel(index)));
         }
+        return tasks;
+    }
 
-        ((TaskTableModel) this.table.getModel()).fireTableDataChanged();
-        reselect(selected);
-        if (!selectedTasks.isEmpty()) {
-            final List<IPrimitive> primitiveList = new ArrayList<>();
-            for (var task : selectedTasks) {
-                if (task.geometries().allPrimitives().isEmpty()) {
-                    primitiveList.add(task.location());
-                } else {
-                    primitiveList.addAll(task.geometries().allPrimitives());
-                }
-            }
-            AutoScaleAction.zoomTo(primitiveList);
-        }
+    /**
+     * Perform lock actions
+     */
+    private void lockTasks() {
+        final var tasks = this.getTasks(this.table.getSelectionModel().getSelectedIndices());
+        MainApplication.worker.submit(new BulkTask<>(tr("Starting MapRoulette Tasks"), tasks,
+                point -> TaskAPI.start(point.id()), lockedTasks -> {
+                    for (var lockedTask : lockedTasks) {
+                        ModifiedObjects.addLockedTask(lockedTask);
+                    }
+                    ((TaskTableModel) this.table.getModel()).fireTableDataChanged();
+                    reselect(tasks);
+                    if (!lockedTasks.isEmpty()) {
+                        final List<IPrimitive> primitiveList = new ArrayList<>();
+                        for (var task : lockedTasks) {
+                            if (task.geometries().allPrimitives().isEmpty()) {
+                                primitiveList.add(task.location());
+                            } else {
+                                primitiveList.addAll(task.geometries().allPrimitives());
+                            }
+                        }
+                        AutoScaleAction.zoomTo(primitiveList);
+                    }
+                }));
     }
 
     /**
      * Perform unlock actions
      */
     private void unlockTasks() {
-        final var selected = this.table.getSelectedRows();
-        final var data = (TaskTableModel) this.table.getModel();
-        for (var index : selected) {
-            final var i = this.table.getRowSorter().convertRowIndexToModel(index);
-            final var cluster = data.get(i);
-            final var task = ModifiedObjects.getLockedTask(cluster.id());
-            try {
-                final var unlockedTask = TaskAPI.release(cluster.id());
-                if (task != null && task.id() == unlockedTask.id()) {
-                    final var modified = ModifiedObjects.getModifiedTask(task.id());
-                    if (modified != null) {
-                        TaskAPI.updateStatus(task.id(), modified.status(), modified.comment(), modified.tags(),
-                                modified.reviewRequested(), modified.completionResponses());
-                        ModifiedObjects.removeModifiedTask(modified);
+        final var tasks = this.getTasks(this.table.getSelectedRows());
+        MainApplication.worker.submit(new BulkTask<>(tr("Stopping MapRoulette Tasks"), tasks,
+                LockUnlockTaskAction::unlock, results -> {
+                    final var newPoints = new HashMap<Long, Task>(results.size());
+                    for (var result : results) {
+                        if (result.modified() != null) {
+                            ModifiedObjects.removeModifiedTask(result.modified());
+                        }
+                        if (result.unlocked() != null) {
+                            ModifiedObjects.removeLockedTask(result.unlocked());
+                        }
+                        if (result.newPoint() != null) {
+                            newPoints.put(result.newPoint().id(), result.newPoint());
+                        }
                     }
-                    ModifiedObjects.removeLockedTask(task);
-                }
-                final var newPoint = TaskAPI.get(cluster.id());
-                MainApplication.getLayerManager().getLayersOfType(MapRouletteClusteredPointLayer.class)
-                        .forEach(layer -> layer.refreshTasks(Map.of(newPoint.id(), newPoint)));
-            } catch (IOException ioException) {
-                ExceptionDialogUtil.explainException(ioException);
+                    MainApplication.getLayerManager().getLayersOfType(MapRouletteClusteredPointLayer.class)
+                            .forEach(layer -> layer.refreshTasks(newPoints));
+                    ((TaskTableModel) this.table.getModel()).fireTableDataChanged();
+                    reselect(tasks);
+                }));
+    }
+
+    /**
+     * Release a task, sending its status if it was modified. Once the task is released (and its status sent), the
+     * result is always returned, so that the local state is removed even if the task could not be fetched again.
+     *
+     * @param cluster The task to release
+     * @return The changes to make
+     * @throws IOException if there was a problem releasing the task or sending its status
+     */
+    private static UnlockResult unlock(TaskClusteredPoint cluster) throws IOException {
+        final var task = ModifiedObjects.getLockedTask(cluster.id());
+        final var unlockedTask = TaskAPI.release(cluster.id());
+        ModifiedTask modified = null;
+        Task unlocked = null;
+        if (task != null && task.id() == unlockedTask.id()) {
+            modified = ModifiedObjects.getModifiedTask(task.id());
+            if (modified != null) {
+                TaskAPI.updateStatus(task.id(), modified.status(), modified.comment(), modified.tags(),
+                        modified.reviewRequested(), modified.completionResponses());
             }
+            unlocked = task;
+        }
+        Task newPoint = null;
+        try {
+            newPoint = TaskAPI.get(cluster.id());
+        } catch (IOException ioException) {
+            // Only the layers are not refreshed
+            Logging.warn(ioException);
         }
-        ((TaskTableModel) this.table.getModel()).fireTableDataChanged();
-        reselect(selected);
+        return new UnlockResult(unlocked, modified, newPoint);
     }
 
     /**
-     * Reselect a selection after indicating that all data in the table changed
+     * Reselect tasks after indicating that all data in the table changed. The rows may have moved (or been removed), so
+     * the tasks are found by id.
      *
-     * @param selected The selection to reselect
+     * @param selected The tasks to reselect
      */
-    private void reselect(int[] selected) {
+    private void reselect(List<TaskClusteredPoint> selected) {
+        final var ids = new HashSet<Long>(selected.size());
+        for (var point : selected) {
+            ids.add(point.id());
+        }
+        final var model = (TaskTableModel) this.table.getModel();
         final var selectionModel = this.table.getSelectionModel();
         selectionModel.clearSelection();
         selectionModel.setValueIsAdjusting(true);
         try {
-            for (var index : selected) {
-                selectionModel.setSelectionInterval(index, index);
+            for (var row = 0; row < this.table.getRowCount(); row++) {
+                if (ids.contains(model.get(this.table.getRowSorter().convertRowIndexToModel(row)).id())) {
+                    selectionModel.addSelectionInterval(row, row);
+                }
             }
         } finally {
             selectionModel.setValueIsAdjusting(false);
@@ -172,4 +223,90 @@ final class LockUnlockTaskAction extends JosmAction {
             super.setEnabled(false);
         }
     }
+
+    /**
+     * The changes to make after a task was released
+     *
+     * @param unlocked The task to remove from the locked tasks, if any
+     * @param modified The modification that was sent, if any
+     * @param newPoint The task as it is now, or {@code null} if it could not be fetched
+     */
+    private record UnlockResult(@Nullable Task unlocked, @Nullable ModifiedTask modified, @Nullable Task newPoint) {
+    }
+
+    /**
+     * A server call to make for a task
+     *
+     * @param <T> The result type
+     */
+    @FunctionalInterface
+    private interface TaskCall<T> {
+        /**
+         * Make the call
+         *
+         * @param point The task
+         * @return The result
+         * @throws IOException if there was a problem communicating with the server
+         */
+        T call(TaskClusteredPoint point) throws IOException;
+    }
+
+    /**
+     * Make a call for many tasks at once, off of the EDT. The results are applied together on the EDT. Cancelling only
+     * skips the calls that have not started; calls that are running change the server, so their results are applied.
+     *
+     * @param <T> The result type
+     */
+    private static final class BulkTask<T> extends PleaseWaitRunnable {
+        private final List<TaskClusteredPoint> points;
+        private final TaskCall<T> call;
+        private final Consumer<List<T>> apply;
+        private final List<T> results = new ArrayList<>();
+        private final List<Exception> exceptions = new ArrayList<>();
+        private volatile boolean cancelled;
+
+        BulkTask(String title, List<TaskClusteredPoint> points, TaskCall<T> call, Consumer<List<T>> apply) {
+            super(title);
+            this.points = points;
+            this.call = call;
+            this.apply = apply;
+        }
+
+        @Override
+        protected void cancel() {
+            this.cancelled = true;
+        }
+
+        @Override
+        protected void realRun() {
+            this.getProgressMonitor().setTicksCount(this.points.size());
+            // The network pool limits how many calls are made at once
+            final var futures = new ArrayList<CompletableFuture<T>>(this.points.size());
+            for (var point : this.points) {
+                // A call that has not started when the task is cancelled is skipped (and has no result)
+                futures.add(NetworkExecutor.supply(() -> this.cancelled ? null : this.call.call(point)));
+            }
+            for (var future : futures) {
+                try {
+                    final var result = future.join();
+                    if (result != null) {
+                        this.results.add(result);
+                    }
+                } catch (CompletionException completionException) {
+                    if (completionException.getCause() instanceof Exception exception) {
+                        this.exceptions.add(exception);
+                    } else {
+                        throw completionException;
+                    }
+                }
+                this.getProgressMonitor().worked(1);
+            }
+        }
+
+        @Override
+        protected void finish() {
+            this.exceptions.forEach(ExceptionDialogUtil::explainException);
+            this.apply.accept(this.results);
+        }
+    }
 }
@@ -0,0 +1,234 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.gui.task.list;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.io.Serial;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
+import org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint;
+import org.openstreetmap.josm.plugins.maproulette.api.model.TaskPage;
+import org.openstreetmap.josm.plugins.maproulette.util.NetworkExecutor;
+import org.openstreetmap.josm.tools.Logging;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * A table model for all the tasks in an area. Only the total is known up front; pages of tasks are fetched from the
+ * server when the table asks for rows in them, and only the most recently used pages are kept.
+ * This must only be used on the EDT.
+ */
+final class PagedTaskTableModel extends AbstractTableModel {
+    @Serial
+    private static final long serialVersionUID = -2652357396620066520L;
+    /**
+     * The number of tasks in a page
+     */
+    static final int PAGE_SIZE = 500;
+    /**
+     * The maximum number of pages to keep
+     */
+    private static final int MAX_PAGES = 20;
+    /**
+     * The time to wait before fetching a page again when fetching it failed
+     */
+    private static final int RETRY_MILLISECONDS = 5_000;
+    /**
+     * The fetched pages, in access order
+     */
+    private final transient Map<Integer, ClusteredPoint[]> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Serial
+        private static final long serialVersionUID = 6009287364574547563L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ClusteredPoint[]> eldest) {
+            return this.size() > MAX_PAGES;
+        }
+    };
+    /**
+     * The pages that are currently being fetched
+     */
+    private final transient Set<Integer> loading = new HashSet<>();
+    private transient Bounds bounds;
+    /**
+     * {@code true} if the table is shown, so that pages should be fetched
+     */
+    private boolean shown;
+    /**
+     * The number of rows
+     */
+    private int total;
+    /**
+     * Incremented when the area changes, so that pages for an old area are dropped
+     */
+    private int generation;
+
+    /**
+     * Show the tasks in a new area. Nothing is fetched until the table is {@link #setShown(boolean) shown}.
+     *
+     * @param bounds The area, or {@code null} to clear the table
+     */
+    void setBounds(@Nullable Bounds bounds) {
+        this.bounds = bounds;
+        this.generation++;
+        this.pages.clear();
+        this.loading.clear();
+        this.total = 0;
+        this.fireTableDataChanged();
+        if (this.shown) {
+            this.requestPage(0, false);
+        }
+    }
+
+    /**
+     * Set whether the table is shown. The first page for the current area is fetched the first time it is shown.
+     *
+     * @param shown {@code true} if the table is shown
+     */
+    void setShown(boolean shown) {
+        this.shown = shown;
+        if (shown && this.total == 0) {
+            this.requestPage(0, false);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.total;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return 1;
+    }
+
+    @Override
+    public String getColumnName(int columnIndex) {
+        return tr("MapRoulette Task");
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        final var point = this.get(rowIndex);
+        if (point == null) {
+            return tr("Loading…");
+        }
+        return point.parentName() + ": " + point.title();
+    }
+
+    /**
+     * Get a task. If the page for the task has not been fetched, this starts fetching it.
+     *
+     * @param index The row
+     * @return The task, or {@code null} if it is not available yet
+     */
+    @Nullable
+    ClusteredPoint get(int index) {
+        final var page = index / PAGE_SIZE;
+        final var points = this.pages.get(page);
+        if (points == null) {
+            this.requestPage(page, false);
+            return null;
+        }
+        final var pageIndex = index % PAGE_SIZE;
+        return pageIndex < points.length ? points[pageIndex] : null;
+    }
+
+    /**
+     * Stop fetching pages. Pages that are still being fetched are dropped when they arrive.
+     */
+    void destroy() {
+        this.shown = false;
+        this.generation++;
+        this.loading.clear();
+    }
+
+    /**
+     * Fetch a page in the background
+     *
+     * @param page     The page to fetch
+     * @param prefetch {@code true} if the page has not been asked for yet
+     */
+    private void requestPage(int page, boolean prefetch) {
+        if (this.bounds == null || this.pages.containsKey(page) || !this.loading.add(page)) {
+            return;
+        }
+        final var currentBounds = this.bounds;
+        final var currentGeneration = this.generation;
+        // Sort by id so that the pages are stable
+        NetworkExecutor.supply(() -> TaskAPI.boxPage(currentBounds.getMinLon(), currentBounds.getMinLat(),
+                currentBounds.getMaxLon(), currentBounds.getMaxLat(), PAGE_SIZE, page, true, "id", "ASC"))
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        Logging.warn(throwable);
+                    }
+                    GuiHelper.runInEDT(() -> this.pageLoaded(currentGeneration, page, prefetch, result));
+                });
+    }
+
+    private void pageLoaded(int currentGeneration, int page, boolean prefetch, @Nullable TaskPage result) {
+        if (currentGeneration != this.generation) {
+            return;
+        }
+        this.loading.remove(page);
+        if (result == null) {
+            this.retry(currentGeneration, page, prefetch);
+            return;
+        }
+        this.pages.put(page, result.tasks());
+        final int newTotal;
+        if (result.total() >= 0) {
+            newTotal = (int) Math.min(Integer.MAX_VALUE, result.total());
+        } else {
+            // The server did not send the total, so assume there is another page if this one is full
+            final var end = page * PAGE_SIZE + result.tasks().length;
+            newTotal = Math.max(this.total, result.tasks().length == PAGE_SIZE ? end + PAGE_SIZE : end);
+        }
+        if (newTotal > this.total) {
+            final var oldTotal = this.total;
+            this.total = newTotal;
+            this.fireTableRowsInserted(oldTotal, newTotal - 1);
+        } else if (newTotal < this.total) {
+            this.total = newTotal;
+            this.fireTableDataChanged();
+        }
+        if (page * PAGE_SIZE < this.total) {
+            this.fireTableRowsUpdated(page * PAGE_SIZE, Math.min(this.total, (page + 1) * PAGE_SIZE) - 1);
+        }
+        // The next page is usually wanted next while scrolling. Pages fetched this way do not fetch more pages.
+        if (!prefetch && (page + 1) * PAGE_SIZE < this.total) {
+            this.requestPage(page + 1, true);
+        }
+    }
+
+    /**
+     * Fetch a page again after a delay, if the area has not changed and the table is still shown
+     *
+     * @param currentGeneration The generation the page was fetched for
+     * @param page              The page that could not be fetched
+     * @param prefetch          {@code true} if the page has not been asked for yet
+     */
+    private void retry(int currentGeneration, int page, boolean prefetch) {
+        final var timer = new Timer(RETRY_MILLISECONDS, e -> {
+            if (currentGeneration == this.generation && this.shown) {
+                this.requestPage(page, prefetch);
+            }
+        });
+        timer.setRepeats(false);
+        timer.start();
+    }
+}
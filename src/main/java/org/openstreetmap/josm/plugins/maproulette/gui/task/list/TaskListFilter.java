@@ -0,0 +1,181 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.gui.task.list;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.RowFilter;
+import javax.swing.Timer;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableRowSorter;
+
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.maproulette.api.model.TaskClusteredPoint;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Filter the task list from the filter field. Keystrokes are debounced, the query runs against a
+ * {@link TaskSearchIndex} on a background thread, and only the resulting row filter is applied on the EDT.
+ * Model changes are debounced with the same timer; rows that were only updated are re-indexed without rebuilding
+ * the whole index.
+ */
+final class TaskListFilter implements TableModelListener {
+    /**
+     * The time to wait after the last keystroke or model change before running the query
+     */
+    private static final int DEBOUNCE_MILLISECONDS = 200;
+    /**
+     * Index builds and queries run here, in order, so a query always sees the index for the latest model
+     */
+    private final ExecutorService executor = Executors
+            .newSingleThreadExecutor(Utils.newThreadFactory("maproulette-task-filter-%d", Thread.NORM_PRIORITY));
+    private final TaskTableModel model;
+    private final TableRowSorter<TaskTableModel> rowSorter;
+    private final RowFilter<TaskTableModel, Integer> defaultFilter;
+    private final Runnable filterApplied;
+    private final Timer timer;
+    /**
+     * The current index. Only used from {@link #executor}.
+     */
+    private TaskSearchIndex index = TaskSearchIndex.EMPTY;
+    /**
+     * The current query. Only used on the EDT.
+     */
+    private String query = "";
+    /**
+     * {@code true} if the query changed since it was last run. Only used on the EDT.
+     */
+    private boolean queryChanged;
+    /**
+     * Incremented for every query, so that results from outdated queries are dropped. Only used on the EDT.
+     */
+    private int generation;
+    /**
+     * {@code true} if the index has to be rebuilt for the whole model. Only used on the EDT.
+     */
+    private boolean rebuild;
+    /**
+     * The ids of the tasks in rows that were updated since the index was last changed. Only used on the EDT.
+     */
+    private final Set<Long> updated = new HashSet<>();
+
+    /**
+     * Create a new filter
+     *
+     * @param model         The model to filter
+     * @param rowSorter     The sorter to set the filter on
+     * @param defaultFilter The filter that is always applied
+     * @param filterApplied Called on the EDT after a new filter has been applied
+     */
+    TaskListFilter(TaskTableModel model, TableRowSorter<TaskTableModel> rowSorter,
+            RowFilter<TaskTableModel, Integer> defaultFilter, Runnable filterApplied) {
+        this.model = model;
+        this.rowSorter = rowSorter;
+        this.defaultFilter = defaultFilter;
+        this.filterApplied = filterApplied;
+        this.timer = new Timer(DEBOUNCE_MILLISECONDS, e -> this.flush());
+        this.timer.setRepeats(false);
+        this.rowSorter.setRowFilter(defaultFilter);
+        this.model.addTableModelListener(this);
+        this.rebuild = true;
+        this.flush();
+    }
+
+    /**
+     * Set the query. This must be called on the EDT.
+     *
+     * @param query The new query
+     */
+    void setQuery(String query) {
+        this.query = query;
+        this.queryChanged = true;
+        this.timer.restart();
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        if (!this.rebuild && e.getType() == TableModelEvent.UPDATE && e.getFirstRow() != TableModelEvent.HEADER_ROW
+                && e.getLastRow() != Integer.MAX_VALUE) {
+            // The ids are recorded instead of the rows, since a later update may be for a rebuilt model
+            for (var row = e.getFirstRow(); row <= e.getLastRow() && row < this.model.getRowCount(); row++) {
+                this.updated.add(this.model.get(row).id());
+            }
+        } else {
+            this.rebuild = true;
+            this.updated.clear();
+        }
+        this.timer.restart();
+    }
+
+    /**
+     * Stop filtering. This must be called on the EDT.
+     */
+    void destroy() {
+        this.timer.stop();
+        this.model.removeTableModelListener(this);
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Update the index for the model changes since the last update, and run the current query
+     */
+    private void flush() {
+        final var challengeNames = this.model.challengeNames();
+        if (this.rebuild) {
+            final var tasks = this.model.snapshot();
+            this.executor.execute(
+                    () -> this.index = TaskSearchIndex.build(tasks, task -> challengeNames.get(task.parentId())));
+        } else if (!this.updated.isEmpty()) {
+            final var tasks = new ArrayList<TaskClusteredPoint>(this.updated.size());
+            for (var id : this.updated) {
+                final var row = this.model.indexOf(id);
+                if (row >= 0) {
+                    tasks.add(this.model.get(row));
+                }
+            }
+            this.executor.execute(() -> this.index = this.index.withUpdated(tasks,
+                    task -> challengeNames.get(task.parentId())));
+        }
+        final var changed = this.rebuild || !this.updated.isEmpty();
+        this.rebuild = false;
+        this.updated.clear();
+        if (this.queryChanged || changed && !Utils.isStripEmpty(this.query)) {
+            this.queryChanged = false;
+            this.runQuery();
+        }
+    }
+
+    private void runQuery() {
+        final var currentQuery = this.query;
+        final var currentGeneration = ++this.generation;
+        this.executor.execute(() -> {
+            final var ids = this.index.search(currentQuery);
+            GuiHelper.runInEDT(() -> {
+                if (currentGeneration == this.generation) {
+                    this.apply(ids);
+                }
+            });
+        });
+    }
+
+    private void apply(long[] ids) {
+        if (ids == null) {
+            this.rowSorter.setRowFilter(this.defaultFilter);
+        } else {
+            this.rowSorter.setRowFilter(new RowFilter<>() {
+                @Override
+                public boolean include(Entry<? extends TaskTableModel, ? extends Integer> entry) {
+                    final var id = entry.getModel().get(entry.getIdentifier()).id();
+                    return Arrays.binarySearch(ids, id) >= 0 && defaultFilter.include(entry);
+                }
+            });
+        }
+        this.filterApplied.run();
+    }
+
+}
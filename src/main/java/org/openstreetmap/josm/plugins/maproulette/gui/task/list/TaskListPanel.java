@@ -9,25 +9,29 @@ import java.awt.Color;
 import java.awt.GridBagLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
-import java.io.IOException;
 import java.io.Serial;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
+import javax.swing.JTabbedPane;
 import javax.swing.JTable;
 import javax.swing.RowFilter;
+import javax.swing.border.EmptyBorder;
 import javax.swing.table.TableRowSorter;
 
 import org.openstreetmap.josm.actions.JosmAction;
 import org.openstreetmap.josm.actions.downloadtasks.DownloadParams;
+import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.preferences.CachingProperty;
 import org.openstreetmap.josm.data.preferences.NamedColorProperty;
 import org.openstreetmap.josm.gui.MainApplication;
@@ -46,7 +50,6 @@ import org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Identifier;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
 import org.openstreetmap.josm.plugins.maproulette.api.model.TaskClusteredPoint;
-import org.openstreetmap.josm.plugins.maproulette.api_caching.ChallengeCache;
 import org.openstreetmap.josm.plugins.maproulette.api_caching.TaskCache;
 import org.openstreetmap.josm.plugins.maproulette.data.HiddenList;
 import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedObjects;
@@ -54,9 +57,10 @@ import org.openstreetmap.josm.plugins.maproulette.gui.layer.MapRouletteClustered
 import org.openstreetmap.josm.plugins.maproulette.gui.preferences.MapRoulettePreferences;
 import org.openstreetmap.josm.plugins.maproulette.gui.task.current.CurrentTaskPanel;
 import org.openstreetmap.josm.plugins.maproulette.gui.widgets.DefaultPanelListCellRenderer;
-import org.openstreetmap.josm.plugins.maproulette.util.ExceptionDialogUtil;
+import org.openstreetmap.josm.plugins.maproulette.util.NetworkExecutor;
 import org.openstreetmap.josm.tools.GBC;
 import org.openstreetmap.josm.tools.ImageProvider;
+import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.OpenBrowser;
 import org.openstreetmap.josm.tools.Shortcut;
 
@@ -79,6 +83,28 @@ public final class TaskListPanel extends ToggleDialog
      * The underlying model
      */
     private final TaskTableModel model;
+    /**
+     * The filter for the table
+     */
+    private final transient TaskListFilter filter;
+    /**
+     * The height of an unselected (single line) row
+     */
+    private final int collapsedRowHeight;
+    /**
+     * All the tasks in the last downloaded area, fetched in pages as the table is scrolled. The downloaded layer only
+     * has the first tasks in large areas.
+     */
+    private final PagedTaskTableModel areaModel = new PagedTaskTableModel();
+    /**
+     * The function used to find the tasks hidden by the table filter
+     */
+    private final transient UnaryOperator<long[]> hiddenUpdater = this::getHidden;
+    /**
+     * Repaints the table when tasks are locked, unlocked, or modified
+     */
+    private final transient Consumer<ModifiedObjects.Snapshot> modifiedListener = snapshot -> GuiHelper
+            .runInEDT(() -> this.table.repaint());
 
     /**
      * Create a new task list panel
@@ -92,7 +118,7 @@ public final class TaskListPanel extends ToggleDialog
         MainApplication.getLayerManager().addAndFireLayerChangeListener(model);
         MainApplication.getLayerManager().addAndFireLayerChangeListener(this);
         table = new JTable(model);
-        final var downloadButton = new SideButton(new DownloadDataAction());
+        final var downloadButton = new SideButton(new DownloadDataAction(this.areaModel::setBounds));
         final var lockUnlockButton = new SideButton(new LockUnlockTaskAction(table));
         final var browseButton = new SideButton(new OpenInBrowserAction(table));
         final var tableRowSorter = new TableRowSorter<>(model);
@@ -109,34 +135,27 @@ public final class TaskListPanel extends ToggleDialog
                 return !TaskCache.isHidden(point);
             }
         };
-        HiddenList.addListUpdater(this::isHidden);
-        filterField.filter(expr -> {
-            expr = expr.replace("+", "\\+");
-            final ArrayList<RowFilter<? super TaskTableModel, ? super Integer>> andFilters = new ArrayList<>();
-            andFilters.add(defaultFilter);
-            // split search string on whitespace, do case-insensitive AND search
-            for (var word : expr.split("\\s+", -1)) {
-                andFilters.add(RowFilter.regexFilter("(?i)" + word));
-            }
-            tableRowSorter.setRowFilter(andFilters.size() > 1 ? RowFilter.andFilter(andFilters) : defaultFilter);
-            final var layers = MainApplication.getLayerManager().getLayersOfType(MapRouletteClusteredPointLayer.class);
-            final var ids = layers.stream().map(MapRouletteClusteredPointLayer::getTasks).flatMap(Collection::stream)
-                    .mapToLong(Identifier::id).toArray();
-            HiddenList.update(ids);
-            layers.forEach(MapRouletteClusteredPointLayer::invalidate);
-        });
+        HiddenList.addListUpdater(this.hiddenUpdater);
+        ModifiedObjects.addListener(this.modifiedListener);
+        this.filter = new TaskListFilter(this.model, tableRowSorter, defaultFilter, TaskListPanel::updateHidden);
+        filterField.filter(this.filter::setQuery);
         menu.add(new GoToTaskLocation());
         menu.add(new DownloadTasks());
         menu.add(new IgnoreAction(IgnoreAction.IgnoreType.IGNORE_TASK));
         menu.add(new IgnoreAction(IgnoreAction.IgnoreType.IGNORE_CHALLENGE));
         table.setComponentPopupMenu(menu);
-        tableRowSorter.setRowFilter(defaultFilter);
-        tableRowSorter.setComparator(0,
-                Comparator.comparing(TaskListPanel::getParentName).thenComparingInt(TaskClusteredPoint::priority)
-                        .thenComparing(TaskListPanel::getTitle).thenComparingLong(TaskClusteredPoint::id));
+        // The keys are precomputed by the model, so sorting never has to fetch a challenge
+        tableRowSorter.setComparator(0, Comparator.comparing(this.model::getSortKey));
+        tableRowSorter.setSortsOnUpdates(true);
         table.setRowSorter(tableRowSorter);
-        table.setDefaultRenderer(ClusteredPoint.class, new TaskListCellRenderer());
+        final var renderer = new TaskListCellRenderer(this.model);
+        table.setDefaultRenderer(ClusteredPoint.class, renderer);
+        this.collapsedRowHeight = renderer.getCollapsedHeight();
+        table.setRowHeight(this.collapsedRowHeight);
         table.getSelectionModel().addListSelectionListener(l -> {
+            if (!l.getValueIsAdjusting()) {
+                this.updateRowHeights();
+            }
             ((LockUnlockTaskAction) lockUnlockButton.getAction()).updateEnabledState();
             ((OpenInBrowserAction) browseButton.getAction()).updateEnabledState();
             final Task task;
@@ -150,39 +169,68 @@ public final class TaskListPanel extends ToggleDialog
             }
             if (!l.getValueIsAdjusting()) {
                 if (task != null) {
-                    if (MainApplication.getMap().getToggleDialog(CurrentTaskPanel.class) == null) {
-                        final var currentTaskPanel = new CurrentTaskPanel();
-                        MainApplication.getMap().addToggleDialog(currentTaskPanel);
-                    }
-                    MainApplication.getMap().getToggleDialog(CurrentTaskPanel.class).refreshModel(task);
+                    showCurrentTask(task);
                 } else if (MainApplication.getMap().getToggleDialog(CurrentTaskPanel.class) != null) {
                     MainApplication.getMap().getToggleDialog(CurrentTaskPanel.class).refreshModel(null);
                 }
             }
         });
         tableRowSorter.toggleSortOrder(0); // Start with an initial sort
-        super.createLayout(panel, true, Arrays.asList(downloadButton, lockUnlockButton, browseButton));
+        final var areaTable = new JTable(this.areaModel);
+        final var areaPanel = new JPanel(new GridBagLayout());
+        areaPanel.add(areaTable.getTableHeader(), GBC.eol().anchor(GBC.LINE_START).fill(GBC.HORIZONTAL));
+        areaPanel.add(areaTable, GBC.eol().anchor(GBC.LINE_START).fill(GBC.BOTH));
+        areaTable.getSelectionModel().addListSelectionListener(l -> {
+            if (!l.getValueIsAdjusting() && areaTable.getSelectedRow() >= 0) {
+                final var point = this.areaModel.get(areaTable.getSelectedRow());
+                if (point != null) {
+                    showCurrentTask(point);
+                }
+            }
+        });
+        final var tabs = new JTabbedPane();
+        tabs.addTab(tr("Downloaded"), panel);
+        tabs.addTab(tr("All in area"), areaPanel);
+        // Only fetch the tasks in the area when someone looks at them
+        tabs.addChangeListener(e -> this.areaModel.setShown(tabs.getSelectedComponent() == areaPanel));
+        super.createLayout(tabs, true, Arrays.asList(downloadButton, lockUnlockButton, browseButton));
     }
 
     /**
-     * Get the parent name
+     * Show a task from the area tab in the {@link CurrentTaskPanel}. A locked task is shown as it is; other tasks are
+     * fetched first.
      *
-     * @param point The point to get the parent name for
-     * @return The parent name
+     * @param point The selected point
      */
-    private static String getParentName(TaskClusteredPoint point) {
-        if (point instanceof ClusteredPoint clusteredPoint) {
-            return clusteredPoint.parentName();
-        } else if (point instanceof Task task) {
-            try {
-                return ChallengeCache.challenge(task.parentId()).name();
-            } catch (IOException ioException) {
-                ExceptionDialogUtil.explainException(ioException);
+    private static void showCurrentTask(ClusteredPoint point) {
+        final var locked = ModifiedObjects.getLockedTask(point.id());
+        if (locked != null) {
+            showCurrentTask(locked);
+            return;
+        }
+        NetworkExecutor.supply(() -> TaskCache.get(point.id())).whenComplete((task, throwable) -> {
+            if (throwable != null) {
+                Logging.warn(throwable);
+            } else if (task != null) {
+                GuiHelper.runInEDT(() -> showCurrentTask(task));
             }
-            return tr("Unknown");
-        } else {
-            throw new IllegalArgumentException("Unknown class type: " + point.getClass());
+        });
+    }
+
+    /**
+     * Show a task in the {@link CurrentTaskPanel}, adding the panel if needed
+     *
+     * @param task The task to show
+     */
+    private static void showCurrentTask(Task task) {
+        if (MainApplication.getMap() == null) {
+            return;
+        }
+        if (MainApplication.getMap().getToggleDialog(CurrentTaskPanel.class) == null) {
+            final var currentTaskPanel = new CurrentTaskPanel();
+            MainApplication.getMap().addToggleDialog(currentTaskPanel);
         }
+        MainApplication.getMap().getToggleDialog(CurrentTaskPanel.class).refreshModel(task);
     }
 
     /**
@@ -191,7 +239,7 @@ public final class TaskListPanel extends ToggleDialog
      * @param point The point to get the title for
      * @return The title
      */
-    private static String getTitle(TaskClusteredPoint point) {
+    static String getTitle(TaskClusteredPoint point) {
         if (point instanceof ClusteredPoint clusteredPoint) {
             return clusteredPoint.title();
         } else if (point instanceof Task task) {
@@ -201,9 +249,40 @@ public final class TaskListPanel extends ToggleDialog
         }
     }
 
+    /**
+     * Update the hidden list and repaint the layers after the table filter changes
+     */
+    private static void updateHidden() {
+        final var layers = MainApplication.getLayerManager().getLayersOfType(MapRouletteClusteredPointLayer.class);
+        final var ids = layers.stream().map(MapRouletteClusteredPointLayer::getTasks).flatMap(Collection::stream)
+                .mapToLong(Identifier::id).toArray();
+        HiddenList.update(ids);
+        layers.forEach(MapRouletteClusteredPointLayer::invalidate);
+    }
+
+    /**
+     * Expand the selected rows and collapse everything else. This is done when the selection changes instead of in the
+     * renderer, so that painting never changes the row heights.
+     */
+    private void updateRowHeights() {
+        // This resets every row to the single line height
+        this.table.setRowHeight(this.collapsedRowHeight);
+        for (int row : this.table.getSelectedRows()) {
+            final var component = this.table.prepareRenderer(this.table.getCellRenderer(row, 0), row, 0);
+            final var height = component.getPreferredSize().height;
+            if (height > this.collapsedRowHeight) {
+                this.table.setRowHeight(row, height);
+            }
+        }
+    }
+
     @Override
     public void destroy() {
         super.destroy();
+        this.filter.destroy();
+        this.areaModel.destroy();
+        HiddenList.removeListUpdater(this.hiddenUpdater);
+        ModifiedObjects.removeListener(this.modifiedListener);
         MainApplication.getLayerManager().removeAndFireLayerChangeListener(this.model);
     }
 
@@ -223,18 +302,25 @@ public final class TaskListPanel extends ToggleDialog
 
     @Override
     public void accept(Collection<TaskClusteredPoint> selected) {
-        final int[] toSelect = selected.stream().mapToInt(((TaskTableModel) table.getModel())::indexOf)
-                .filter(i -> i >= 0).map(i -> table.getRowSorter().convertRowIndexToView(i)).sorted().distinct()
-                .filter(i -> i >= 0).toArray();
+        final int[] toSelect = selected.stream().mapToInt(point -> this.model.indexOf(point.id()))
+                .filter(i -> i >= 0).map(i -> table.getRowSorter().convertRowIndexToView(i)).filter(i -> i >= 0)
+                .sorted().distinct().toArray();
         final var selModel = table.getSelectionModel();
-        selModel.clearSelection();
-        for (int i : toSelect) { // Not ideal. Probably won't be a perf issue though.
-            selModel.addSelectionInterval(i, i);
+        // Only send one selection event, and add contiguous rows as a single interval
+        selModel.setValueIsAdjusting(true);
+        try {
+            selModel.clearSelection();
+            var start = 0;
+            for (var i = 1; i <= toSelect.length; i++) {
+                if (i == toSelect.length || toSelect[i] != toSelect[i - 1] + 1) {
+                    selModel.addSelectionInterval(toSelect[start], toSelect[i - 1]);
+                    start = i;
+                }
+            }
+        } finally {
+            selModel.setValueIsAdjusting(false);
         }
         if (toSelect.length > 0) {
-            // Force an update of the row height
-            table.getCellRenderer(toSelect[0], 0).getTableCellRendererComponent(table, table.getValueAt(toSelect[0], 0),
-                    true, true, toSelect[0], 0);
             table.scrollRectToVisible(table.getCellRect(toSelect[0], 0, true));
         }
     }
@@ -259,17 +345,18 @@ public final class TaskListPanel extends ToggleDialog
     }
 
     /**
-     * Check if a task is hidden
-     * @param id The task to check
-     * @return {@code true} if the task is hidden
+     * Get the hidden tasks. This walks the sorted view once instead of searching the model for each id.
+     * @param ids The sorted ids to check
+     * @return The ids which are not shown in the table
      */
-    private boolean isHidden(long id) {
-        for (int i = 0; i < this.model.getRowCount(); i++) {
-            if (id == this.model.get(i).id()) {
-                return this.table.convertRowIndexToView(i) < 0;
-            }
+    private long[] getHidden(long[] ids) {
+        final var rowSorter = this.table.getRowSorter();
+        final var visible = new long[rowSorter.getViewRowCount()];
+        for (int i = 0; i < visible.length; i++) {
+            visible[i] = this.model.get(rowSorter.convertRowIndexToModel(i)).id();
         }
-        return true;
+        Arrays.sort(visible);
+        return Arrays.stream(ids).filter(id -> Arrays.binarySearch(visible, id) < 0).toArray();
     }
 
     /**
@@ -331,15 +418,22 @@ public final class TaskListPanel extends ToggleDialog
         @Serial
         private static final long serialVersionUID = -4078764340309276574L;
         private MapRouletteDownloadTaskBox task;
+        /**
+         * Called on the EDT with the downloaded area
+         */
+        private final transient Consumer<Bounds> downloadedArea;
 
         /**
          * Create a new action
+         *
+         * @param downloadedArea Called on the EDT with the area when a download is started
          */
-        DownloadDataAction() {
+        DownloadDataAction(Consumer<Bounds> downloadedArea) {
             super(tr("Download Data"), "download", tr("Download MapRoulette Tasks"),
                     Shortcut.registerShortcut("maproulette:download_tasks", tr("MapRoulette: Download Tasks"),
                             KeyEvent.CHAR_UNDEFINED, Shortcut.NONE),
                     false);
+            this.downloadedArea = downloadedArea;
         }
 
         @Override
@@ -349,9 +443,10 @@ public final class TaskListPanel extends ToggleDialog
 
         /**
          * Perform the download in a background thread
+         *
+         * @param bounds The area to download
          */
-        private void download() {
-            final var bounds = MainApplication.getMap().mapView.getState().getViewArea().getLatLonBoundsBox();
+        private void download(Bounds bounds) {
             final var task2 = new MapRouletteDownloadTaskBox();
             task2.download(new DownloadParams().withNewLayer(false), bounds, NullProgressMonitor.INSTANCE);
             synchronized (this) {
@@ -365,7 +460,9 @@ public final class TaskListPanel extends ToggleDialog
 
         private void switchType(boolean performDownload) {
             if (performDownload && this.task == null) {
-                MainApplication.worker.execute(this::download);
+                final var bounds = MainApplication.getMap().mapView.getState().getViewArea().getLatLonBoundsBox();
+                this.downloadedArea.accept(bounds);
+                MainApplication.worker.execute(() -> this.download(bounds));
                 new ImageProvider("cancel").getResource().attachImageIcon(this);
                 this.putValue(NAME, tr("Cancel"));
             } else {
@@ -380,7 +477,8 @@ public final class TaskListPanel extends ToggleDialog
     }
 
     /**
-     * A renderer for the task list
+     * A renderer for the task list. Unselected rows are a single line; the details are only shown for selected rows.
+     * The row heights are set by {@link #updateRowHeights()}, not while painting.
      */
     private static class TaskListCellRenderer extends DefaultPanelListCellRenderer<TaskClusteredPoint> {
         /**
@@ -399,12 +497,24 @@ public final class TaskListPanel extends ToggleDialog
         private final JLabel modified = new JLabel();
         private final JLabel type = new JLabel();
         private final JLabel status = new JLabel();
+        private final transient TaskTableModel model;
+        /**
+         * The formatted text for each task, so that scrolling does not format the same strings again
+         */
+        private final transient Map<Long, RenderText> texts = new HashMap<>();
+        /**
+         * {@code true} if the detail labels are currently shown
+         */
+        private boolean expanded = true;
 
         /**
          * Create a new renderer
+         *
+         * @param model The model to get the challenge names from
          */
-        TaskListCellRenderer() {
+        TaskListCellRenderer(TaskTableModel model) {
             super(TaskClusteredPoint.class);
+            this.model = model;
             this.setLayout(new GridBagLayout());
             final var gbc = GBC.eol().anchor(GBC.LINE_START).fill(GBC.HORIZONTAL);
             this.add(this.singleLine, gbc);
@@ -413,35 +523,35 @@ public final class TaskListPanel extends ToggleDialog
             this.add(this.modified, gbc);
             this.add(this.type, gbc);
             this.add(this.status, gbc);
+            model.addTableModelListener(e -> {
+                // Drop the cached text when the task list is rebuilt
+                if (e.getLastRow() == Integer.MAX_VALUE) {
+                    this.texts.clear();
+                }
+            });
+        }
+
+        /**
+         * Get the height of an unselected row
+         *
+         * @return The height of a single line row
+         */
+        int getCollapsedHeight() {
+            this.singleLine.setText("X");
+            this.setDetails(null);
+            this.setBorder(new EmptyBorder(1, 1, 1, 1));
+            return this.getPreferredSize().height;
         }
 
         @Override
         protected void addRenderComponents(TaskClusteredPoint value, boolean isSelected, boolean cellHasFocus) {
-            this.singleLine.setText(TaskListPanel.getParentName(value) + ": " + TaskListPanel.getTitle(value));
-            this.priority.setVisible(isSelected);
-            this.difficulty.setVisible(isSelected);
-            this.modified.setVisible(isSelected);
-            this.type.setVisible(isSelected);
-            this.status.setVisible(isSelected);
-            if (isSelected) {
-                this.priority.setText(tr("Priority: {0}", value.priority()));
-                if (value instanceof ClusteredPoint point && point.difficulty() != null) {
-                    this.difficulty.setText(tr("Difficulty: {0}", point.difficulty()));
-                    this.difficulty.setVisible(true);
-                } else {
-                    this.difficulty.setVisible(false);
-                }
-                this.modified.setText(tr("Modified: {0}", value.modified()));
-                if (value instanceof ClusteredPoint point) {
-                    this.type.setText(tr("Type: {0}", point.type()));
-                } else {
-                    this.type.setVisible(false);
-                }
-                if (value.status() != null) {
-                    this.status.setText(tr("Status: {0}", value.status()));
-                }
-                this.status.setVisible(value.status() != null);
+            var text = this.getText(value);
+            if (isSelected && text.details() == null) {
+                text = text.withDetails();
+                this.texts.put(value.id(), text);
             }
+            this.singleLine.setText(text.line());
+            this.setDetails(isSelected ? text.details() : null);
             if (!isSelected && !cellHasFocus) {
                 final var defaultColor = MRColors.statusColor(value.status());
                 if (defaultColor != null) {
@@ -454,9 +564,75 @@ public final class TaskListPanel extends ToggleDialog
                     this.setBackground(COLOR_LOCKED.get());
                 }
             }
-            this.updateComponentColors();
-            final var bounds = this.getBounds();
-            this.setBounds(bounds.x, bounds.y, bounds.width, bounds.height * this.getComponentCount());
+        }
+
+        /**
+         * Get the cached text for a task. The cached text is only used if it was made from the same task object (so
+         * status changes are seen) and the same challenge name (which may be resolved after the first paint).
+         *
+         * @param value The task
+         * @return The text to render
+         */
+        private RenderText getText(TaskClusteredPoint value) {
+            final var parentName = this.model.getParentName(value);
+            final var text = this.texts.get(value.id());
+            if (text != null && text.task() == value && Objects.equals(text.parentName(), parentName)) {
+                return text;
+            }
+            final var created = new RenderText(value, parentName,
+                    (parentName != null ? parentName : tr("Unknown")) + ": " + TaskListPanel.getTitle(value), null);
+            this.texts.put(value.id(), created);
+            return created;
+        }
+
+        /**
+         * Show or hide the detail labels
+         *
+         * @param details The details to show, or {@code null} to only show the single line
+         */
+        private void setDetails(String[] details) {
+            final JLabel[] labels = { this.priority, this.difficulty, this.modified, this.type, this.status };
+            if (details == null) {
+                if (this.expanded) {
+                    for (var label : labels) {
+                        label.setVisible(false);
+                    }
+                    this.expanded = false;
+                }
+                return;
+            }
+            for (var i = 0; i < labels.length; i++) {
+                labels[i].setText(details[i]);
+                labels[i].setVisible(details[i] != null);
+            }
+            this.expanded = true;
+        }
+    }
+
+    /**
+     * The formatted text for a task
+     *
+     * @param task       The task the text was made from
+     * @param parentName The challenge name the text was made with
+     * @param line       The single line text
+     * @param details    The detail lines (priority, difficulty, modified, type, status), or {@code null} if they have
+     *                   not been needed yet. Lines that do not apply to the task are {@code null}.
+     */
+    private record RenderText(TaskClusteredPoint task, String parentName, String line, String[] details) {
+        /**
+         * Get a copy of this text with the detail lines
+         *
+         * @return The new text
+         */
+        RenderText withDetails() {
+            return new RenderText(this.task, this.parentName, this.line,
+                    new String[] { tr("Priority: {0}", this.task.priority()),
+                            this.task instanceof ClusteredPoint point && point.difficulty() != null
+                                    ? tr("Difficulty: {0}", point.difficulty())
+                                    : null,
+                            tr("Modified: {0}", this.task.modified()),
+                            this.task instanceof ClusteredPoint point ? tr("Type: {0}", point.type()) : null,
+                            this.task.status() != null ? tr("Status: {0}", this.task.status()) : null });
         }
     }
 }
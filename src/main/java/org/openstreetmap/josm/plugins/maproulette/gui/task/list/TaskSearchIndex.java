@@ -0,0 +1,268 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.gui.task.list;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.openstreetmap.josm.plugins.maproulette.api.enums.Priority;
+import org.openstreetmap.josm.plugins.maproulette.api.model.TaskClusteredPoint;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * An immutable search index over a snapshot of tasks. Each task is tokenized (title, challenge name, status, priority,
+ * and id), and queries are prefix lookups on the sorted token array, so a query does not have to look at every task.
+ */
+final class TaskSearchIndex {
+    /**
+     * An index with no tasks
+     */
+    static final TaskSearchIndex EMPTY = new TaskSearchIndex(new String[0], new int[0][], new long[0]);
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}_]+");
+    /**
+     * The sorted tokens
+     */
+    private final String[] tokens;
+    /**
+     * The (sorted) task indexes for each token
+     */
+    private final int[][] postings;
+    /**
+     * The task ids in this index
+     */
+    private final long[] ids;
+    /**
+     * {@code true} if the {@link #ids} are sorted, which they are for the task table model
+     */
+    private final boolean sorted;
+
+    private TaskSearchIndex(String[] tokens, int[][] postings, long[] ids) {
+        this.tokens = tokens;
+        this.postings = postings;
+        this.ids = ids;
+        var isSorted = true;
+        for (var i = 1; i < ids.length && isSorted; i++) {
+            isSorted = ids[i - 1] < ids[i];
+        }
+        this.sorted = isSorted;
+    }
+
+    /**
+     * Build a new index. This may be expensive, so it should not be called on the EDT.
+     *
+     * @param tasks      The tasks to index
+     * @param parentName The function to get the challenge name of a task
+     * @return The new index
+     */
+    @Nonnull
+    static TaskSearchIndex build(@Nonnull List<? extends TaskClusteredPoint> tasks,
+            @Nonnull Function<TaskClusteredPoint, String> parentName) {
+        final var ids = new long[tasks.size()];
+        final var tokenMap = new TreeMap<String, IntList>();
+        for (var i = 0; i < tasks.size(); i++) {
+            final var task = tasks.get(i);
+            ids[i] = task.id();
+            addTokens(tokenMap, i, task, parentName);
+        }
+        final var tokens = new String[tokenMap.size()];
+        final var postings = new int[tokenMap.size()][];
+        var index = 0;
+        for (Map.Entry<String, IntList> entry : tokenMap.entrySet()) {
+            tokens[index] = entry.getKey();
+            postings[index] = entry.getValue().toArray();
+            index++;
+        }
+        return new TaskSearchIndex(tokens, postings, ids);
+    }
+
+    /**
+     * Get an index where some tasks have changed. The tasks must already be in this index; other tasks are ignored.
+     * This is cheaper than building a new index when only a few tasks changed, e.g. when a challenge name is found.
+     *
+     * @param updated    The changed tasks
+     * @param parentName The function to get the challenge name of a task
+     * @return The new index, or this index if none of the tasks are in it
+     */
+    @Nonnull
+    TaskSearchIndex withUpdated(@Nonnull List<? extends TaskClusteredPoint> updated,
+            @Nonnull Function<TaskClusteredPoint, String> parentName) {
+        final var changed = new BitSet(this.ids.length);
+        final var newTokens = new TreeMap<String, IntList>();
+        for (var task : updated) {
+            final var position = this.position(task.id());
+            if (position >= 0 && !changed.get(position)) {
+                changed.set(position);
+                addTokens(newTokens, position, task, parentName);
+            }
+        }
+        if (changed.isEmpty()) {
+            return this;
+        }
+        // Merge the sorted tokens, dropping the old postings for the changed tasks
+        final var mergedTokens = new ArrayList<String>(this.tokens.length + newTokens.size());
+        final var mergedPostings = new ArrayList<int[]>(this.tokens.length + newTokens.size());
+        final var newIterator = newTokens.entrySet().iterator();
+        var newEntry = newIterator.hasNext() ? newIterator.next() : null;
+        var i = 0;
+        while (i < this.tokens.length || newEntry != null) {
+            final var comparison = i >= this.tokens.length ? 1
+                    : newEntry == null ? -1 : this.tokens[i].compareTo(newEntry.getKey());
+            final String token;
+            int[] taskPostings = new int[0];
+            if (comparison <= 0) {
+                token = this.tokens[i];
+                taskPostings = Arrays.stream(this.postings[i]).filter(task -> !changed.get(task)).toArray();
+                i++;
+            } else {
+                token = newEntry.getKey();
+            }
+            if (comparison >= 0) {
+                final var added = newEntry.getValue().toArray();
+                taskPostings = Arrays.copyOf(taskPostings, taskPostings.length + added.length);
+                System.arraycopy(added, 0, taskPostings, taskPostings.length - added.length, added.length);
+                Arrays.sort(taskPostings);
+                newEntry = newIterator.hasNext() ? newIterator.next() : null;
+            }
+            if (taskPostings.length > 0) {
+                mergedTokens.add(token);
+                mergedPostings.add(taskPostings);
+            }
+        }
+        return new TaskSearchIndex(mergedTokens.toArray(String[]::new), mergedPostings.toArray(int[][]::new),
+                this.ids);
+    }
+
+    /**
+     * Search the index. Every word in the query must be the prefix of a token in the task (case-insensitive).
+     *
+     * @param query The query to search for
+     * @return The sorted ids of the matching tasks, or {@code null} if the query matches everything
+     */
+    @Nullable
+    long[] search(@Nonnull String query) {
+        BitSet matches = null;
+        for (var word : split(query)) {
+            final var wordMatches = this.prefixMatches(word);
+            if (matches == null) {
+                matches = wordMatches;
+            } else {
+                matches.and(wordMatches);
+            }
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+        if (matches == null) {
+            return null;
+        }
+        final var found = new long[matches.cardinality()];
+        var index = 0;
+        for (var i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            found[index++] = this.ids[i];
+        }
+        Arrays.sort(found);
+        return found;
+    }
+
+    /**
+     * Get the tasks that have a token starting with a prefix
+     *
+     * @param prefix The prefix
+     * @return The task indexes
+     */
+    private BitSet prefixMatches(String prefix) {
+        final var matches = new BitSet(this.ids.length);
+        var start = Arrays.binarySearch(this.tokens, prefix);
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (var i = start; i < this.tokens.length && this.tokens[i].startsWith(prefix); i++) {
+            for (int task : this.postings[i]) {
+                matches.set(task);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Get the index of a task
+     *
+     * @param id The task id
+     * @return The task index, or {@code -1} if the task is not in this index
+     */
+    private int position(long id) {
+        if (this.sorted) {
+            final var index = Arrays.binarySearch(this.ids, id);
+            return index >= 0 ? index : -1;
+        }
+        for (var i = 0; i < this.ids.length; i++) {
+            if (this.ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void addTokens(Map<String, IntList> tokenMap, int i, TaskClusteredPoint task,
+            Function<TaskClusteredPoint, String> parentName) {
+        addTokens(tokenMap, i, TaskListPanel.getTitle(task));
+        addTokens(tokenMap, i, parentName.apply(task));
+        if (task.status() != null) {
+            addTokens(tokenMap, i, task.status().name());
+        }
+        if (task.priority() >= 0 && task.priority() < Priority.values().length) {
+            addTokens(tokenMap, i, Priority.values()[task.priority()].name());
+        }
+        addTokens(tokenMap, i, Long.toString(task.id()));
+    }
+
+    private static void addTokens(Map<String, IntList> tokenMap, int task, @Nullable String text) {
+        if (text != null) {
+            for (var token : split(text)) {
+                tokenMap.computeIfAbsent(token, ignored -> new IntList()).add(task);
+            }
+        }
+    }
+
+    private static List<String> split(String text) {
+        final var split = SPLIT.split(text.toLowerCase(Locale.ROOT));
+        final var words = new ArrayList<String>(split.length);
+        for (var word : split) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * A minimal growable int list, to avoid boxing in the postings
+     */
+    private static final class IntList {
+        private int[] values = new int[2];
+        private int size;
+
+        void add(int value) {
+            // Tasks are added in order, so a task that has the same token twice is the last value
+            if (this.size > 0 && this.values[this.size - 1] == value) {
+                return;
+            }
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(this.values, this.size);
+        }
+    }
+}
@@ -3,12 +3,17 @@ package org.openstreetmap.josm.plugins.maproulette.gui.task.list;
 
 import static org.openstreetmap.josm.tools.I18n.tr;
 
+import java.io.IOException;
 import java.io.Serial;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 
 import javax.swing.SwingUtilities;
@@ -21,7 +26,11 @@ import org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Identifier;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
 import org.openstreetmap.josm.plugins.maproulette.api.model.TaskClusteredPoint;
+import org.openstreetmap.josm.plugins.maproulette.api_caching.ChallengeCache;
 import org.openstreetmap.josm.plugins.maproulette.gui.layer.MapRouletteClusteredPointLayer;
+import org.openstreetmap.josm.tools.Logging;
+
+import jakarta.annotation.Nullable;
 
 /**
  * A model for {@link Task} objects. This class implements many of the same semantics as {@link List}.
@@ -34,6 +43,23 @@ final class TaskTableModel extends AbstractTableModel
      * The list of downloaded tasks
      */
     private final List<TaskClusteredPoint> taskList = new ArrayList<>();
+    /**
+     * The task ids, in model order. The model is sorted by id and has one row per id, so this is used to look up
+     * rows by id.
+     */
+    private long[] ids = new long[0];
+    /**
+     * The precomputed sort keys for the tasks, by task id
+     */
+    private final Map<Long, SortKey> sortKeys = new HashMap<>();
+    /**
+     * The known challenge names, by challenge id. This is also used to share the name strings between rows.
+     */
+    private final Map<Long, String> challengeNames = new HashMap<>();
+    /**
+     * The challenges whose names are currently being fetched
+     */
+    private final Set<Long> pendingChallenges = new HashSet<>();
 
     @Override
     public int getRowCount() {
@@ -70,6 +96,15 @@ final class TaskTableModel extends AbstractTableModel
         return this.taskList.get(index);
     }
 
+    /**
+     * Get a copy of the current tasks, for use off of the EDT
+     *
+     * @return The tasks, in model order
+     */
+    List<TaskClusteredPoint> snapshot() {
+        return List.copyOf(this.taskList);
+    }
+
     @Override
     public void layerAdded(LayerManager.LayerAddEvent e) {
         if (e.getAddedLayer()instanceof MapRouletteClusteredPointLayer layer) {
@@ -94,10 +129,20 @@ final class TaskTableModel extends AbstractTableModel
     @Override
     public void accept(Map<Long, TaskClusteredPoint> longClusteredPointMap) {
         if (SwingUtilities.isEventDispatchThread()) {
+            // A task can be in several layers; keep one row per id, preferring the full task, so ids stay unique
+            final var byId = new TreeMap<Long, TaskClusteredPoint>();
+            for (var layer : MainApplication.getLayerManager().getLayersOfType(MapRouletteClusteredPointLayer.class)) {
+                for (var task : layer.getTasks()) {
+                    byId.merge(task.id(), task, (old, current) -> old instanceof Task ? old : current);
+                }
+            }
             this.taskList.clear();
-            this.taskList.addAll(MainApplication.getLayerManager().getLayersOfType(MapRouletteClusteredPointLayer.class)
-                    .stream().map(MapRouletteClusteredPointLayer::getTasks).flatMap(Collection::stream)
-                    .sorted(Comparator.comparingLong(Identifier::id)).toList());
+            this.taskList.addAll(byId.values());
+            this.ids = this.taskList.stream().mapToLong(Identifier::id).toArray();
+            this.sortKeys.clear();
+            for (var task : this.taskList) {
+                this.sortKeys.put(task.id(), this.createSortKey(task));
+            }
             this.fireTableDataChanged();
         } else {
             GuiHelper.runInEDT(() -> accept(longClusteredPointMap));
@@ -105,12 +150,157 @@ final class TaskTableModel extends AbstractTableModel
     }
 
     /**
-     * Get the index of an object
+     * Get the sort key for a task. This never blocks; if the challenge name is not known yet, the key has a
+     * {@code null} parent name and sorts after the known challenges.
+     *
+     * @param point The task to get the key for
+     * @return The sort key
+     */
+    SortKey getSortKey(TaskClusteredPoint point) {
+        final var key = this.sortKeys.get(point.id());
+        return key != null ? key : this.createSortKey(point);
+    }
+
+    /**
+     * Get the name of the parent challenge of a task
+     *
+     * @param point The task
+     * @return The challenge name, or {@code null} if it is not known (yet)
+     */
+    String getParentName(TaskClusteredPoint point) {
+        return this.getSortKey(point).parentName();
+    }
+
+    /**
+     * Get a copy of the known challenge names, for use off of the EDT
+     *
+     * @return The challenge names by challenge id
+     */
+    Map<Long, String> challengeNames() {
+        return Map.copyOf(this.challengeNames);
+    }
+
+    /**
+     * Create the sort key for a task, and start resolving the challenge name if it is not known
+     *
+     * @param point The task
+     * @return The sort key
+     */
+    private SortKey createSortKey(TaskClusteredPoint point) {
+        final String parentName;
+        final String title;
+        if (point instanceof ClusteredPoint clusteredPoint) {
+            parentName = this.challengeNames.computeIfAbsent(point.parentId(), id -> clusteredPoint.parentName());
+            title = clusteredPoint.title();
+        } else if (point instanceof Task task) {
+            parentName = this.challengeNames.get(point.parentId());
+            if (parentName == null) {
+                this.resolveChallengeName(point.parentId());
+            }
+            title = task.name();
+        } else {
+            throw new IllegalArgumentException("Unknown class type: " + point.getClass());
+        }
+        return new SortKey(parentName, point.parentId(), point.priority(), title, point.id());
+    }
+
+    /**
+     * Fetch a challenge name in the background, and update the affected rows once it is known
+     *
+     * @param challenge The challenge id
+     */
+    private void resolveChallengeName(long challenge) {
+        if (this.pendingChallenges.add(challenge)) {
+            MainApplication.worker.execute(() -> {
+                String name;
+                try {
+                    name = ChallengeCache.challenge(challenge).name();
+                } catch (IOException ioException) {
+                    Logging.warn(ioException);
+                    name = null;
+                }
+                final var resolved = name;
+                GuiHelper.runInEDT(() -> this.challengeNameResolved(challenge, resolved));
+            });
+        }
+    }
+
+    /**
+     * Update the rows for a challenge once the name is known
+     *
+     * @param challenge The challenge id
+     * @param name      The challenge name, or {@code null} if it could not be fetched
+     */
+    private void challengeNameResolved(long challenge, String name) {
+        this.pendingChallenges.remove(challenge);
+        if (name == null) {
+            return;
+        }
+        final var parentName = this.challengeNames.computeIfAbsent(challenge, id -> name);
+        var first = -1;
+        var last = -1;
+        for (var i = 0; i < this.taskList.size(); i++) {
+            final var task = this.taskList.get(i);
+            if (task.parentId() == challenge) {
+                final var key = this.sortKeys.get(task.id());
+                if (key != null) {
+                    this.sortKeys.put(task.id(),
+                            new SortKey(parentName, key.parentId(), key.priority(), key.title(), key.id()));
+                }
+                first = first < 0 ? i : first;
+                last = i;
+            }
+        }
+        if (first >= 0) {
+            // The sorter is set to sort on updates, so this moves the rows to their final position
+            this.fireTableRowsUpdated(first, last);
+        }
+    }
+
+    /**
+     * Get the index of an object. This looks the object up by id, so an older copy of a task finds the current row.
      *
      * @param clusteredPoint The object to get the index of
-     * @return The list index of the point
+     * @return The list index of the point, or {@code -1} if it is not in the model
      */
     public int indexOf(TaskClusteredPoint clusteredPoint) {
-        return this.taskList.indexOf(clusteredPoint);
+        return this.indexOf(clusteredPoint.id());
+    }
+
+    /**
+     * Get the index of a task
+     *
+     * @param id The task id
+     * @return The list index of the task, or {@code -1} if it is not in the model
+     */
+    public int indexOf(long id) {
+        final var index = Arrays.binarySearch(this.ids, id);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * A precomputed sort key, so that sorting does not need to look anything up
+     *
+     * @param parentName The parent challenge name, or {@code null} if it is not known yet
+     * @param parentId   The parent challenge id
+     * @param priority   The task priority
+     * @param title      The task title
+     * @param id         The task id
+     */
+    record SortKey(@Nullable String parentName, long parentId, int priority, @Nullable String title, long id)
+            implements Comparable<SortKey> {
+        /**
+         * Tasks with a pending challenge name sort after the known names, grouped by challenge
+         */
+        private static final Comparator<SortKey> COMPARATOR = Comparator
+                .comparing(SortKey::parentName, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparingLong(SortKey::parentId).thenComparingInt(SortKey::priority)
+                .thenComparing(SortKey::title, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingLong(SortKey::id);
+
+        @Override
+        public int compareTo(SortKey other) {
+            return COMPARATOR.compare(this, other);
+        }
     }
 }
@@ -103,16 +103,15 @@ public abstract class DefaultPanelListCellRenderer<T> extends JPanel implements
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This does not change the row height, since doing that while painting causes the table to lay out again. Tables
+     * that need different row heights should set them when the rows change (e.g., when the selection changes).
+     */
     @Override
     public final Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
             boolean hasFocus, int row, int column) {
-        final var component = performRendererSetup(value, isSelected, hasFocus);
-        final var currentRowHeight = table.getRowHeight(row);
-        final var newRowHeight = component.getPreferredSize().height;
-        // Avoid calls to revalidate whenever possible (aka, don't set the row height if it hasn't changed)
-        if (currentRowHeight != newRowHeight) {
-            table.setRowHeight(row, newRowHeight);
-        }
-        return component;
+        return performRendererSetup(value, isSelected, hasFocus);
     }
 }
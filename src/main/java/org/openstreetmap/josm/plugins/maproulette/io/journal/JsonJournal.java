@@ -0,0 +1,132 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.io.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObject;
+
+/**
+ * An append-only journal of JSON objects, one object per line. A partially written last line (e.g., from a crash) is
+ * skipped when reading. Journals without a file (e.g., when there is no cache directory) keep nothing.
+ */
+public final class JsonJournal {
+    @Nullable
+    private final File file;
+    /**
+     * The number of entries in the file. Guarded by this.
+     */
+    private int entries;
+
+    /**
+     * Create a new journal
+     *
+     * @param file The file for the journal, or {@code null} to not keep anything
+     */
+    public JsonJournal(@Nullable File file) {
+        this.file = file;
+    }
+
+    /**
+     * Create a journal in the MapRoulette cache directory
+     *
+     * @param name The file name
+     * @return The journal
+     */
+    @Nonnull
+    public static JsonJournal inCacheDirectory(String name) {
+        final var dirs = Config.getDirs();
+        if (dirs == null) {
+            return new JsonJournal(null);
+        }
+        return new JsonJournal(new File(new File(dirs.getCacheDirectory(true), "maproulette"), name));
+    }
+
+    /**
+     * Read the entries in the journal
+     *
+     * @return The entries, in the order they were written
+     * @throws IOException if the journal could not be read
+     */
+    @Nonnull
+    public synchronized List<JsonObject> read() throws IOException {
+        final var read = new ArrayList<JsonObject>();
+        if (this.file != null && this.file.isFile()) {
+            for (var line : Files.readAllLines(this.file.toPath(), StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try (var jsonReader = Json.createReader(new StringReader(line))) {
+                    read.add(jsonReader.readObject());
+                } catch (JsonException jsonException) {
+                    Logging.warn("Skipping unreadable journal entry in " + this.file);
+                    Logging.trace(jsonException);
+                }
+            }
+        }
+        this.entries = read.size();
+        return read;
+    }
+
+    /**
+     * Add an entry to the end of the journal
+     *
+     * @param entry The entry to add
+     * @throws IOException if the entry could not be written
+     */
+    public synchronized void append(JsonObject entry) throws IOException {
+        if (this.file == null) {
+            return;
+        }
+        Files.createDirectories(this.file.getParentFile().toPath());
+        // Start with a newline in case the last write was cut off
+        Files.writeString(this.file.toPath(), '\n' + entry.toString(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.entries++;
+    }
+
+    /**
+     * Replace the journal with new entries. Use this to drop entries that are no longer needed.
+     *
+     * @param newEntries The entries to keep
+     * @throws IOException if the journal could not be written
+     */
+    public synchronized void rewrite(Collection<JsonObject> newEntries) throws IOException {
+        if (this.file == null) {
+            return;
+        }
+        Files.createDirectories(this.file.getParentFile().toPath());
+        final var temporary = new File(this.file.getParentFile(), this.file.getName() + ".tmp").toPath();
+        final var builder = new StringBuilder();
+        for (var entry : newEntries) {
+            builder.append(entry).append('\n');
+        }
+        Files.writeString(temporary, builder, StandardCharsets.UTF_8);
+        Files.move(temporary, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.entries = newEntries.size();
+    }
+
+    /**
+     * Get the number of entries in the journal
+     *
+     * @return The number of entries read, appended, or rewritten
+     */
+    public synchronized int size() {
+        return this.entries;
+    }
+}
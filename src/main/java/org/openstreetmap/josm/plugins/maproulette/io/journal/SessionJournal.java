@@ -0,0 +1,375 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.io.journal;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.html.HTML;
+import javax.swing.text.html.Option;
+
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
+import org.openstreetmap.josm.plugins.maproulette.api.UnauthorizedException;
+import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
+import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
+import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedObjects;
+import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedTask;
+import org.openstreetmap.josm.plugins.maproulette.io.lock.LockKeepAlive;
+import org.openstreetmap.josm.plugins.maproulette.util.NetworkExecutor;
+import org.openstreetmap.josm.tools.Logging;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+
+/**
+ * Keeps the locked and modified tasks in {@link ModifiedObjects} on disk, so that they can be restored if JOSM exits
+ * without releasing them (e.g., a crash). Each change is appended to a journal; the journal is rewritten with just the
+ * current state once it gets large.
+ */
+public final class SessionJournal {
+    private static final String TYPE = "type";
+    private static final String TASK = "task";
+    private static final String TIME = "time";
+    private static final String STATUS = "status";
+    private static final String COMMENT = "comment";
+    private static final String TAGS = "tags";
+    private static final String REVIEW_REQUESTED = "reviewRequested";
+    private static final String COMPLETION_RESPONSES = "completionResponses";
+    private static final String TYPE_LOCK = "lock";
+    private static final String TYPE_UNLOCK = "unlock";
+    private static final String TYPE_MODIFY = "modify";
+    private static final String TYPE_UNMODIFY = "unmodify";
+    /**
+     * Entries that could not be restored are tried again on the next start, until they are this old
+     */
+    private static final Duration MAX_AGE = Duration.ofDays(7);
+    /**
+     * The minimum number of journal entries before the journal is rewritten
+     */
+    private static final int COMPACT_MINIMUM = 256;
+    private static final JsonJournal JOURNAL = JsonJournal.inCacheDirectory("session.jsonl");
+    private static final Consumer<ModifiedObjects.Snapshot> LISTENER = SessionJournal::changed;
+    /**
+     * Entries from the last session that have not been restored yet. These are filled before the restore starts, so
+     * that a compaction during the restore keeps them. Guarded by the class lock.
+     */
+    private static final List<JsonObject> UNRESOLVED = new ArrayList<>();
+    /**
+     * The last snapshot written to the journal. Guarded by the class lock.
+     */
+    private static ModifiedObjects.Snapshot previous;
+
+    /**
+     * Hide the constructor
+     */
+    private SessionJournal() {
+        // Hide constructor
+    }
+
+    /**
+     * Restore the tasks from the last session in the background, and start recording changes
+     */
+    public static void start() {
+        final List<JsonObject> entries;
+        synchronized (SessionJournal.class) {
+            if (previous != null) {
+                return;
+            }
+            List<JsonObject> read;
+            try {
+                read = JOURNAL.read();
+            } catch (IOException ioException) {
+                Logging.error(ioException);
+                read = List.of();
+            }
+            entries = replay(read);
+            UNRESOLVED.addAll(entries);
+            previous = ModifiedObjects.snapshot();
+            ModifiedObjects.addListener(LISTENER);
+        }
+        if (!entries.isEmpty()) {
+            MainApplication.worker.execute(() -> {
+                try {
+                    restore(entries);
+                } catch (RuntimeException exception) {
+                    Logging.error(exception);
+                }
+            });
+        }
+    }
+
+    /**
+     * Find the tasks that were locked or modified at the end of a session
+     *
+     * @param entries The journal entries, in the order they were written
+     * @return The last lock entry for each locked task, followed by the last modify entry for each modified task
+     */
+    @Nonnull
+    static List<JsonObject> replay(Iterable<JsonObject> entries) {
+        final var locks = new TreeMap<Long, JsonObject>();
+        final var modifications = new TreeMap<Long, JsonObject>();
+        for (var entry : entries) {
+            final var id = entry.getJsonNumber(TASK).longValue();
+            switch (entry.getString(TYPE, "")) {
+            case TYPE_LOCK -> locks.put(id, entry);
+            case TYPE_UNLOCK -> locks.remove(id);
+            case TYPE_MODIFY -> modifications.put(id, entry);
+            case TYPE_UNMODIFY -> modifications.remove(id);
+            default -> Logging.warn("Unknown session entry: " + entry);
+            }
+        }
+        final var replayed = new ArrayList<JsonObject>(locks.size() + modifications.size());
+        replayed.addAll(locks.values());
+        replayed.addAll(modifications.values());
+        return replayed;
+    }
+
+    /**
+     * Restore the tasks from the last session. Locks are refreshed (or taken again, if they expired), and modified
+     * tasks are fetched again, all at the same time.
+     *
+     * @param entries The replayed journal entries from the last session
+     */
+    private static void restore(List<JsonObject> entries) {
+        final var locks = new TreeMap<Long, JsonObject>();
+        final var modifications = new TreeMap<Long, JsonObject>();
+        for (var entry : entries) {
+            final var id = entry.getJsonNumber(TASK).longValue();
+            if (TYPE_LOCK.equals(entry.getString(TYPE))) {
+                locks.put(id, entry);
+            } else {
+                modifications.put(id, entry);
+            }
+        }
+        final var now = Instant.now();
+        final var lockExpiry = now.minus(LockKeepAlive.getLockTimeout());
+        final var lockFutures = new LinkedHashMap<JsonObject, CompletableFuture<Task>>();
+        for (var lock : locks.values()) {
+            final var id = lock.getJsonNumber(TASK).longValue();
+            final var stillLocked = Instant.parse(lock.getString(TIME)).isAfter(lockExpiry);
+            lockFutures.put(lock, NetworkExecutor.supply(() -> relock(id, stillLocked)));
+        }
+        final var modifiedFutures = new LinkedHashMap<JsonObject, CompletableFuture<Task>>();
+        for (var modification : modifications.values()) {
+            final var id = modification.getJsonNumber(TASK).longValue();
+            // Locked tasks are fetched by refreshing or taking the lock
+            if (!locks.containsKey(id)) {
+                modifiedFutures.put(modification, NetworkExecutor.supply(() -> TaskAPI.get(id)));
+            }
+        }
+        final var tasks = new TreeMap<Long, Task>();
+        for (var entry : lockFutures.entrySet()) {
+            final var task = join(entry.getValue());
+            if (task != null) {
+                tasks.put(task.id(), task);
+                ModifiedObjects.addLockedTask(task, now);
+                resolved(entry.getKey());
+            }
+        }
+        for (var entry : modifiedFutures.entrySet()) {
+            final var task = join(entry.getValue());
+            if (task != null) {
+                tasks.put(task.id(), task);
+            }
+        }
+        for (var modification : modifications.values()) {
+            final var task = tasks.get(modification.getJsonNumber(TASK).longValue());
+            if (task != null) {
+                ModifiedObjects.addModifiedTask(toModifiedTask(task, modification));
+                resolved(modification);
+            }
+        }
+        final int unresolved;
+        synchronized (SessionJournal.class) {
+            UNRESOLVED.removeIf(entry -> !entry.containsKey(TIME)
+                    || Instant.parse(entry.getString(TIME)).plus(MAX_AGE).isBefore(now));
+            unresolved = UNRESOLVED.size();
+            compact();
+        }
+        Logging.info("Restored {0} MapRoulette tasks from the last session; {1} could not be restored", tasks.size(),
+                unresolved);
+    }
+
+    /**
+     * Refresh a lock from the last session. If the lock expired on the server anyway, the task is started again.
+     *
+     * @param id          The task id
+     * @param stillLocked {@code true} if the lock should not have expired yet
+     * @return The locked task
+     * @throws IOException if the task could not be locked
+     */
+    static Task relock(long id, boolean stillLocked) throws IOException {
+        if (stillLocked) {
+            try {
+                return TaskAPI.refreshLock(id);
+            } catch (UnauthorizedException unauthorizedException) {
+                throw unauthorizedException;
+            } catch (IOException | RuntimeException exception) {
+                Logging.trace(exception);
+            }
+        }
+        return TaskAPI.start(id);
+    }
+
+    /**
+     * Mark an entry from the last session as restored
+     *
+     * @param entry The entry
+     */
+    private static synchronized void resolved(JsonObject entry) {
+        UNRESOLVED.remove(entry);
+    }
+
+    @Nullable
+    private static Task join(CompletableFuture<Task> future) {
+        try {
+            return future.join();
+        } catch (CompletionException completionException) {
+            Logging.warn(completionException.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Record the changes since the last snapshot
+     *
+     * @param snapshot The new snapshot
+     */
+    private static synchronized void changed(ModifiedObjects.Snapshot snapshot) {
+        // Listeners can be called out of order when several threads change the objects
+        if (previous == null || snapshot.version() <= previous.version()) {
+            return;
+        }
+        final var entries = new ArrayList<JsonObject>();
+        for (var task : snapshot.getLockedTasks()) {
+            final var time = snapshot.getLockTime(task.id());
+            if (time != null && !time.equals(previous.getLockTime(task.id()))) {
+                entries.add(lockEntry(task.id(), time));
+            }
+        }
+        for (var task : previous.getLockedTasks()) {
+            if (snapshot.getLockedTask(task.id()) == null) {
+                entries.add(Json.createObjectBuilder().add(TYPE, TYPE_UNLOCK).add(TASK, task.id()).build());
+            }
+        }
+        for (var modifiedTask : snapshot.getModifiedTasks()) {
+            if (modifiedTask != previous.getModifiedTask(modifiedTask.task().id())) {
+                entries.add(modifyEntry(modifiedTask, Instant.now()));
+            }
+        }
+        for (var modifiedTask : previous.getModifiedTasks()) {
+            if (snapshot.getModifiedTask(modifiedTask.task().id()) == null) {
+                entries.add(Json.createObjectBuilder().add(TYPE, TYPE_UNMODIFY).add(TASK, modifiedTask.task().id())
+                        .build());
+            }
+        }
+        previous = snapshot;
+        try {
+            for (var entry : entries) {
+                JOURNAL.append(entry);
+            }
+        } catch (IOException ioException) {
+            Logging.error(ioException);
+        }
+        if (JOURNAL.size() > Math.max(COMPACT_MINIMUM,
+                4 * (snapshot.getLockedTasks().size() + snapshot.getModifiedTasks().size() + UNRESOLVED.size()))) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrite the journal with the current state. The caller must hold the class lock.
+     */
+    private static void compact() {
+        final var snapshot = ModifiedObjects.snapshot();
+        try {
+            JOURNAL.rewrite(compacted(UNRESOLVED, snapshot, Instant.now()));
+            if (previous != null && snapshot.version() > previous.version()) {
+                previous = snapshot;
+            }
+        } catch (IOException ioException) {
+            Logging.error(ioException);
+        }
+    }
+
+    /**
+     * Get the journal entries needed to restore a session
+     *
+     * @param unresolved The entries from the last session that have not been restored
+     * @param snapshot   The current state
+     * @param now        The time for the entries without a lock time
+     * @return The entries for the session
+     */
+    @Nonnull
+    static List<JsonObject> compacted(Collection<JsonObject> unresolved, ModifiedObjects.Snapshot snapshot,
+            Instant now) {
+        final var entries = new ArrayList<>(unresolved);
+        for (var task : snapshot.getLockedTasks()) {
+            final var time = snapshot.getLockTime(task.id());
+            entries.add(lockEntry(task.id(), time != null ? time : now));
+        }
+        for (var modifiedTask : snapshot.getModifiedTasks()) {
+            entries.add(modifyEntry(modifiedTask, now));
+        }
+        return entries;
+    }
+
+    @Nonnull
+    private static JsonObject lockEntry(long id, Instant time) {
+        return Json.createObjectBuilder().add(TYPE, TYPE_LOCK).add(TASK, id).add(TIME, time.toString()).build();
+    }
+
+    @Nonnull
+    private static JsonObject modifyEntry(ModifiedTask modifiedTask, Instant time) {
+        final var builder = Json.createObjectBuilder().add(TYPE, TYPE_MODIFY).add(TASK, modifiedTask.task().id())
+                .add(TIME, time.toString()).add(STATUS, modifiedTask.status().name());
+        if (modifiedTask.comment() != null) {
+            builder.add(COMMENT, modifiedTask.comment());
+        }
+        if (modifiedTask.tags() != null) {
+            builder.add(TAGS, modifiedTask.tags());
+        }
+        if (modifiedTask.reviewRequested() != null) {
+            builder.add(REVIEW_REQUESTED, modifiedTask.reviewRequested());
+        }
+        if (modifiedTask.completionResponses() != null) {
+            final var responses = Json.createObjectBuilder();
+            for (Map.Entry<String, Option> entry : modifiedTask.completionResponses().entrySet()) {
+                responses.add(entry.getKey(), entry.getValue().getValue());
+            }
+            builder.add(COMPLETION_RESPONSES, responses);
+        }
+        return builder.build();
+    }
+
+    @Nonnull
+    private static ModifiedTask toModifiedTask(Task task, JsonObject entry) {
+        Map<String, Option> completionResponses = null;
+        if (entry.containsKey(COMPLETION_RESPONSES)) {
+            completionResponses = new LinkedHashMap<>();
+            final var responses = entry.getJsonObject(COMPLETION_RESPONSES);
+            for (var name : responses.keySet()) {
+                // Only the option value is sent to the server, or used to reselect the option
+                final var attributes = new SimpleAttributeSet();
+                attributes.addAttribute(HTML.Attribute.VALUE, responses.getString(name));
+                completionResponses.put(name, new Option(attributes));
+            }
+        }
+        return new ModifiedTask(task, TaskStatus.valueOf(entry.getString(STATUS)), entry.getString(COMMENT, null),
+                entry.getString(TAGS, null),
+                entry.containsKey(REVIEW_REQUESTED) ? entry.getBoolean(REVIEW_REQUESTED) : null, completionResponses);
+    }
+}
@@ -0,0 +1,192 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.io.lock;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
+import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
+import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedObjects;
+import org.openstreetmap.josm.plugins.maproulette.util.ExceptionDialogUtil;
+import org.openstreetmap.josm.plugins.maproulette.util.NetworkExecutor;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Keeps the task locks in {@link ModifiedObjects} from expiring on the server. Locks are refreshed together once they
+ * are close to expiring; if refreshing fails, the next check waits longer.
+ */
+public final class LockKeepAlive {
+    /**
+     * How long the server keeps a lock, in minutes
+     */
+    private static final IntegerProperty LOCK_TIMEOUT = new IntegerProperty("maproulette.lock.timeout", 60);
+    /**
+     * How long before a lock expires it should be refreshed
+     */
+    private static final Duration REFRESH_MARGIN = Duration.ofMinutes(15);
+    /**
+     * The time between checks, in seconds
+     */
+    private static final long CHECK_INTERVAL = TimeUnit.MINUTES.toSeconds(1);
+    /**
+     * The maximum time between checks when refreshing fails, in seconds. This must be well under the refresh margin.
+     */
+    private static final long MAX_CHECK_INTERVAL = TimeUnit.MINUTES.toSeconds(5);
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            Utils.newThreadFactory("maproulette-lock-keep-alive-%d", Thread.NORM_PRIORITY));
+    /**
+     * The next check, if any. Guarded by the class lock.
+     */
+    private static ScheduledFuture<?> next;
+    /**
+     * The number of checks in a row where a refresh failed. Only used on the scheduler thread.
+     */
+    private static int failures;
+
+    /**
+     * Hide the constructor
+     */
+    private LockKeepAlive() {
+        // Hide constructor
+    }
+
+    /**
+     * Start refreshing locks
+     */
+    public static synchronized void start() {
+        if (next == null) {
+            next = SCHEDULER.schedule(LockKeepAlive::check, CHECK_INTERVAL, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stop refreshing locks
+     */
+    public static synchronized void stop() {
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+    }
+
+    /**
+     * Get how long the server keeps a lock
+     *
+     * @return The lock timeout
+     */
+    public static Duration getLockTimeout() {
+        return Duration.ofMinutes(LOCK_TIMEOUT.get());
+    }
+
+    private static void check() {
+        var failed = false;
+        try {
+            failed = refreshExpiring();
+        } catch (RuntimeException exception) {
+            Logging.error(exception);
+            failed = true;
+        }
+        failures = failed ? failures + 1 : 0;
+        final var delay = Math.min(MAX_CHECK_INTERVAL, CHECK_INTERVAL << Math.min(failures, 10));
+        synchronized (LockKeepAlive.class) {
+            if (next != null) {
+                next = SCHEDULER.schedule(LockKeepAlive::check, delay, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Refresh the locks that will expire soon
+     *
+     * @return {@code true} if a refresh failed
+     */
+    private static boolean refreshExpiring() {
+        final var refreshBefore = Instant.now().minus(getLockTimeout()).plus(REFRESH_MARGIN);
+        final var snapshot = ModifiedObjects.snapshot();
+        final List<Task> expiring = snapshot.getLockedTasks().stream().filter(task -> {
+            final var lockTime = snapshot.getLockTime(task.id());
+            return lockTime == null || lockTime.isBefore(refreshBefore);
+        }).toList();
+        if (expiring.isEmpty()) {
+            return false;
+        }
+        final var futures = new ArrayList<CompletableFuture<Task>>(expiring.size());
+        for (var task : expiring) {
+            futures.add(NetworkExecutor.supply(() -> TaskAPI.refreshLock(task.id())));
+        }
+        final var refreshed = new ArrayList<Task>(futures.size());
+        var failed = false;
+        for (var future : futures) {
+            try {
+                refreshed.add(future.join());
+            } catch (CompletionException completionException) {
+                Logging.warn(completionException.getCause());
+                failed = true;
+            }
+        }
+        final var now = Instant.now();
+        for (var task : refreshed) {
+            // The task may have been unlocked while the lock was being refreshed
+            ModifiedObjects.refreshLockedTask(task, now);
+        }
+        return failed;
+    }
+
+    /**
+     * Release all the locks at once. This stops refreshing locks. Released tasks are no longer locked in
+     * {@link ModifiedObjects}.
+     *
+     * @param timeout How long to wait for the server
+     */
+    public static void releaseAll(Duration timeout) {
+        stop();
+        final var futures = new ArrayList<CompletableFuture<Task>>();
+        for (var task : ModifiedObjects.getLockedTasks()) {
+            futures.add(NetworkExecutor.supply(() -> TaskAPI.release(task.id()))
+                    .whenComplete((released, throwable) -> {
+                        if (throwable == null) {
+                            ModifiedObjects.removeLockedTask(task);
+                        }
+                    }));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(timeout.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        } catch (ExecutionException executionException) {
+            // Each failure is explained below
+            Logging.trace(executionException);
+        } catch (TimeoutException timeoutException) {
+            Logging.warn("Timed out releasing MapRoulette task locks");
+            Logging.trace(timeoutException);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            Logging.trace(interruptedException);
+        }
+        for (var future : futures) {
+            if (future.isCompletedExceptionally()) {
+                try {
+                    future.join();
+                } catch (CompletionException completionException) {
+                    if (completionException.getCause() instanceof IOException ioException) {
+                        ExceptionDialogUtil.explainException(ioException);
+                    } else {
+                        Logging.error(completionException);
+                    }
+                }
+            }
+        }
+    }
+}
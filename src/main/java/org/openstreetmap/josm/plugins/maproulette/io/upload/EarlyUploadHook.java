@@ -5,51 +5,52 @@ import static org.openstreetmap.josm.plugins.maproulette.config.MapRouletteConfi
 import static org.openstreetmap.josm.plugins.maproulette.gui.task.current.CurrentTaskPanel.getSelections;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
+import java.awt.BorderLayout;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeSet;
-import java.util.function.Predicate;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.swing.JButton;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSeparator;
+import javax.swing.SwingUtilities;
 import javax.swing.text.html.HTMLDocument;
 
 import org.openstreetmap.josm.actions.upload.UploadHook;
 import org.openstreetmap.josm.data.APIDataSet;
 import org.openstreetmap.josm.data.osm.IPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.PrimitiveId;
-import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
 import org.openstreetmap.josm.data.osm.Tagged;
 import org.openstreetmap.josm.gui.ConditionalOptionPaneUtil;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.gui.widgets.JMultilineLabel;
-import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
 import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
-import org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
-import org.openstreetmap.josm.plugins.maproulette.api.model.TaskClusteredPoint;
 import org.openstreetmap.josm.plugins.maproulette.api_caching.ChallengeCache;
+import org.openstreetmap.josm.plugins.maproulette.api_caching.TaskCache;
 import org.openstreetmap.josm.plugins.maproulette.data.TaskPrimitives;
 import org.openstreetmap.josm.plugins.maproulette.gui.MRGuiHelper;
 import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedObjects;
 import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedTask;
 import org.openstreetmap.josm.plugins.maproulette.gui.TagChangeTable;
-import org.openstreetmap.josm.plugins.maproulette.gui.layer.MapRouletteClusteredPointLayer;
 import org.openstreetmap.josm.plugins.maproulette.util.ExceptionDialogUtil;
+import org.openstreetmap.josm.plugins.maproulette.util.NetworkExecutor;
+import org.openstreetmap.josm.tools.Destroyable;
 import org.openstreetmap.josm.tools.GBC;
 import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.Utils;
@@ -58,29 +59,31 @@ import org.openstreetmap.josm.tools.bugreport.BugReport;
 /**
  * An early upload hook for setting the changeset tags (for review by user)
  */
-public final class EarlyUploadHook implements UploadHook {
+public final class EarlyUploadHook implements UploadHook, Destroyable {
     /**
      * The base pref key for asking the user if a task is finished
      */
     static final String PREF_CHECK_IF_FINISHED = "maproulette.check_if_finished";
-    private static final int MAX_LONG_STRING_LENGTH = Long.toString(Long.MAX_VALUE).length();
     /**
-     * The base number predicate
+     * Past this many changed primitives, the tag tables for a task are only created when the user asks for them
      */
-    private static final Predicate<String> NUMBER_PREDICATE = Pattern.compile("^\\d+$").asMatchPredicate();
+    private static final int MAX_EAGER_TABLES = 3;
     /**
-     * The predicate for simple primitive ids
+     * The tasks for each OSM primitive in the MapRoulette layers
      */
-    private static final Predicate<String> ID_PREDICATE = SimplePrimitiveId.ID_PATTERN.asMatchPredicate();
-    /**
-     * The pattern for ids with a version
-     */
-    private static final Pattern VERSION_PATTERN = Pattern
-            .compile("(n|node|w|way|r|rel|relation)[ /]?(\\d+)[ v@]?(\\d+)");
+    private final TaskPrimitiveIndex index = new TaskPrimitiveIndex();
+
     /**
-     * The pattern for id_type_version
+     * Create a new hook
      */
-    private static final Pattern ID_TYPE_VERSION_PATTERN = Pattern.compile("(\\d+)_(n|node|w|way|r|rel|relation)_\\d+");
+    public EarlyUploadHook() {
+        MainApplication.getLayerManager().addAndFireLayerChangeListener(this.index);
+    }
+
+    @Override
+    public void destroy() {
+        MainApplication.getLayerManager().removeAndFireLayerChangeListener(this.index);
+    }
 
     @Override
     public boolean checkUpload(APIDataSet apiDataSet) {
@@ -93,30 +96,35 @@ public final class EarlyUploadHook implements UploadHook {
     }
 
     private boolean realCheckUpload(APIDataSet apiDataSet) {
-        final var ids = apiDataSet.getPrimitives().stream().map(IPrimitive::getPrimitiveId).collect(Collectors.toSet());
-        //noinspection DataFlowIssue -- getPrimitiveId should stably return either a null value or a non-null value
-        final var tasks = MainApplication.getLayerManager().getLayersOfType(MapRouletteClusteredPointLayer.class)
-                .stream().map(MapRouletteClusteredPointLayer::getTasks).flatMap(Collection::stream)
-                .filter(p -> getPrimitiveId(p) != null).collect(Collectors.groupingBy(EarlyUploadHook::getPrimitiveId));
-        final var possiblyDone = ids.stream().filter(id -> tasks.containsKey(id.getUniqueId()))
-                .collect(Collectors.toMap(PrimitiveId::getUniqueId, p -> p));
+        // Built once, since every task panel looks up the uploaded primitives
+        final var uploaded = apiDataSet.getPrimitives().stream()
+                .collect(Collectors.toMap(IPrimitive::getPrimitiveId, p -> p, (first, second) -> first));
+        final var ids = uploaded.keySet();
+        final var uniqueIds = ids.stream().map(PrimitiveId::getUniqueId).collect(Collectors.toSet());
+        // Fetch all the candidates at once; the upload dialog is waiting on this
+        final var futures = this.index.getTasks(uniqueIds).stream().sorted()
+                .filter(id -> ModifiedObjects.getModifiedTask(id) == null)
+                .map(id -> NetworkExecutor.supply(() -> TaskCache.get(id))).toList();
         final var exceptionList = new ArrayList<Exception>();
-        final var possibleTasks = tasks.entrySet().stream().filter(t -> possiblyDone.containsKey(t.getKey()))
-                .map(Map.Entry::getValue).flatMap(Collection::stream).mapToLong(TaskClusteredPoint::id)
-                .filter(id -> ModifiedObjects.getModifiedTask(id) == null).mapToObj(id -> {
-                    try {
-                        return TaskAPI.get(id);
-                    } catch (IOException e) {
-                        Logging.trace(e);
-                        exceptionList.add(e);
-                    }
-                    return null;
-                }).filter(Objects::nonNull).collect(Collectors.toSet());
+        final var possibleTasks = new ArrayList<Task>(futures.size());
+        for (var future : futures) {
+            try {
+                possibleTasks.add(future.join());
+            } catch (CompletionException completionException) {
+                final var cause = completionException.getCause();
+                Logging.trace(cause);
+                if (cause instanceof Exception exception) {
+                    exceptionList.add(exception);
+                } else {
+                    throw completionException;
+                }
+            }
+        }
         ConditionalOptionPaneUtil.startBulkOperation(PREF_CHECK_IF_FINISHED);
         for (var task : possibleTasks) {
             if (ids.containsAll(TaskPrimitives.getPrimitiveIds(task))) {
                 final var descriptivePanel = GuiHelper
-                        .runInEDTAndWaitAndReturn(() -> createDescriptivePanel(task, apiDataSet));
+                        .runInEDTAndWaitAndReturn(() -> createDescriptivePanel(task, uploaded));
                 Objects.requireNonNull(descriptivePanel);
                 final var didFix = GuiHelper.runInEDTAndWaitAndReturn(
                         () -> ConditionalOptionPaneUtil.showConfirmationDialog(PREF_CHECK_IF_FINISHED,
@@ -136,82 +144,79 @@ public final class EarlyUploadHook implements UploadHook {
         return UploadHook.super.checkUpload(apiDataSet);
     }
 
-    private static Long getPrimitiveId(TaskClusteredPoint point) {
-        final String toParse;
-        if (point instanceof ClusteredPoint clusteredPoint) {
-            toParse = clusteredPoint.title();
-        } else if (point instanceof Task task) {
-            toParse = task.name();
-        } else {
-            throw new IllegalArgumentException("Unknown class type: " + point.getClass());
-        }
-        if (toParse.length() <= MAX_LONG_STRING_LENGTH + 6 && NUMBER_PREDICATE.test(toParse)
-                && toParse.endsWith("000000")) {
-            try {
-                final var challenge = ChallengeCache.challenge(point.parentId());
-                if (challenge.general().checkinComment() != null
-                        && challenge.general().checkinComment().contains("#AtlasCheck")) {
-                    return Long.parseLong(toParse.substring(0, toParse.length() - 6));
-                }
-            } catch (IOException ioException) {
-                ExceptionDialogUtil.explainException(ioException);
-            }
-        }
-        if (toParse.length() <= MAX_LONG_STRING_LENGTH && NUMBER_PREDICATE.test(toParse)) {
-            return Long.parseLong(toParse);
-        } else if (ID_PREDICATE.test(toParse)) {
-            return SimplePrimitiveId.fromString(toParse).getUniqueId();
-        }
-        final var versionMatcher = VERSION_PATTERN.matcher(toParse);
-        if (versionMatcher.matches()) {
-            return Long.parseLong(versionMatcher.group(2));
-        }
-        final var idTypeMatcher = ID_TYPE_VERSION_PATTERN.matcher(toParse);
-        if (idTypeMatcher.matches()) {
-            return Long.parseLong(idTypeMatcher.group(1));
-        } else if (point instanceof Task task) {
-            final var ids = TaskPrimitives.getPrimitiveIds(task);
-            if (ids.size() == 1) {
-                return ids.iterator().next().getUniqueId();
-            }
-        }
-        return null;
-    }
-
-    private static JComponent createDescriptivePanel(Task task, APIDataSet dataSet) {
+    /**
+     * Create the panel describing a task. The instructions must be the second component.
+     *
+     * @param task     The task to describe
+     * @param uploaded The primitives being uploaded
+     * @return The panel
+     */
+    private static JComponent createDescriptivePanel(Task task, Map<PrimitiveId, OsmPrimitive> uploaded) {
         final var panel = new JPanel(new GridBagLayout());
         final var instructionPane = new JMultilineLabel(MRGuiHelper.getInstructionText(task));
         panel.add(new JLabel(tr("Instructions:")), GBC.eol().fill(GridBagConstraints.HORIZONTAL));
         panel.add(instructionPane, GBC.eol().fill(GridBagConstraints.HORIZONTAL));
-        final var map = TaskPrimitives.getPrimitiveIdMap(task);
+        // Task primitives use identity equality, so look up their ids by identity
+        final var taskIds = new IdentityHashMap<IPrimitive, PrimitiveId>();
+        TaskPrimitives.getPrimitiveIdMap(task).forEach((id, primitive) -> taskIds.put(primitive, id));
+        final var changes = new ArrayList<TagChange>();
         for (var taskPrimitive : task.geometries().allPrimitives()) {
-            if (taskPrimitive.isTagged()) {
-                final var id = map.entrySet().stream().filter(entry -> entry.getValue() == taskPrimitive)
-                        .map(Map.Entry::getKey).findFirst().orElse(null);
-                final var osmPrimitive = id == null ? null
-                        : dataSet.getPrimitives().stream()
-                                .filter(p -> id.getType() == p.getType() && id.getUniqueId() == p.getUniqueId())
-                                .findFirst().orElse(null);
-                if (id != null && osmPrimitive != null) {
-                    final var table = new TagChangeTable(false);
-                    final List<String> keys = Stream
-                            .concat(osmPrimitive.keys(), MRGuiHelper.filterKeys(taskPrimitive.keys())).sorted()
-                            .distinct().toList();
-                    for (var row = 0; row < keys.size(); row++) {
-                        final var key = keys.get(row);
-                        table.setValueAt(key, row, 0);
-                        table.setValueAt(taskPrimitive.get(key), row, 1);
-                        table.setValueAt(osmPrimitive.get(key), row, 2);
+            final var id = taskPrimitive.isTagged() ? taskIds.get(taskPrimitive) : null;
+            final var osmPrimitive = id != null ? uploaded.get(id) : null;
+            if (osmPrimitive != null) {
+                changes.add(new TagChange(id, taskPrimitive, osmPrimitive));
+            }
+        }
+        final var lazy = changes.size() > MAX_EAGER_TABLES;
+        for (var change : changes) {
+            panel.add(new JSeparator(), GBC.eol().fill(GridBagConstraints.HORIZONTAL));
+            if (lazy) {
+                final var holder = new JPanel(new BorderLayout());
+                final var button = new JButton(tr("Show changes for {0}", change.id()));
+                button.addActionListener(event -> {
+                    holder.removeAll();
+                    addTagTable(holder, change, BorderLayout.NORTH, BorderLayout.CENTER);
+                    final var window = SwingUtilities.getWindowAncestor(holder);
+                    if (window != null) {
+                        window.pack();
+                    } else {
+                        holder.revalidate();
                     }
-                    panel.add(new JSeparator(), GBC.eol().fill(GridBagConstraints.HORIZONTAL));
-                    panel.add(new JLabel(tr("Changes for {0}", id)), GBC.eol().fill(GridBagConstraints.HORIZONTAL));
-                    panel.add(new JScrollPane(table), GBC.eol().fill(GridBagConstraints.HORIZONTAL));
-                }
+                });
+                holder.add(button, BorderLayout.WEST);
+                panel.add(holder, GBC.eol().fill(GridBagConstraints.HORIZONTAL));
+            } else {
+                addTagTable(panel, change, GBC.eol().fill(GridBagConstraints.HORIZONTAL),
+                        GBC.eol().fill(GridBagConstraints.HORIZONTAL));
             }
         }
         return panel;
     }
 
+    /**
+     * Add the tag table for a changed primitive
+     *
+     * @param container        The container to add the table to
+     * @param change           The changed primitive
+     * @param labelConstraints The constraints for the label
+     * @param tableConstraints The constraints for the table
+     */
+    private static void addTagTable(JComponent container, TagChange change, Object labelConstraints,
+            Object tableConstraints) {
+        final var table = new TagChangeTable(false);
+        final List<String> keys = Stream
+                .concat(change.osmPrimitive().keys(), MRGuiHelper.filterKeys(change.taskPrimitive().keys())).sorted()
+                .distinct().toList();
+        for (var row = 0; row < keys.size(); row++) {
+            final var key = keys.get(row);
+            table.setValueAt(key, row, 0);
+            table.setValueAt(change.taskPrimitive().get(key), row, 1);
+            table.setValueAt(change.osmPrimitive().get(key), row, 2);
+        }
+        container.add(new JLabel(tr("Changes for {0}", change.id())), labelConstraints);
+        container.add(new JScrollPane(table), tableConstraints);
+    }
+
     @Override
     public void modifyChangesetTags(Map<String, String> tags) {
         UploadHook.super.modifyChangesetTags(tags);
@@ -260,4 +265,13 @@ public final class EarlyUploadHook implements UploadHook {
         }
     }
 
+    /**
+     * A task primitive that was changed in the upload
+     *
+     * @param id            The id of the primitive
+     * @param taskPrimitive The primitive from the task
+     * @param osmPrimitive  The primitive being uploaded
+     */
+    private record TagChange(PrimitiveId id, IPrimitive taskPrimitive, OsmPrimitive osmPrimitive) {
+    }
 }
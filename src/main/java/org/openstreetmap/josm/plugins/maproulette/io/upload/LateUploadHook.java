@@ -1,18 +1,16 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.plugins.maproulette.io.upload;
 
-import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.function.Consumer;
 
 import org.openstreetmap.josm.actions.upload.UploadHook;
-import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
+import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
 import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedObjects;
 import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedTask;
-import org.openstreetmap.josm.plugins.maproulette.util.ExceptionDialogUtil;
 import org.openstreetmap.josm.tools.ListenerList;
 
 /**
@@ -42,24 +40,27 @@ public class LateUploadHook implements UploadHook {
         MODIFIED_TASKS_UPLOADED.removeListener(consumer);
     }
 
+    /**
+     * Tell the listeners that tasks were uploaded. The listeners are called on the EDT, since the uploads finish on
+     * several network threads at once.
+     *
+     * @param updatedTasks The updated tasks
+     */
+    static void fireUploaded(Map<Long, Task> updatedTasks) {
+        GuiHelper.runInEDT(() -> MODIFIED_TASKS_UPLOADED.fireEvent(l -> l.accept(updatedTasks)));
+    }
+
     @Override
     public void modifyChangesetTags(Map<String, String> tags) {
-        final var modifiedTasks = ModifiedObjects.getModifiedTasks();
-        final var updatedTasks = new HashMap<Long, Task>(modifiedTasks.size());
-        for (ModifiedTask entry : modifiedTasks) {
+        // The statuses are sent in the background, so that the upload does not wait on the MapRoulette server
+        final var toSubmit = new ArrayList<ModifiedTask>();
+        for (ModifiedTask entry : ModifiedObjects.getModifiedTasks()) {
             if (entry.status() != TaskStatus.CREATED) {
-                try {
-                    TaskAPI.updateStatus(entry.task().id(), entry.status(), entry.comment(), entry.tags(),
-                            entry.reviewRequested(), entry.completionResponses());
-                    updatedTasks.put(entry.task().id(), TaskAPI.release(entry.task().id()));
-                    ModifiedObjects.removeLockedTask(entry.task());
-                    ModifiedObjects.removeModifiedTask(entry);
-                    TaskAPI.changeset(entry.task().id());
-                } catch (IOException e) {
-                    ExceptionDialogUtil.explainException(e);
-                }
+                toSubmit.add(entry);
+                ModifiedObjects.removeLockedTask(entry.task());
+                ModifiedObjects.removeModifiedTask(entry);
             }
         }
-        MODIFIED_TASKS_UPLOADED.fireEvent(l -> l.accept(updatedTasks));
+        TaskSubmissionOutbox.submit(toSubmit);
     }
 }
@@ -0,0 +1,253 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.io.upload;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.LayerManager;
+import org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint;
+import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
+import org.openstreetmap.josm.plugins.maproulette.api.model.TaskClusteredPoint;
+import org.openstreetmap.josm.plugins.maproulette.api_caching.ChallengeCache;
+import org.openstreetmap.josm.plugins.maproulette.data.TaskPrimitives;
+import org.openstreetmap.josm.plugins.maproulette.gui.layer.MapRouletteClusteredPointLayer;
+import org.openstreetmap.josm.plugins.maproulette.util.ExceptionDialogUtil;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * An index from OSM unique ids to the ids of the tasks that are about them, for all the MapRoulette layers.
+ * A layer is re-indexed in the background when it changes; tasks that are unchanged keep their parsed OSM id.
+ * <p>
+ * Indexing may look up challenges on the server, so it is done without holding the index lock; the lock is only held
+ * to read the index or to swap in a new layer index. This way, removing a layer on the EDT never waits on the network.
+ */
+final class TaskPrimitiveIndex
+        implements LayerManager.LayerChangeListener, Consumer<Map<Long, TaskClusteredPoint>> {
+    private static final int MAX_LONG_STRING_LENGTH = Long.toString(Long.MAX_VALUE).length();
+    /**
+     * The base number predicate
+     */
+    private static final Predicate<String> NUMBER_PREDICATE = Pattern.compile("^\\d+$").asMatchPredicate();
+    /**
+     * The predicate for simple primitive ids
+     */
+    private static final Predicate<String> ID_PREDICATE = SimplePrimitiveId.ID_PATTERN.asMatchPredicate();
+    /**
+     * The pattern for ids with a version
+     */
+    private static final Pattern VERSION_PATTERN = Pattern
+            .compile("(n|node|w|way|r|rel|relation)[ /]?(\\d+)[ v@]?(\\d+)");
+    /**
+     * The pattern for id_type_version
+     */
+    private static final Pattern ID_TYPE_VERSION_PATTERN = Pattern.compile("(\\d+)_(n|node|w|way|r|rel|relation)_\\d+");
+
+    /**
+     * The index for each layer. Guarded by this.
+     */
+    private final Map<MapRouletteClusteredPointLayer, LayerIndex> layers = new HashMap<>();
+    /**
+     * The layers that have changed since they were last indexed. Guarded by this.
+     */
+    private final Set<MapRouletteClusteredPointLayer> dirty = new HashSet<>();
+    /**
+     * Held while indexing, so that only one thread indexes at a time and readers can wait for indexing to finish
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * Get the tasks for OSM primitives
+     *
+     * @param uniqueIds The OSM unique ids to look for
+     * @return The ids of the tasks that are for at least one of the primitives
+     */
+    @Nonnull
+    Set<Long> getTasks(Collection<Long> uniqueIds) {
+        this.refresh();
+        final var tasks = new HashSet<Long>();
+        synchronized (this) {
+            for (var layerIndex : this.layers.values()) {
+                for (var uniqueId : uniqueIds) {
+                    final var layerTasks = layerIndex.tasks().get(uniqueId);
+                    if (layerTasks != null) {
+                        tasks.addAll(layerTasks);
+                    }
+                }
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Index any layers that have changed
+     */
+    private void refresh() {
+        synchronized (this.refreshLock) {
+            final Map<MapRouletteClusteredPointLayer, LayerIndex> toIndex = new HashMap<>();
+            synchronized (this) {
+                for (var layer : this.dirty) {
+                    toIndex.put(layer, this.layers.get(layer));
+                }
+                this.dirty.clear();
+            }
+            if (toIndex.isEmpty()) {
+                return;
+            }
+            final var atlasCheck = new HashMap<Long, Boolean>();
+            final var indexed = new HashMap<MapRouletteClusteredPointLayer, LayerIndex>(toIndex.size());
+            for (var entry : toIndex.entrySet()) {
+                indexed.put(entry.getKey(), index(entry.getKey(), entry.getValue(), atlasCheck));
+            }
+            synchronized (this) {
+                for (var entry : indexed.entrySet()) {
+                    // Layers removed while indexing are not added back
+                    this.layers.replace(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Index a layer
+     *
+     * @param layer      The layer to index
+     * @param previous   The previous index for the layer, if any
+     * @param atlasCheck Whether a challenge is an AtlasCheck challenge, filled as challenges are looked up
+     * @return The new index
+     */
+    private static LayerIndex index(MapRouletteClusteredPointLayer layer, @Nullable LayerIndex previous,
+            Map<Long, Boolean> atlasCheck) {
+        final var parsed = new IdentityHashMap<TaskClusteredPoint, Long>();
+        final var tasks = new HashMap<Long, Collection<Long>>();
+        for (var point : new ArrayList<>(layer.getTasks())) {
+            final Long uniqueId;
+            if (previous != null && previous.parsed().containsKey(point)) {
+                uniqueId = previous.parsed().get(point);
+            } else {
+                uniqueId = getPrimitiveId(point, atlasCheck);
+            }
+            parsed.put(point, uniqueId);
+            if (uniqueId != null) {
+                tasks.computeIfAbsent(uniqueId, ignored -> new ArrayList<>(1)).add(point.id());
+            }
+        }
+        return new LayerIndex(parsed, tasks);
+    }
+
+    @Override
+    public void layerAdded(LayerManager.LayerAddEvent e) {
+        if (e.getAddedLayer()instanceof MapRouletteClusteredPointLayer layer) {
+            layer.addListener(this);
+            synchronized (this) {
+                this.layers.put(layer, LayerIndex.EMPTY);
+                this.dirty.add(layer);
+            }
+            MainApplication.worker.execute(this::refresh);
+        }
+    }
+
+    @Override
+    public void layerRemoving(LayerManager.LayerRemoveEvent e) {
+        if (e.getRemovedLayer()instanceof MapRouletteClusteredPointLayer layer) {
+            layer.removeListener(this);
+            synchronized (this) {
+                this.dirty.remove(layer);
+                this.layers.remove(layer);
+            }
+        }
+    }
+
+    @Override
+    public void layerOrderChanged(LayerManager.LayerOrderChangeEvent e) {
+        // Don't care
+    }
+
+    @Override
+    public void accept(Map<Long, TaskClusteredPoint> updated) {
+        // The event does not say which layer changed, so mark all of them. Unchanged points are not parsed again.
+        synchronized (this) {
+            this.dirty.addAll(this.layers.keySet());
+        }
+        MainApplication.worker.execute(this::refresh);
+    }
+
+    /**
+     * Get the OSM id for a task
+     *
+     * @param point      The task to get the id for
+     * @param atlasCheck Whether a challenge is an AtlasCheck challenge, filled as challenges are looked up
+     * @return The OSM unique id, or {@code null} if the task is not for a single primitive
+     */
+    @Nullable
+    static Long getPrimitiveId(TaskClusteredPoint point, Map<Long, Boolean> atlasCheck) {
+        final String toParse;
+        if (point instanceof ClusteredPoint clusteredPoint) {
+            toParse = clusteredPoint.title();
+        } else if (point instanceof Task task) {
+            toParse = task.name();
+        } else {
+            throw new IllegalArgumentException("Unknown class type: " + point.getClass());
+        }
+        if (toParse.length() <= MAX_LONG_STRING_LENGTH + 6 && NUMBER_PREDICATE.test(toParse)
+                && toParse.endsWith("000000")
+                && atlasCheck.computeIfAbsent(point.parentId(), TaskPrimitiveIndex::isAtlasCheck)) {
+            return Long.parseLong(toParse.substring(0, toParse.length() - 6));
+        }
+        if (toParse.length() <= MAX_LONG_STRING_LENGTH && NUMBER_PREDICATE.test(toParse)) {
+            return Long.parseLong(toParse);
+        } else if (ID_PREDICATE.test(toParse)) {
+            return SimplePrimitiveId.fromString(toParse).getUniqueId();
+        }
+        final var versionMatcher = VERSION_PATTERN.matcher(toParse);
+        if (versionMatcher.matches()) {
+            return Long.parseLong(versionMatcher.group(2));
+        }
+        final var idTypeMatcher = ID_TYPE_VERSION_PATTERN.matcher(toParse);
+        if (idTypeMatcher.matches()) {
+            return Long.parseLong(idTypeMatcher.group(1));
+        } else if (point instanceof Task task) {
+            final var ids = TaskPrimitives.getPrimitiveIds(task);
+            if (ids.size() == 1) {
+                return ids.iterator().next().getUniqueId();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isAtlasCheck(long challengeId) {
+        try {
+            final var challenge = ChallengeCache.challenge(challengeId);
+            return challenge.general().checkinComment() != null
+                    && challenge.general().checkinComment().contains("#AtlasCheck");
+        } catch (IOException ioException) {
+            ExceptionDialogUtil.explainException(ioException);
+        }
+        return false;
+    }
+
+    /**
+     * The index for a single layer
+     *
+     * @param parsed The OSM id parsed for each point in the layer, which may be {@code null}
+     * @param tasks  The task ids for each OSM id
+     */
+    private record LayerIndex(IdentityHashMap<TaskClusteredPoint, Long> parsed, Map<Long, Collection<Long>> tasks) {
+        /**
+         * The index for a layer that has not been indexed yet
+         */
+        static final LayerIndex EMPTY = new LayerIndex(new IdentityHashMap<>(), Map.of());
+    }
+}
@@ -0,0 +1,113 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.io.upload;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.swing.text.html.Option;
+
+import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
+import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedTask;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+
+/**
+ * A task status that still has to be sent to the server
+ *
+ * @param key                 The key for this submission, used to match journal entries for it
+ * @param task                The task id
+ * @param status              The status to set
+ * @param comment             The comment to use
+ * @param tags                The tags to use
+ * @param reviewRequested     Force review or not
+ * @param completionResponses The completion responses to send
+ */
+record TaskSubmission(@Nonnull String key, long task, @Nonnull TaskStatus status, @Nullable String comment,
+        @Nullable String tags, @Nullable Boolean reviewRequested, @Nullable JsonObject completionResponses) {
+    private static final String KEY = "key";
+    private static final String TASK = "task";
+    private static final String STATUS = "status";
+    private static final String COMMENT = "comment";
+    private static final String TAGS = "tags";
+    private static final String REVIEW_REQUESTED = "reviewRequested";
+    private static final String COMPLETION_RESPONSES = "completionResponses";
+
+    /**
+     * Validate the non-null fields
+     *
+     * @param key                 The key for this submission, used to match journal entries for it
+     * @param task                The task id
+     * @param status              The status to set
+     * @param comment             The comment to use
+     * @param tags                The tags to use
+     * @param reviewRequested     Force review or not
+     * @param completionResponses The completion responses to send
+     */
+    TaskSubmission {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(status);
+    }
+
+    /**
+     * Create a new submission
+     *
+     * @param modifiedTask The modified task to submit
+     * @return The submission, with a new key
+     */
+    @Nonnull
+    static TaskSubmission of(ModifiedTask modifiedTask) {
+        JsonObject responses = null;
+        if (modifiedTask.completionResponses() != null) {
+            final var builder = Json.createObjectBuilder();
+            for (Map.Entry<String, Option> entry : modifiedTask.completionResponses().entrySet()) {
+                builder.add(entry.getKey(), entry.getValue().getValue());
+            }
+            responses = builder.build();
+        }
+        return new TaskSubmission(UUID.randomUUID().toString(), modifiedTask.task().id(), modifiedTask.status(),
+                modifiedTask.comment(), modifiedTask.tags(), modifiedTask.reviewRequested(), responses);
+    }
+
+    /**
+     * Read a submission
+     *
+     * @param object The object written by {@link #toJson()}
+     * @return The submission
+     */
+    @Nonnull
+    static TaskSubmission fromJson(JsonObject object) {
+        return new TaskSubmission(object.getString(KEY), object.getJsonNumber(TASK).longValueExact(),
+                TaskStatus.valueOf(object.getString(STATUS)), object.getString(COMMENT, null),
+                object.getString(TAGS, null),
+                object.containsKey(REVIEW_REQUESTED) ? object.getBoolean(REVIEW_REQUESTED) : null,
+                object.containsKey(COMPLETION_RESPONSES) ? object.getJsonObject(COMPLETION_RESPONSES) : null);
+    }
+
+    /**
+     * Convert this submission to json
+     *
+     * @return The json for this submission
+     */
+    @Nonnull
+    JsonObject toJson() {
+        final var builder = Json.createObjectBuilder().add(KEY, this.key).add(TASK, this.task).add(STATUS,
+                this.status.name());
+        if (this.comment != null) {
+            builder.add(COMMENT, this.comment);
+        }
+        if (this.tags != null) {
+            builder.add(TAGS, this.tags);
+        }
+        if (this.reviewRequested != null) {
+            builder.add(REVIEW_REQUESTED, this.reviewRequested);
+        }
+        if (this.completionResponses != null) {
+            builder.add(COMPLETION_RESPONSES, this.completionResponses);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,469 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.io.upload;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
+import org.openstreetmap.josm.plugins.maproulette.api.UnauthorizedException;
+import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
+import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedTask;
+import org.openstreetmap.josm.plugins.maproulette.io.journal.JsonJournal;
+import org.openstreetmap.josm.plugins.maproulette.util.ExceptionDialogUtil;
+import org.openstreetmap.josm.plugins.maproulette.util.NetworkExecutor;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+
+/**
+ * Task statuses waiting to be sent to the server.
+ * <p>
+ * Submissions are written to a journal before they are sent, so they survive restarts and network outages. Each
+ * submission is a chain of calls (status, release, changeset); the journal records which calls have finished, so a
+ * retry does not repeat them. Failed submissions are retried with an increasing delay, up to {@link #MAX_ATTEMPTS}
+ * times. Submissions that cannot succeed (the user is not authorized, or the server rejected the status) and
+ * submissions that run out of attempts are dropped, and the user is told about them once.
+ * <p>
+ * Different tasks are independent, so their chains run at the same time, up to the size of the network pool.
+ */
+public final class TaskSubmissionOutbox {
+    private static final String TYPE = "type";
+    private static final String KEY = "key";
+    private static final String SUBMISSION = "submission";
+    private static final String STEP = "step";
+    private static final String ATTEMPTS = "attempts";
+    private static final String TYPE_SUBMIT = "submit";
+    private static final String TYPE_STEP = "step";
+    private static final String TYPE_FAILED = "failed";
+    private static final String TYPE_DONE = "done";
+    /**
+     * The delay before the first retry, in seconds
+     */
+    private static final long RETRY_DELAY = 5;
+    /**
+     * The maximum delay between retries, in seconds
+     */
+    private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toSeconds(10);
+    /**
+     * The number of attempts before a submission is given up on. This is about half an hour of retries.
+     */
+    static final int MAX_ATTEMPTS = 10;
+    /**
+     * The minimum number of journal entries before finished submissions are dropped from the journal
+     */
+    private static final int COMPACT_MINIMUM = 64;
+    /**
+     * The maximum number of submissions being sent at once
+     */
+    private static final int WINDOW = NetworkExecutor.parallelism();
+    private static final JsonJournal JOURNAL = JsonJournal.inCacheDirectory("outbox.jsonl");
+    /**
+     * Used for retries
+     */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            Utils.newThreadFactory("maproulette-outbox-%d", Thread.NORM_PRIORITY));
+    /**
+     * The submissions that have not finished, in the order they were made. Guarded by the class lock.
+     */
+    private static final Map<String, Pending> PENDING = new LinkedHashMap<>();
+
+    static {
+        load();
+    }
+
+    /**
+     * Hide the constructor
+     */
+    private TaskSubmissionOutbox() {
+        // Hide constructor
+    }
+
+    /**
+     * The calls for a submission, in order
+     */
+    enum Step {
+        /** Set the task status */
+        STATUS,
+        /** Release the task lock */
+        RELEASE,
+        /** Link the task to the changeset */
+        CHANGESET
+    }
+
+    /**
+     * Read the submissions that were not finished the last time JOSM ran
+     */
+    private static synchronized void load() {
+        try {
+            PENDING.putAll(replay(JOURNAL.read()));
+        } catch (IOException | RuntimeException exception) {
+            Logging.error(exception);
+        }
+    }
+
+    /**
+     * Find the submissions that have not finished
+     *
+     * @param entries The journal entries, in the order they were written
+     * @return The unfinished submissions, in the order they were made
+     */
+    @Nonnull
+    static Map<String, Pending> replay(Iterable<JsonObject> entries) {
+        final var pendingMap = new LinkedHashMap<String, Pending>();
+        for (var entry : entries) {
+            final var key = entry.getString(KEY);
+            switch (entry.getString(TYPE)) {
+            case TYPE_SUBMIT -> {
+                final var pending = new Pending(TaskSubmission.fromJson(entry.getJsonObject(SUBMISSION)));
+                pending.attempts = entry.getInt(ATTEMPTS, 0);
+                pendingMap.put(key, pending);
+            }
+            case TYPE_STEP -> {
+                final var pending = pendingMap.get(key);
+                if (pending != null) {
+                    pending.step = Step.valueOf(entry.getString(STEP));
+                }
+            }
+            case TYPE_FAILED -> {
+                final var pending = pendingMap.get(key);
+                if (pending != null) {
+                    pending.attempts++;
+                }
+            }
+            case TYPE_DONE -> pendingMap.remove(key);
+            default -> Logging.warn("Unknown outbox entry: " + entry);
+            }
+        }
+        return pendingMap;
+    }
+
+    /**
+     * Send any submissions left over from the last time JOSM ran
+     */
+    public static void start() {
+        drain();
+    }
+
+    /**
+     * Queue task statuses to be sent to the server. The upload listeners are told once, when every task in the batch
+     * has either been sent or failed its first attempt. Failed tasks are retried, and the listeners are told about
+     * each of them when it is sent.
+     *
+     * @param modifiedTasks The modified tasks
+     * @return A future with the tasks that were sent on the first attempt
+     */
+    @Nonnull
+    public static CompletableFuture<Map<Long, Task>> submit(Collection<ModifiedTask> modifiedTasks) {
+        final var batch = new Batch(modifiedTasks.size());
+        if (modifiedTasks.isEmpty()) {
+            batch.future.complete(Collections.emptyMap());
+            return batch.future;
+        }
+        synchronized (TaskSubmissionOutbox.class) {
+            for (var modifiedTask : modifiedTasks) {
+                final var submission = TaskSubmission.of(modifiedTask);
+                final var pending = new Pending(submission);
+                pending.batch = batch;
+                PENDING.put(submission.key(), pending);
+                write(Json.createObjectBuilder().add(TYPE, TYPE_SUBMIT).add(KEY, submission.key())
+                        .add(SUBMISSION, submission.toJson()).build());
+            }
+        }
+        drain();
+        return batch.future;
+    }
+
+    /**
+     * Get the number of submissions that have not been sent
+     *
+     * @return The number of pending submissions
+     */
+    public static synchronized int pending() {
+        return PENDING.size();
+    }
+
+    /**
+     * Start sending the submissions that are ready, up to {@link #WINDOW} at a time. Submissions for the same task are
+     * sent in order.
+     */
+    private static void drain() {
+        final var ready = new ArrayList<Pending>();
+        synchronized (TaskSubmissionOutbox.class) {
+            final var now = System.nanoTime();
+            final var tasks = new HashSet<Long>();
+            var running = 0;
+            for (var pending : PENDING.values()) {
+                if (pending.running) {
+                    running++;
+                }
+            }
+            for (var pending : PENDING.values()) {
+                if (running >= WINDOW) {
+                    break;
+                }
+                if (tasks.add(pending.submission.task()) && !pending.running && pending.retryAt - now <= 0) {
+                    pending.running = true;
+                    running++;
+                    ready.add(pending);
+                }
+            }
+        }
+        // A future that is already done runs finished (and so drain) on this thread, so start them outside the lock
+        for (var pending : ready) {
+            NetworkExecutor.supply(() -> send(pending))
+                    .whenComplete((task, throwable) -> finished(pending, task, throwable));
+        }
+    }
+
+    /**
+     * Send a submission, starting with the first call that has not finished
+     *
+     * @param pending The submission to send
+     * @return The updated task
+     * @throws IOException if there was a problem communicating with the server
+     */
+    static Task send(Pending pending) throws IOException {
+        final var submission = pending.submission;
+        final var id = submission.task();
+        if (pending.step == Step.STATUS) {
+            if (!TaskAPI.updateStatus(id, submission.status(), submission.comment(), submission.tags(),
+                    submission.reviewRequested(), submission.completionResponses())) {
+                throw new RejectedException(tr("The server did not accept the status {0} for MapRoulette task {1}",
+                        submission.status(), id));
+            }
+            step(pending, Step.RELEASE);
+        }
+        if (pending.step == Step.RELEASE) {
+            TaskAPI.release(id);
+            step(pending, Step.CHANGESET);
+        }
+        return TaskAPI.changeset(id);
+    }
+
+    private static synchronized void step(Pending pending, Step step) {
+        pending.step = step;
+        write(Json.createObjectBuilder().add(TYPE, TYPE_STEP).add(KEY, pending.submission.key())
+                .add(STEP, step.name()).build());
+    }
+
+    private static void finished(Pending pending, Task task, Throwable throwable) {
+        final Batch batch;
+        final boolean batchDone;
+        final var cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        Throwable failure = null;
+        synchronized (TaskSubmissionOutbox.class) {
+            pending.running = false;
+            batch = pending.batch;
+            pending.batch = null;
+            if (batch != null) {
+                if (throwable == null) {
+                    batch.results.put(task.id(), task);
+                }
+                batch.remaining--;
+            }
+            batchDone = batch != null && batch.remaining == 0;
+            if (throwable == null) {
+                PENDING.remove(pending.submission.key());
+                write(Json.createObjectBuilder().add(TYPE, TYPE_DONE).add(KEY, pending.submission.key()).build());
+            } else if (isFinal(cause) || pending.attempts + 1 >= MAX_ATTEMPTS) {
+                // Retrying will not help, so drop the submission and tell the user
+                PENDING.remove(pending.submission.key());
+                write(Json.createObjectBuilder().add(TYPE, TYPE_DONE).add(KEY, pending.submission.key()).build());
+                Logging.error("Giving up on sending MapRoulette task {0} after {1} attempts: {2}",
+                        pending.submission.task(), pending.attempts + 1, cause);
+                failure = cause;
+            } else {
+                // Write first, so that a compaction while writing does not count this attempt twice
+                write(Json.createObjectBuilder().add(TYPE, TYPE_FAILED).add(KEY, pending.submission.key()).build());
+                pending.attempts++;
+                final var delay = Math.min(MAX_RETRY_DELAY, RETRY_DELAY << Math.min(pending.attempts - 1, 20));
+                pending.retryAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(delay);
+                Logging.warn("Could not send MapRoulette task {0}, trying again in {1}s: {2}",
+                        pending.submission.task(), delay, cause);
+                SCHEDULER.schedule(TaskSubmissionOutbox::drain, delay, TimeUnit.SECONDS);
+            }
+        }
+        if (failure instanceof Exception exception) {
+            GuiHelper.runInEDT(() -> ExceptionDialogUtil.explainException(exception));
+        }
+        if (batch == null) {
+            if (throwable == null) {
+                LateUploadHook.fireUploaded(Map.of(task.id(), task));
+            }
+        } else if (batchDone) {
+            final var results = Collections.unmodifiableMap(batch.results);
+            if (!results.isEmpty()) {
+                LateUploadHook.fireUploaded(results);
+            }
+            batch.future.complete(results);
+        }
+        // Later submissions for the same task can go now
+        drain();
+    }
+
+    /**
+     * Check if a failure will happen again if the submission is retried
+     *
+     * @param cause The failure
+     * @return {@code true} if the submission should not be retried
+     */
+    private static boolean isFinal(Throwable cause) {
+        return cause instanceof UnauthorizedException || cause instanceof RejectedException;
+    }
+
+    /**
+     * Write a journal entry. The caller must hold the class lock.
+     *
+     * @param entry The entry to write
+     */
+    private static void write(JsonObject entry) {
+        try {
+            if (JOURNAL.size() > Math.max(COMPACT_MINIMUM, 4 * PENDING.size())) {
+                compact();
+            }
+            JOURNAL.append(entry);
+        } catch (IOException ioException) {
+            // The submission will still be sent, but it will not survive a restart
+            Logging.error(ioException);
+        }
+    }
+
+    /**
+     * Rewrite the journal with only the pending submissions. The caller must hold the class lock.
+     *
+     * @throws IOException if the journal could not be written
+     */
+    private static void compact() throws IOException {
+        JOURNAL.rewrite(compacted(PENDING.values()));
+    }
+
+    /**
+     * Get the journal entries needed to restore submissions
+     *
+     * @param pendingSubmissions The submissions to keep
+     * @return The entries for the submissions
+     */
+    @Nonnull
+    static List<JsonObject> compacted(Collection<Pending> pendingSubmissions) {
+        final var entries = new ArrayList<JsonObject>(2 * pendingSubmissions.size());
+        for (var pending : pendingSubmissions) {
+            final var submit = Json.createObjectBuilder().add(TYPE, TYPE_SUBMIT).add(KEY, pending.submission.key())
+                    .add(SUBMISSION, pending.submission.toJson());
+            if (pending.attempts > 0) {
+                submit.add(ATTEMPTS, pending.attempts);
+            }
+            entries.add(submit.build());
+            if (pending.step != Step.STATUS) {
+                entries.add(Json.createObjectBuilder().add(TYPE, TYPE_STEP).add(KEY, pending.submission.key())
+                        .add(STEP, pending.step.name()).build());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Thrown when the server does not accept a status
+     */
+    static final class RejectedException extends IOException {
+        @Serial
+        private static final long serialVersionUID = 4137011298650410815L;
+
+        RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The state of a submission. Guarded by the class lock.
+     */
+    static final class Pending {
+        @Nonnull
+        private final TaskSubmission submission;
+        /**
+         * The next call to make
+         */
+        private Step step = Step.STATUS;
+        private boolean running;
+        private int attempts;
+        /**
+         * The {@link System#nanoTime()} after which the submission can be tried again
+         */
+        private long retryAt = System.nanoTime();
+        /**
+         * The batch that is waiting on the first attempt, if any
+         */
+        @Nullable
+        private Batch batch;
+
+        Pending(@Nonnull TaskSubmission submission) {
+            this.submission = submission;
+        }
+
+        /**
+         * Get the submission
+         *
+         * @return The submission
+         */
+        @Nonnull
+        TaskSubmission submission() {
+            return this.submission;
+        }
+
+        /**
+         * Get the next call to make
+         *
+         * @return The next call
+         */
+        @Nonnull
+        Step step() {
+            return this.step;
+        }
+
+        /**
+         * Get the number of failed attempts
+         *
+         * @return The number of times the submission failed
+         */
+        int attempts() {
+            return this.attempts;
+        }
+    }
+
+    /**
+     * Submissions that were made together. Guarded by the class lock.
+     */
+    private static final class Batch {
+        private final Map<Long, Task> results = new HashMap<>();
+        private final CompletableFuture<Map<Long, Task>> future = new CompletableFuture<>();
+        /**
+         * The number of submissions that have not had a first attempt
+         */
+        private int remaining;
+
+        Batch(int remaining) {
+            this.remaining = remaining;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.util;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * A shared, bounded pool for MapRoulette server calls that can run in parallel. Using one pool keeps the number of
+ * concurrent requests to the server bounded, no matter how many features are fetching at once.
+ */
+public final class NetworkExecutor {
+    /**
+     * The maximum number of concurrent requests. This is read once; changes need a restart.
+     */
+    private static final int PARALLELISM = Math
+            .max(1, new IntegerProperty("maproulette.network.threads", 4).get());
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(PARALLELISM,
+            Utils.newThreadFactory("maproulette-network-%d", Thread.NORM_PRIORITY));
+
+    /**
+     * Prevent instantiation of the utils
+     */
+    private NetworkExecutor() {
+        // Hide constructor
+    }
+
+    /**
+     * Get the number of requests that can run at once
+     *
+     * @return The number of threads in the pool
+     */
+    public static int parallelism() {
+        return PARALLELISM;
+    }
+
+    /**
+     * Run a server call in the pool
+     *
+     * @param supplier The call to make
+     * @param <T>      The result type
+     * @return A future for the result. If the call throws an {@link IOException}, the future completes with a
+     *         {@link CompletionException} wrapping it. Cancelling the future before the call starts skips the call.
+     */
+    public static <T> CompletableFuture<T> supply(IOSupplier<T> supplier) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return supplier.get();
+            } catch (IOException ioException) {
+                throw new CompletionException(ioException);
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * A supplier that may throw an {@link IOException}
+     *
+     * @param <T> The result type
+     */
+    @FunctionalInterface
+    public interface IOSupplier<T> {
+        /**
+         * Get the result
+         *
+         * @return The result
+         * @throws IOException if there was a problem communicating with the server
+         */
+        T get() throws IOException;
+    }
+}
@@ -2,10 +2,12 @@
 package org.openstreetmap.josm.plugins.maproulette.api.parsers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.openstreetmap.josm.plugins.maproulette.util.RecordAssertion.assertRecordsEqual;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
@@ -38,4 +40,19 @@ class ClusteredPointParserTest {
                 0, null, false);
         assertRecordsEqual(expected, actual);
     }
+
+    /**
+     * Ensure that values repeated between points in the same response are shared
+     */
+    @Test
+    void testSharedValues() throws IOException {
+        final var box = TaskAPI.box(-119.1139411, 36.0770518, -119.0992458, 36.0839216, 1_000, 0, true, null, null,
+                false, true, true);
+        final var first = Arrays.stream(box).filter(p -> p.id() == 133361784L).findFirst().orElseThrow();
+        final var second = Arrays.stream(box).filter(p -> p.id() == 133361785L).findFirst().orElseThrow();
+        assertEquals(first.parentId(), second.parentId());
+        assertSame(first.parentName(), second.parentName());
+        assertSame(first.modified(), second.modified());
+        assertSame(first.pointReview(), second.pointReview());
+    }
 }
@@ -0,0 +1,72 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.api.parsers;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.plugins.maproulette.api.model.OsmChangeFile;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+
+/**
+ * Test class for {@link OsmChangeFile}, the cooperative work content parsed by {@link TaskParser}
+ */
+@BasicPreferences
+@Projection
+class OsmChangeFileTest {
+    private static final String OSC = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <osmChange version="0.6" generator="test">
+              <create>
+                <node id="-1" version="0" lat="36.0819446" lon="-119.1046083">
+                  <tag k="amenity" v="bench"/>
+                </node>
+              </create>
+            </osmChange>
+            """;
+
+    /**
+     * Check that a valid OSC is decoded and parsed
+     */
+    @Test
+    void testValidOsc() {
+        final var file = new OsmChangeFile(Base64.getEncoder().encodeToString(OSC.getBytes(StandardCharsets.UTF_8)));
+        final var parsed = file.get();
+        assertNotNull(parsed);
+        final var nodes = parsed.a.getNodes();
+        assertEquals(1, nodes.size());
+        final var node = nodes.iterator().next();
+        assertAll(() -> assertEquals("bench", node.get("amenity")),
+                () -> assertEquals(36.0819446, node.lat(), 1e-7),
+                () -> assertEquals(-119.1046083, node.lon(), 1e-7));
+    }
+
+    /**
+     * Check that content that is not base64 is reported as unreadable instead of throwing
+     */
+    @Test
+    void testCorruptBase64() {
+        final var file = new OsmChangeFile("This is not base64!");
+        assertNull(file.get());
+        // The content is dropped after the first attempt, so this stays unreadable
+        assertNull(file.get());
+    }
+
+    /**
+     * Check that the content is only parsed once
+     */
+    @Test
+    void testParsedOnce() {
+        final var file = new OsmChangeFile(Base64.getEncoder().encodeToString(OSC.getBytes(StandardCharsets.UTF_8)));
+        final var first = file.get();
+        assertNotNull(first);
+        assertSame(first, file.get());
+    }
+}
@@ -0,0 +1,73 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.data;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link LongBitmap}
+ */
+class LongBitmapTest {
+    @Test
+    void testAddRemove() {
+        final var random = new SplittableRandom(42);
+        final var expected = new TreeSet<Long>();
+        var bitmap = LongBitmap.EMPTY;
+        // Use a small range so that some containers become bitmaps, and some become arrays again
+        for (var i = 0; i < 50_000; i++) {
+            final var id = random.nextLong(-70_000, 200_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(id);
+                bitmap = bitmap.remove(id);
+            } else {
+                expected.add(id);
+                bitmap = bitmap.add(id);
+            }
+        }
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), bitmap.toArray());
+        for (long id = -70_000; id < 200_000; id++) {
+            assertEquals(expected.contains(id), bitmap.contains(id), Long.toString(id));
+        }
+    }
+
+    @Test
+    void testUnchanged() {
+        final var bitmap = LongBitmap.of(1, 2, 3, 100_000);
+        assertAll(() -> assertSame(bitmap, bitmap.add(2)), () -> assertSame(bitmap, bitmap.remove(4)),
+                () -> assertSame(bitmap, bitmap.remove(200_000)), () -> assertEquals(4, bitmap.cardinality()),
+                () -> assertTrue(bitmap.remove(2).add(2).contains(2)), () -> assertFalse(bitmap.remove(2).contains(2)));
+    }
+
+    @Test
+    void testReadWrite() throws IOException {
+        final var random = new SplittableRandom(7);
+        final var ids = new long[20_000];
+        for (var i = 0; i < ids.length; i++) {
+            // Both sparse and dense keys
+            ids[i] = i % 2 == 0 ? random.nextLong(0, 10_000) : random.nextLong(0, Long.MAX_VALUE);
+        }
+        final var bitmap = LongBitmap.of(ids);
+        final var bytes = new ByteArrayOutputStream();
+        try (var output = new DataOutputStream(bytes)) {
+            bitmap.write(output);
+        }
+        final var read = LongBitmap.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(bitmap.cardinality(), read.cardinality());
+        assertArrayEquals(bitmap.toArray(), read.toArray());
+    }
+}
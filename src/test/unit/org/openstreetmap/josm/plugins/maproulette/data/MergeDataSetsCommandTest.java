@@ -0,0 +1,228 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.data;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.DataSetMerger;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+
+/**
+ * Test class for {@link MergeDataSetsCommand}. The command was copied from {@link DataSetMerger} and then indexed and
+ * parallelized, so the merged data is compared with what {@link DataSetMerger} does with the same data.
+ */
+@BasicPreferences
+@Projection
+class MergeDataSetsCommandTest {
+    private static final String[] HIGHWAYS = { "residential", "service", "footway" };
+
+    /**
+     * Add generated data to a dataset. Generating with the same seed gives the same data.
+     *
+     * @param dataSet The dataset to add to
+     * @param seed    The random seed
+     * @param nodes   The number of nodes (there are a fifth as many ways, and a fiftieth as many relations)
+     * @param version The version for the primitives, or {@code 0} for new primitives
+     * @param offset  The offset to add to each latitude
+     * @param change  A change to make to each primitive
+     */
+    private static void generate(DataSet dataSet, long seed, int nodes, int version, double offset,
+            Consumer<OsmPrimitive> change) {
+        final var random = new SplittableRandom(seed);
+        final var nodeList = new ArrayList<Node>(nodes);
+        for (var i = 1; i <= nodes; i++) {
+            final var coordinate = new LatLon(39 + random.nextDouble(0.2) + offset, -108.6 + random.nextDouble(0.2));
+            final var node = version == 0 ? new Node(coordinate) : new Node(i, version);
+            node.setCoor(coordinate);
+            if (random.nextInt(10) == 0) {
+                node.put("amenity", "bench");
+            }
+            nodeList.add(node);
+        }
+        final var wayList = new ArrayList<Way>(nodes / 5);
+        for (var i = 1; i <= nodes / 5; i++) {
+            final var way = version == 0 ? new Way() : new Way(i, version);
+            final var start = random.nextInt(nodeList.size());
+            way.setNodes(nodeList.subList(start, Math.min(nodeList.size(), start + 2 + random.nextInt(10))));
+            way.put("highway", HIGHWAYS[random.nextInt(HIGHWAYS.length)]);
+            wayList.add(way);
+        }
+        final var relationList = new ArrayList<Relation>(nodes / 50);
+        for (var i = 1; i <= nodes / 50; i++) {
+            final var relation = version == 0 ? new Relation() : new Relation(i, version);
+            relation.addMember(new RelationMember("outer", wayList.get(random.nextInt(wayList.size()))));
+            relation.addMember(new RelationMember("inner", wayList.get(random.nextInt(wayList.size()))));
+            relation.put("type", "multipolygon");
+            relationList.add(relation);
+        }
+        for (var primitives : List.of(nodeList, wayList, relationList)) {
+            for (OsmPrimitive primitive : primitives) {
+                change.accept(primitive);
+                dataSet.addPrimitive(primitive);
+            }
+        }
+    }
+
+    /**
+     * Get a description of the data in a dataset that does not depend on the order of the primitives, or on which of
+     * several equal new primitives was matched
+     *
+     * @param dataSet The dataset
+     * @return The description of each primitive, sorted
+     */
+    private static List<String> describe(DataSet dataSet) {
+        final var descriptions = new ArrayList<String>();
+        for (var primitive : dataSet.allPrimitives()) {
+            descriptions.add(describe(primitive));
+        }
+        descriptions.sort(null);
+        return descriptions;
+    }
+
+    private static String describe(OsmPrimitive primitive) {
+        final var description = new StringBuilder().append(primitive.getType()).append(' ')
+                .append(primitive.isNew() ? "new" : primitive.getId() + "v" + primitive.getVersion())
+                .append(primitive.isDeleted() ? " deleted " : " ").append(new TreeMap<>(primitive.getKeys()));
+        if (primitive instanceof Node node) {
+            description.append(' ').append(node.lat()).append(',').append(node.lon());
+        } else if (primitive instanceof Way way) {
+            for (var node : way.getNodes()) {
+                description.append(" [").append(describe(node)).append(']');
+            }
+        } else if (primitive instanceof Relation relation) {
+            for (var member : relation.getMembers()) {
+                description.append(' ').append(member.getRole()).append("=[").append(describe(member.getMember()))
+                        .append(']');
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * Merge with both {@link MergeDataSetsCommand} and {@link DataSetMerger}, and check that the results are the same
+     *
+     * @param target Fill a target dataset
+     * @param source Fill the source dataset
+     * @return The merged target dataset
+     */
+    private static DataSet assertSameAsDataSetMerger(Consumer<DataSet> target, Consumer<DataSet> source) {
+        final var expected = new DataSet();
+        target.accept(expected);
+        final var expectedSource = new DataSet();
+        source.accept(expectedSource);
+        new DataSetMerger(expected, expectedSource).merge(NullProgressMonitor.INSTANCE, false);
+
+        final var actual = new DataSet();
+        target.accept(actual);
+        final var targetSize = actual.allPrimitives().size();
+        final var actualSource = new DataSet();
+        source.accept(actualSource);
+        final var modified = new HashSet<OsmPrimitive>();
+        final var deleted = new HashSet<OsmPrimitive>();
+        final var added = new HashSet<OsmPrimitive>();
+        new MergeDataSetsCommand(actual, actualSource, false, null).fillModifiedData(modified, deleted, added);
+
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(targetSize + added.size(), actual.allPrimitives().size());
+        return actual;
+    }
+
+    @Test
+    void testMergeById() {
+        final var merged = assertSameAsDataSetMerger(target -> generate(target, 1, 100, 1, 0, primitive -> {
+            // Local changes to some primitives conflict with the newer version
+            if (primitive.getId() % 7 == 0) {
+                primitive.put("name", "local");
+                primitive.setModified(true);
+            }
+        }), source -> {
+            generate(source, 1, 100, 2, 0, primitive -> primitive.put("surface", "asphalt"));
+            // Primitives that are not in the target are added with their ids
+            final var added = new Node(1000, 1);
+            added.setCoor(new LatLon(39.1, -108.5));
+            source.addPrimitive(added);
+        });
+        assertAll(() -> assertEquals("local", merged.getPrimitiveById(7, OsmPrimitiveType.NODE).get("name")),
+                () -> assertEquals("asphalt", merged.getPrimitiveById(8, OsmPrimitiveType.NODE).get("surface")),
+                () -> assertEquals(1, merged.getPrimitiveById(1000, OsmPrimitiveType.NODE).getVersion()));
+    }
+
+    /**
+     * New nodes are matched if their coordinates are within the server precision, including across index cells
+     *
+     * @param latitude The latitude of the source node; the target node is at 39.00000099
+     */
+    @ParameterizedTest
+    @ValueSource(doubles = { 39.00000099, 39.00000104, 39.00000094, 39.0000011, 39.0000015, 39.00001 })
+    void testMatchNewNode(double latitude) {
+        assertSameAsDataSetMerger(dataSet -> {
+            final var node = new Node(new LatLon(39.00000099, -108.5));
+            node.put("amenity", "bench");
+            dataSet.addPrimitive(node);
+        }, dataSet -> {
+            final var node = new Node(new LatLon(latitude, -108.5));
+            node.put("amenity", "bench");
+            dataSet.addPrimitive(node);
+        });
+    }
+
+    @Test
+    void testMatchNewPrimitives() {
+        // The same new data with nodes moved by less than the server precision is matched, other new data is added
+        final var merged = assertSameAsDataSetMerger(target -> generate(target, 2, 500, 0, 0, primitive -> {
+        }), source -> {
+            generate(source, 2, 500, 0, 5e-8, primitive -> {
+            });
+            generate(source, 3, 100, 0, 0, primitive -> {
+            });
+        });
+        // The added ways use the matched or added target nodes
+        for (var way : merged.getWays()) {
+            for (var node : way.getNodes()) {
+                assertSame(merged, node.getDataSet());
+            }
+        }
+    }
+
+    @Test
+    void testParallelMerge() {
+        // More than 10000 primitives of a type are planned in parallel
+        assertSameAsDataSetMerger(target -> {
+            generate(target, 1, 12_000, 1, 0, primitive -> {
+            });
+            generate(target, 2, 6_000, 0, 0, primitive -> {
+            });
+        }, source -> {
+            generate(source, 1, 12_000, 2, 0, primitive -> {
+                if (primitive.getId() % 3 == 0) {
+                    primitive.put("surface", "asphalt");
+                }
+            });
+            generate(source, 2, 6_000, 0, 5e-8, primitive -> {
+            });
+            generate(source, 4, 6_000, 0, 0, primitive -> {
+            });
+        });
+    }
+}
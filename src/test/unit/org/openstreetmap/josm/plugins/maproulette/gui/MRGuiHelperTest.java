@@ -3,6 +3,7 @@ package org.openstreetmap.josm.plugins.maproulette.gui;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
@@ -23,4 +24,11 @@ class MRGuiHelperTest {
                         </html>""",
                 instructions);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetInstructionTextCached() {
+        final var task = assertDoesNotThrow(() -> TaskAPI.get(147197178));
+        final var instructions = MRGuiHelper.getInstructionText(task);
+        assertSame(instructions, MRGuiHelper.getInstructionText(task));
+    }
+}
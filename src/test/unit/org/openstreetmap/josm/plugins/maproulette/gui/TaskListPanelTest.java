@@ -10,6 +10,7 @@ import javax.swing.Action;
 import javax.swing.JButton;
 import javax.swing.JComponent;
 import javax.swing.JMenuItem;
+import javax.swing.JTabbedPane;
 import javax.swing.JTable;
 
 import org.junit.jupiter.api.Test;
@@ -44,9 +45,7 @@ public class TaskListPanelTest {
      * @param ignoreType The ignore action to use
      */
     public static void fireIgnoreAction(TaskListPanel panel, IgnoreAction.IgnoreType ignoreType) {
-        final var table = ((JTable) ((JComponent) ((JComponent) ((JComponent) panel
-                .getComponent(1 /* The scroll pane */)).getComponent(0 /* The viewport */))
-                        .getComponent(0 /* A panel */)).getComponent(2 /* The table */));
+        final var table = (JTable) getDownloadedPanel(panel).getComponent(2 /* The table */);
         final var menu = table.getComponentPopupMenu();
         final var menuItem = (JMenuItem) switch (ignoreType) {
         case IGNORE_TASK -> menu.getComponent(2);
@@ -58,6 +57,18 @@ public class TaskListPanelTest {
         action.actionPerformed(new ActionEvent(menuItem, 0, "ignore"));
     }
 
+    /**
+     * Get the panel with the downloaded tasks
+     *
+     * @param panel The panel to use
+     * @return The panel in the "Downloaded" tab, which has the filter field, the table header, and the table
+     */
+    public static JComponent getDownloadedPanel(TaskListPanel panel) {
+        final var tabs = (JTabbedPane) ((JComponent) ((JComponent) panel.getComponent(1 /* The scroll pane */))
+                .getComponent(0 /* The viewport */)).getComponent(0 /* The tabs */);
+        return (JComponent) tabs.getComponentAt(0 /* The downloaded tasks */);
+    }
+
     @Test
     void testDuplicateKeyIssue() throws ExecutionException, InterruptedException {
         final var panel = new TaskListPanel();
@@ -13,8 +13,6 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-import javax.swing.JComponent;
-
 import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.coor.LatLon;
@@ -26,6 +24,7 @@ import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.gui.widgets.FilterField;
 import org.openstreetmap.josm.plugins.maproulette.actions.IgnoreAction;
 import org.openstreetmap.josm.plugins.maproulette.api.model.Identifier;
+import org.openstreetmap.josm.plugins.maproulette.data.HiddenList;
 import org.openstreetmap.josm.plugins.maproulette.gui.TaskListPanelTest;
 import org.openstreetmap.josm.plugins.maproulette.gui.task.list.TaskListPanel;
 import org.openstreetmap.josm.plugins.maproulette.util.MapRouletteConfig;
@@ -125,10 +124,14 @@ class MapRouletteClusteredPointLayerTest {
             assertEquals(133361785L, panel.getSelected().iterator().next().id());
             // Now what happens when we filter the images
             final FilterField filter = assertInstanceOf(FilterField.class,
-                    ((JComponent) ((JComponent) ((JComponent) panel.getComponent(1)).getComponent(0)).getComponent(0))
-                            .getComponent(0));
+                    TaskListPanelTest.getDownloadedPanel(panel).getComponent(0));
             filter.setText("foobar12345678912345678");
-            sync();
+            // The filter is debounced and runs in the background
+            final var timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!HiddenList.isHidden(133361784L) && System.nanoTime() < timeout) {
+                sync();
+            }
+            assertTrue(HiddenList.isHidden(133361784L));
             assertDoesNotThrow(() -> layer.mouseClicked(generateMouseEvent(false, 36.0778797, -119.1075725)));
             assertEquals(0, panel.getSelected().size());
         } finally {
@@ -0,0 +1,94 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.gui.task.list;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.plugins.maproulette.api.enums.Difficulty;
+import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
+import org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint;
+import org.openstreetmap.josm.plugins.maproulette.api.model.Point;
+import org.openstreetmap.josm.plugins.maproulette.api.model.PointReview;
+import org.openstreetmap.josm.plugins.maproulette.api.model.PublicUser;
+import org.openstreetmap.josm.plugins.maproulette.api.model.TaskClusteredPoint;
+
+/**
+ * Test class for {@link TaskSearchIndex}
+ */
+class TaskSearchIndexTest {
+    private static final List<ClusteredPoint> TASKS = List.of(point(1, 10, "Missing crossing"),
+            point(2, 10, "Missing sidewalk"), point(3, 20, "Crossing without tags"), point(4, 30, "Road/Crossing"));
+
+    private static ClusteredPoint point(long id, long challenge, String title) {
+        return new ClusteredPoint(id, 0L, "null", title, challenge, "parentName", new Point(0, 0), "bounding", "blurb",
+                Instant.EPOCH, Difficulty.NORMAL, 0, TaskStatus.CREATED, null, Instant.EPOCH, 0L,
+                new PublicUser(0L, null, "someone", Instant.EPOCH, null),
+                new PointReview(null, null, null, null, null, null, null, null, null), 0, null, false);
+    }
+
+    private static TaskSearchIndex build(Map<Long, String> challengeNames) {
+        return TaskSearchIndex.build(TASKS, task -> challengeNames.get(task.parentId()));
+    }
+
+    @Test
+    void testEmptyQuery() {
+        final var index = build(Map.of());
+        assertNull(index.search(""));
+        assertNull(index.search(" ,. "));
+    }
+
+    @Test
+    void testPrefix() {
+        final var index = build(Map.of());
+        assertArrayEquals(new long[] { 1, 3, 4 }, index.search("cross"));
+        assertArrayEquals(new long[] { 1, 3, 4 }, index.search("CROSSING"));
+        assertArrayEquals(new long[] { 1, 2 }, index.search("miss"));
+        // Only prefixes of words match
+        assertArrayEquals(new long[0], index.search("rossing"));
+        // Ids and statuses are tokens too
+        assertArrayEquals(new long[] { 3 }, index.search("3"));
+        assertArrayEquals(new long[] { 1, 2, 3, 4 }, index.search("created"));
+    }
+
+    @Test
+    void testMultipleTokens() {
+        final var index = build(Map.of());
+        assertArrayEquals(new long[] { 1 }, index.search("missing cross"));
+        assertArrayEquals(new long[] { 1 }, index.search("cross missing"));
+        assertArrayEquals(new long[] { 4 }, index.search("road crossing"));
+        assertArrayEquals(new long[0], index.search("sidewalk crossing"));
+    }
+
+    @Test
+    void testChallengeNames() {
+        final var index = build(Map.of(10L, "Pedestrian Paths", 20L, "Bike Paths"));
+        assertArrayEquals(new long[] { 1, 2, 3 }, index.search("paths"));
+        assertArrayEquals(new long[] { 3 }, index.search("bike cross"));
+        assertArrayEquals(new long[0], build(Map.of()).search("paths"));
+    }
+
+    @Test
+    void testWithUpdated() {
+        final var index = build(Map.of());
+        // The name for challenge 10 is found after the index was built
+        final var updated = index.withUpdated(TASKS.subList(0, 2),
+                task -> task.parentId() == 10 ? "Pedestrian Paths" : null);
+        assertArrayEquals(new long[] { 1, 2 }, updated.search("pedestrian"));
+        assertArrayEquals(new long[] { 1, 3, 4 }, updated.search("crossing"));
+        assertArrayEquals(new long[0], index.search("pedestrian"));
+        // A changed title drops the old tokens
+        final var renamed = updated.withUpdated(List.of(point(2, 10, "Fixed sidewalk")), task -> null);
+        assertArrayEquals(new long[] { 1 }, renamed.search("missing"));
+        assertArrayEquals(new long[] { 2 }, renamed.search("fixed"));
+        assertArrayEquals(new long[] { 1 }, renamed.search("pedestrian"));
+        // Tasks that are not in the index are ignored
+        final List<TaskClusteredPoint> unknown = List.of(point(5, 10, "Unknown"));
+        assertSame(renamed, renamed.withUpdated(unknown, task -> null));
+    }
+}
@@ -0,0 +1,76 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.io.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+
+/**
+ * Test class for {@link JsonJournal}
+ */
+class JsonJournalTest {
+    @TempDir
+    Path directory;
+
+    private static JsonObject entry(int i) {
+        return Json.createObjectBuilder().add("entry", i).build();
+    }
+
+    @Test
+    void testAppendAndRead() throws IOException {
+        final var journal = new JsonJournal(this.directory.resolve("journal.jsonl").toFile());
+        assertTrue(journal.read().isEmpty());
+        journal.append(entry(1));
+        journal.append(entry(2));
+        assertEquals(2, journal.size());
+        final var reread = new JsonJournal(this.directory.resolve("journal.jsonl").toFile());
+        assertEquals(List.of(entry(1), entry(2)), reread.read());
+        assertEquals(2, reread.size());
+    }
+
+    @Test
+    void testCutOffLastLine() throws IOException {
+        final var file = this.directory.resolve("journal.jsonl");
+        final var journal = new JsonJournal(file.toFile());
+        journal.append(entry(1));
+        journal.append(entry(2));
+        // A crash in the middle of writing the third entry
+        Files.writeString(file, "\n{\"entry\":", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertEquals(List.of(entry(1), entry(2)), journal.read());
+        // Entries written after the cut off line are still read
+        journal.append(entry(3));
+        assertEquals(List.of(entry(1), entry(2), entry(3)), journal.read());
+    }
+
+    @Test
+    void testRewrite() throws IOException {
+        final var file = this.directory.resolve("journal.jsonl");
+        final var journal = new JsonJournal(file.toFile());
+        for (var i = 0; i < 10; i++) {
+            journal.append(entry(i));
+        }
+        journal.rewrite(List.of(entry(8), entry(9)));
+        assertEquals(2, journal.size());
+        assertEquals(List.of(entry(8), entry(9)), new JsonJournal(file.toFile()).read());
+        assertTrue(Files.notExists(this.directory.resolve("journal.jsonl.tmp")));
+    }
+
+    @Test
+    void testNoFile() throws IOException {
+        final var journal = new JsonJournal(null);
+        journal.append(entry(1));
+        assertTrue(journal.read().isEmpty());
+    }
+}
@@ -0,0 +1,95 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.io.journal;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
+import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
+import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedObjects;
+import org.openstreetmap.josm.plugins.maproulette.gui.ModifiedTask;
+import org.openstreetmap.josm.plugins.maproulette.util.MapRouletteConfig;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+
+/**
+ * Test class for {@link SessionJournal}
+ */
+@BasicPreferences
+@MapRouletteConfig
+class SessionJournalTest {
+    private static final long TASK = 135045992L;
+    private static final Instant TIME = Instant.parse("2023-01-01T00:00:00Z");
+
+    private static JsonObject lock(long task, Instant time) {
+        return Json.createObjectBuilder().add("type", "lock").add("task", task).add("time", time.toString()).build();
+    }
+
+    private static JsonObject modify(long task, TaskStatus status) {
+        return Json.createObjectBuilder().add("type", "modify").add("task", task).add("time", TIME.toString())
+                .add("status", status.name()).build();
+    }
+
+    private static JsonObject entry(String type, long task) {
+        return Json.createObjectBuilder().add("type", type).add("task", task).build();
+    }
+
+    @Test
+    void testReplay() {
+        final var relocked = lock(1, TIME.plusSeconds(60));
+        final var modified = modify(3, TaskStatus.ALREADY_FIXED);
+        final var replayed = SessionJournal.replay(List.of(lock(1, TIME), lock(2, TIME), modify(3, TaskStatus.FIXED),
+                entry("unlock", 2), modify(4, TaskStatus.FIXED), relocked, modified, entry("unmodify", 4)));
+        // Locks come first, then modifications; only the last entry for a task is kept
+        assertEquals(List.of(relocked, modified), replayed);
+    }
+
+    @Test
+    void testCompaction() throws IOException {
+        final var entries = new ArrayList<JsonObject>();
+        for (var i = 0; i < 100; i++) {
+            entries.add(lock(i, TIME));
+            entries.add(modify(i, TaskStatus.FIXED));
+            if (i % 10 != 0) {
+                entries.add(entry("unlock", i));
+                entries.add(entry("unmodify", i));
+            }
+        }
+        final var unresolved = SessionJournal.replay(entries);
+        assertEquals(20, unresolved.size());
+
+        final var task = TaskAPI.start(TASK);
+        ModifiedObjects.addLockedTask(task, TIME);
+        ModifiedObjects.addModifiedTask(new ModifiedTask(task, TaskStatus.FIXED, "comment", null, null, null));
+        final var compacted = SessionJournal.compacted(unresolved, ModifiedObjects.snapshot(), TIME);
+        assertEquals(22, compacted.size());
+        final var replayed = SessionJournal.replay(compacted);
+        assertEquals(22, replayed.size());
+        assertAll(() -> assertEquals(lock(TASK, TIME), replayed.get(10)),
+                () -> assertEquals(Json.createObjectBuilder(modify(TASK, TaskStatus.FIXED)).add("comment", "comment")
+                        .build(), replayed.get(21)),
+                () -> assertEquals(unresolved.subList(0, 10), replayed.subList(0, 10)),
+                () -> assertEquals(unresolved.subList(10, 20), replayed.subList(11, 21)));
+    }
+
+    @Test
+    void testRelockExpired(WireMockRuntimeInfo wireMockRuntimeInfo) throws IOException {
+        // There is no recorded refreshLock response, so refreshing the lock fails and the task is started again
+        assertEquals(TASK, SessionJournal.relock(TASK, true).id());
+        assertEquals(List.of("/api/v2/task/" + TASK + "/refreshLock", "/api/v2/task/" + TASK + "/start"),
+                wireMockRuntimeInfo.getWireMock().find(anyRequestedFor(anyUrl())).stream().map(LoggedRequest::getUrl)
+                        .map(url -> url.replaceAll("\\?.*", "")).toList());
+    }
+}
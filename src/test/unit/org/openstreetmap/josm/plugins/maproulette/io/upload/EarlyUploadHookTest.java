@@ -13,6 +13,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.stream.Stream;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -56,6 +57,11 @@ class EarlyUploadHookTest {
         this.hook = new EarlyUploadHook();
     }
 
+    @AfterEach
+    void tearDown() {
+        this.hook.destroy();
+    }
+
     @ParameterizedTest
     @ValueSource(strings = { "9494185766_node_4", "9494185766", "node/9494185766", "node 9494185766@4" })
     void testRegexParsing(String title) {
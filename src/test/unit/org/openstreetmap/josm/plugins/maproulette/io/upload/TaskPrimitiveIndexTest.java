@@ -0,0 +1,110 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.io.upload;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.plugins.maproulette.api.enums.Difficulty;
+import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
+import org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint;
+import org.openstreetmap.josm.plugins.maproulette.api.model.Point;
+import org.openstreetmap.josm.plugins.maproulette.api.model.PointReview;
+import org.openstreetmap.josm.plugins.maproulette.api.model.PublicUser;
+import org.openstreetmap.josm.plugins.maproulette.api.model.TaskClusteredPoint;
+import org.openstreetmap.josm.plugins.maproulette.gui.layer.MapRouletteClusteredPointLayer;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.Main;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+
+/**
+ * Test class for {@link TaskPrimitiveIndex}
+ */
+@BasicPreferences
+@Main
+@Projection
+class TaskPrimitiveIndexTest {
+    private static final long CHALLENGE = 1L;
+    private TaskPrimitiveIndex index;
+
+    @BeforeEach
+    void setUp() {
+        this.index = new TaskPrimitiveIndex();
+        MainApplication.getLayerManager().addAndFireLayerChangeListener(this.index);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MainApplication.getLayerManager().removeAndFireLayerChangeListener(this.index);
+    }
+
+    private static ClusteredPoint point(long id, String title) {
+        return new ClusteredPoint(id, 0L, "null", title, CHALLENGE, "parentName", new Point(0, 0), "bounding", "blurb",
+                Instant.EPOCH, Difficulty.NORMAL, 2, TaskStatus.CREATED, null, Instant.EPOCH, 0L,
+                new PublicUser(0L, null, "someone", Instant.EPOCH, null),
+                new PointReview(null, null, null, null, null, null, null, null, null), 0, null, false);
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "9494185766, 9494185766", "node/9494185766, 9494185766", "way/123, 123", "relation/123, 123",
+            "9494185766_node_4, 9494185766", "node 9494185766@4, 9494185766", "w123v2, 123" })
+    void testGetPrimitiveId(String title, long expected) {
+        final var atlasCheck = new HashMap<Long, Boolean>();
+        assertEquals(expected, TaskPrimitiveIndex.getPrimitiveId(point(1, title), atlasCheck));
+    }
+
+    @Test
+    void testGetPrimitiveIdAtlasCheck() {
+        // The challenge is already known, so the server is not asked
+        final var atlasCheck = new HashMap<Long, Boolean>(Map.of(CHALLENGE, Boolean.TRUE));
+        assertEquals(9494185766L, TaskPrimitiveIndex.getPrimitiveId(point(1, "9494185766000000"), atlasCheck));
+        atlasCheck.put(CHALLENGE, Boolean.FALSE);
+        assertEquals(12345000000L, TaskPrimitiveIndex.getPrimitiveId(point(1, "12345000000"), atlasCheck));
+    }
+
+    @Test
+    void testGetPrimitiveIdUnknown() {
+        assertNull(TaskPrimitiveIndex.getPrimitiveId(point(1, "Fix the road"), new HashMap<>()));
+    }
+
+    @Test
+    void testLayerUpdate() {
+        final var layer = new MapRouletteClusteredPointLayer(new Bounds(0, 0, 0, 0),
+                List.<TaskClusteredPoint>of(point(1, "node/10"), point(2, "node/20"), point(3, "node/10")));
+        MainApplication.getLayerManager().addLayer(layer);
+        assertEquals(Set.of(1L, 3L), this.index.getTasks(List.of(10L)));
+        assertEquals(Set.of(1L, 2L, 3L), this.index.getTasks(List.of(10L, 20L)));
+        assertTrue(this.index.getTasks(List.of(30L)).isEmpty());
+        // Task 3 is now for a different node, and task 4 is new
+        layer.refreshTasks(Map.of(3L, point(3, "node/30"), 4L, point(4, "way/40")));
+        assertEquals(Set.of(1L), this.index.getTasks(List.of(10L)));
+        assertEquals(Set.of(3L), this.index.getTasks(List.of(30L)));
+        assertEquals(Set.of(4L), this.index.getTasks(List.of(40L)));
+    }
+
+    @Test
+    void testLayerRemoved() {
+        final var layer = new MapRouletteClusteredPointLayer(new Bounds(0, 0, 0, 0),
+                List.<TaskClusteredPoint>of(point(1, "node/10")));
+        MainApplication.getLayerManager().addLayer(layer);
+        assertEquals(Set.of(1L), this.index.getTasks(List.of(10L)));
+        MainApplication.getLayerManager().removeLayer(layer);
+        assertTrue(this.index.getTasks(List.of(10L)).isEmpty());
+        // Updates to a removed layer are ignored
+        layer.refreshTasks(Map.of(2L, point(2, "node/10")));
+        assertTrue(this.index.getTasks(List.of(10L)).isEmpty());
+    }
+}
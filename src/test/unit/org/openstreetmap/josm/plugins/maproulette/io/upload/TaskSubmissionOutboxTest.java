@@ -0,0 +1,150 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.io.upload;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.put;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.plugins.maproulette.api.enums.TaskStatus;
+import org.openstreetmap.josm.plugins.maproulette.util.MapRouletteConfig;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+
+/**
+ * Test class for {@link TaskSubmissionOutbox} and {@link TaskSubmission}
+ */
+@BasicPreferences
+@MapRouletteConfig
+class TaskSubmissionOutboxTest {
+    private static final long TASK = 135045992L;
+
+    private static TaskSubmission submission(String key) {
+        return new TaskSubmission(key, TASK, TaskStatus.FIXED, "comment", "tag1,tag2", Boolean.TRUE,
+                Json.createObjectBuilder().add("question", "answer").build());
+    }
+
+    private static JsonObject submit(TaskSubmission submission) {
+        return Json.createObjectBuilder().add("type", "submit").add("key", submission.key())
+                .add("submission", submission.toJson()).build();
+    }
+
+    private static JsonObject entry(String type, String key) {
+        return Json.createObjectBuilder().add("type", type).add("key", key).build();
+    }
+
+    private static JsonObject step(String key, TaskSubmissionOutbox.Step step) {
+        return Json.createObjectBuilder().add("type", "step").add("key", key).add("step", step.name()).build();
+    }
+
+    @Test
+    void testJsonRoundTrip() {
+        final var full = submission("full");
+        final var minimal = new TaskSubmission("minimal", TASK, TaskStatus.SKIPPED, null, null, null, null);
+        assertAll(() -> assertEquals(full, TaskSubmission.fromJson(full.toJson())),
+                () -> assertEquals("answer",
+                        TaskSubmission.fromJson(full.toJson()).completionResponses().getString("question")),
+                () -> assertEquals(minimal, TaskSubmission.fromJson(minimal.toJson())));
+    }
+
+    @Test
+    void testReplay() {
+        final var a = submission("a");
+        final var b = submission("b");
+        final var c = submission("c");
+        final var pending = TaskSubmissionOutbox.replay(List.of(submit(a), submit(b), step("a",
+                TaskSubmissionOutbox.Step.RELEASE), entry("failed", "b"), submit(c), step("c",
+                        TaskSubmissionOutbox.Step.CHANGESET), entry("done", "c"), entry("failed", "b")));
+        assertEquals(List.of("a", "b"), new ArrayList<>(pending.keySet()));
+        assertAll(() -> assertEquals(a, pending.get("a").submission()),
+                () -> assertEquals(TaskSubmissionOutbox.Step.RELEASE, pending.get("a").step()),
+                () -> assertEquals(0, pending.get("a").attempts()),
+                () -> assertEquals(TaskSubmissionOutbox.Step.STATUS, pending.get("b").step()),
+                () -> assertEquals(2, pending.get("b").attempts()));
+    }
+
+    @Test
+    void testCompaction() {
+        final var entries = new ArrayList<JsonObject>();
+        for (var i = 0; i < 100; i++) {
+            final var key = Integer.toString(i);
+            entries.add(submit(submission(key)));
+            entries.add(step(key, TaskSubmissionOutbox.Step.RELEASE));
+            if (i % 10 != 0) {
+                entries.add(step(key, TaskSubmissionOutbox.Step.CHANGESET));
+                entries.add(entry("done", key));
+            } else {
+                entries.add(entry("failed", key));
+            }
+        }
+        final var pending = TaskSubmissionOutbox.replay(entries);
+        final var compacted = TaskSubmissionOutbox.compacted(pending.values());
+        // One submit and one step entry for each pending submission
+        assertEquals(20, compacted.size());
+        final var replayed = TaskSubmissionOutbox.replay(compacted);
+        assertEquals(List.of("0", "10", "20", "30", "40", "50", "60", "70", "80", "90"),
+                new ArrayList<>(replayed.keySet()));
+        for (var entry : replayed.entrySet()) {
+            final var original = pending.get(entry.getKey());
+            assertAll(() -> assertEquals(original.submission(), entry.getValue().submission()),
+                    () -> assertEquals(TaskSubmissionOutbox.Step.RELEASE, entry.getValue().step()),
+                    () -> assertEquals(1, entry.getValue().attempts()));
+        }
+    }
+
+    @Test
+    void testSend(WireMockRuntimeInfo wireMockRuntimeInfo) throws IOException {
+        final var wireMock = wireMockRuntimeInfo.getWireMock();
+        wireMock.register(put(urlPathEqualTo("/api/v2/task/" + TASK + "/" + TaskStatus.FIXED.ordinal()))
+                .willReturn(aResponse().withStatus(204)));
+        wireMock.register(put(urlPathEqualTo("/api/v2/task/" + TASK + "/changeset"))
+                .willReturn(aResponse().withStatus(200).withBodyFile("api/v2/task/" + TASK + "/release")));
+        final var pending = TaskSubmissionOutbox.replay(List.of(submit(submission("send")))).get("send");
+        assertEquals(TASK, TaskSubmissionOutbox.send(pending).id());
+        assertEquals(TaskSubmissionOutbox.Step.CHANGESET, pending.step());
+        assertEquals(List.of("/api/v2/task/" + TASK + "/" + TaskStatus.FIXED.ordinal(),
+                "/api/v2/task/" + TASK + "/release", "/api/v2/task/" + TASK + "/changeset"),
+                wireMock.find(anyRequestedFor(anyUrl())).stream().map(LoggedRequest::getUrl)
+                        .map(url -> url.replaceAll("\\?.*", "")).toList());
+    }
+
+    @Test
+    void testResumeSend(WireMockRuntimeInfo wireMockRuntimeInfo) throws IOException {
+        final var wireMock = wireMockRuntimeInfo.getWireMock();
+        wireMock.register(put(urlPathEqualTo("/api/v2/task/" + TASK + "/changeset"))
+                .willReturn(aResponse().withStatus(200).withBodyFile("api/v2/task/" + TASK + "/release")));
+        // The status was sent and the lock was released before a restart
+        final var pending = TaskSubmissionOutbox.replay(List.of(submit(submission("resume")),
+                step("resume", TaskSubmissionOutbox.Step.CHANGESET))).get("resume");
+        assertEquals(TASK, TaskSubmissionOutbox.send(pending).id());
+        assertEquals(List.of("/api/v2/task/" + TASK + "/changeset"), wireMock.find(anyRequestedFor(anyUrl()))
+                .stream().map(LoggedRequest::getUrl).toList());
+    }
+
+    @Test
+    void testRejectedStatus(WireMockRuntimeInfo wireMockRuntimeInfo) {
+        final var wireMock = wireMockRuntimeInfo.getWireMock();
+        wireMock.register(put(urlPathEqualTo("/api/v2/task/" + TASK + "/" + TaskStatus.FIXED.ordinal()))
+                .willReturn(aResponse().withStatus(400)));
+        final var pending = TaskSubmissionOutbox.replay(List.of(submit(submission("rejected")))).get("rejected");
+        assertThrows(TaskSubmissionOutbox.RejectedException.class, () -> TaskSubmissionOutbox.send(pending));
+        // Nothing else is sent, so the lock is not released without a status
+        assertEquals(TaskSubmissionOutbox.Step.STATUS, pending.step());
+        assertTrue(wireMock.find(anyRequestedFor(anyUrl())).stream().map(LoggedRequest::getUrl)
+                .noneMatch(url -> url.endsWith("/release")));
+    }
+}
@@ -54,7 +54,8 @@ public @interface MapRouletteConfig {
 
         public Extension() {
             super(extensionOptions().options(options().dynamicPort().usingFilesUnderDirectory(getDirectory())
-                    .extensions(services -> List.of(new MapRouletteExtension(services.getFiles())))));
+                    .extensions(services -> List.of(new MapRouletteExtension(services.getFiles()),
+                            new SyntheticChallenge.Transformer()))));
         }
 
         @Override
@@ -0,0 +1,370 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.util;
+
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_OK;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformerV2;
+import com.github.tomakehurst.wiremock.http.Body;
+import com.github.tomakehurst.wiremock.http.ContentTypeHeader;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import org.openstreetmap.josm.data.Bounds;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonValue;
+
+/**
+ * Generate MapRoulette-shaped responses for a large synthetic project. Everything is derived from the seed and the
+ * task/challenge id, so the same task has the same location, status, and geometry in every response and in every run.
+ * <p>
+ * Tasks have ids {@code FIRST_TASK + 0 .. FIRST_TASK + tasks - 1}, and task {@code n} belongs to challenge
+ * {@code FIRST_CHALLENGE + n % challenges}.
+ *
+ * @param tasks      The number of tasks
+ * @param challenges The number of challenges the tasks are split between
+ * @param features   The number of features in each task geometry
+ * @param vertices   The number of vertices in each (non-point) feature
+ * @param seed       The random seed
+ * @param bounds     The area the tasks are in
+ */
+public record SyntheticChallenge(int tasks, int challenges, int features, int vertices, long seed, Bounds bounds) {
+    /** The first synthetic task id */
+    public static final long FIRST_TASK = 900_000_000L;
+    /** The first synthetic challenge id */
+    public static final long FIRST_CHALLENGE = 900_000L;
+    /** The parent project for all synthetic challenges */
+    public static final long PROJECT = 90_000L;
+    private static final Instant CREATED = Instant.parse("2023-01-01T00:00:00Z");
+    private static final String[] HIGHWAYS = { "residential", "service", "footway", "track", "unclassified" };
+
+    /**
+     * Validate the parameters for this record
+     */
+    public SyntheticChallenge {
+        if (tasks < 0 || challenges <= 0 || features <= 0 || vertices < 2) {
+            throw new IllegalArgumentException("Bad synthetic challenge parameters");
+        }
+    }
+
+    /**
+     * Check if a task exists in this generator
+     *
+     * @param task The task id
+     * @return {@code true} if the task exists
+     */
+    public boolean isTask(long task) {
+        return task >= FIRST_TASK && task < FIRST_TASK + this.tasks;
+    }
+
+    /**
+     * Check if a challenge exists in this generator
+     *
+     * @param challenge The challenge id
+     * @return {@code true} if the challenge exists
+     */
+    public boolean isChallenge(long challenge) {
+        return challenge >= FIRST_CHALLENGE && challenge < FIRST_CHALLENGE + this.challenges;
+    }
+
+    /**
+     * Get the tasks in a box, as returned by {@code PUT /tasks/box/{left}/{bottom}/{right}/{top}}
+     *
+     * @param minLon The minimum longitude
+     * @param minLat The minimum latitude
+     * @param maxLon The maximum longitude
+     * @param maxLat The maximum latitude
+     * @param limit  The maximum number of tasks to return ({@code <= 0} is unlimited)
+     * @param page   The page of results
+     * @return The response
+     */
+    public byte[] box(double minLon, double minLat, double maxLon, double maxLat, int limit, int page) {
+        return write(this.boxTasks(minLon, minLat, maxLon, maxLat, limit, page, null).build());
+    }
+
+    /**
+     * Get the tasks in a box with the total number of tasks in the box, as returned by
+     * {@code PUT /tasks/box/{left}/{bottom}/{right}/{top}?includeTotal=true}
+     *
+     * @param minLon The minimum longitude
+     * @param minLat The minimum latitude
+     * @param maxLon The maximum longitude
+     * @param maxLat The maximum latitude
+     * @param limit  The maximum number of tasks to return ({@code <= 0} is unlimited)
+     * @param page   The page of results
+     * @return The response
+     */
+    public byte[] boxWithTotal(double minLon, double minLat, double maxLon, double maxLat, int limit, int page) {
+        final var total = new long[1];
+        final var tasks = this.boxTasks(minLon, minLat, maxLon, maxLat, limit, page, total);
+        return write(Json.createObjectBuilder().add("total", total[0]).add("tasks", tasks).build());
+    }
+
+    private JsonArrayBuilder boxTasks(double minLon, double minLat, double maxLon, double maxLat, int limit, int page,
+            long[] total) {
+        final var array = Json.createArrayBuilder();
+        final var skip = limit > 0 ? (long) limit * Math.max(0, page) : 0;
+        var found = 0L;
+        var added = 0;
+        // Keep counting after the page is full if the total is needed
+        for (var i = 0; i < this.tasks && (total != null || limit <= 0 || added < limit); i++) {
+            final var random = this.random(FIRST_TASK + i);
+            final var lat = lat(random);
+            final var lon = lon(random);
+            if (lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon && found++ >= skip
+                    && (limit <= 0 || added < limit)) {
+                array.add(this.clusteredPoint(FIRST_TASK + i, random, lat, lon));
+                added++;
+            }
+        }
+        if (total != null) {
+            total[0] = found;
+        }
+        return array;
+    }
+
+    /**
+     * Get a task, as returned by {@code GET /task/{id}} and {@code GET /task/{id}/start}
+     *
+     * @param task The task id
+     * @return The response
+     */
+    public byte[] task(long task) {
+        return write(this.taskObject(task).build());
+    }
+
+    /**
+     * Get the geometry of a task (the {@code geometries} field of {@link #task(long)})
+     *
+     * @param task The task id
+     * @return The feature collection
+     */
+    public JsonObject geometries(long task) {
+        return this.taskObject(task).build().getJsonObject("geometries");
+    }
+
+    /**
+     * Get the tasks for a challenge, as returned by {@code GET /challenge/view/{id}}
+     *
+     * @param challenge The challenge id
+     * @return The response
+     */
+    public byte[] view(long challenge) {
+        final var array = Json.createArrayBuilder();
+        for (long i = challenge - FIRST_CHALLENGE; i < this.tasks; i += this.challenges) {
+            array.add(this.taskObject(FIRST_TASK + i));
+        }
+        return write(array.build());
+    }
+
+    /**
+     * Get a challenge, as returned by {@code GET /challenge/{id}}
+     *
+     * @param challenge The challenge id
+     * @return The response
+     */
+    public byte[] challenge(long challenge) {
+        final var count = (this.tasks - (challenge - FIRST_CHALLENGE) + this.challenges - 1) / this.challenges;
+        final var object = Json.createObjectBuilder().add("id", challenge)
+                .add("name", "Synthetic challenge " + challenge).add("created", CREATED.toString())
+                .add("modified", CREATED.toString()).add("description", "Synthetic challenge for load tests")
+                .add("deleted", false).add("infoLink", "").add("owner", 1).add("parent", PROJECT)
+                .add("featured", false).add("requiresLocal", false).add("blurb", "Synthetic tasks")
+                .add("enabled", true).add("difficulty", 1).add("cooperativeType", 0)
+                .add("instruction", "Check the {{highway}} with id {{osmIdentifier}}").add("popularity", 0)
+                .add("checkinComment", "#synthetic").add("checkinSource", "")
+                .add("virtualParents", JsonValue.EMPTY_JSON_ARRAY)
+                .add("remoteGeoJson", "").add("overpassTargetType", "").add("overpassQL", "")
+                .add("lowPriorityRule", JsonValue.EMPTY_JSON_OBJECT).add("defaultPriority", 1)
+                .add("highPriorityRule", JsonValue.EMPTY_JSON_OBJECT)
+                .add("mediumPriorityRule", JsonValue.EMPTY_JSON_OBJECT).add("defaultZoom", 13).add("maxZoom", 19)
+                .add("isArchived", false).add("defaultBasemapId", "").add("minZoom", 1).add("osmIdProperty", "")
+                .add("updateTasks", false).add("customBasemap", "").add("defaultBasemap", -1).add("limitTags", false)
+                .add("limitReviewTags", false).add("exportableProperties", "")
+                .add("presets", JsonValue.EMPTY_JSON_ARRAY).add("taskBundleIdProperty", "").add("status", 3)
+                .add("statusMessage", "").add("completionPercentage", 0).add("tasksRemaining", count);
+        return write(object.build());
+    }
+
+    private JsonObjectBuilder clusteredPoint(long task, SplittableRandom random, double lat, double lon) {
+        final var challenge = this.challengeFor(task);
+        final var status = status(random);
+        final var point = Json.createObjectBuilder().add("id", task).add("owner", 1).add("ownerName", "synthetic")
+                .add("title", Long.toString(task)).add("parentId", challenge)
+                .add("parentName", "Synthetic challenge " + challenge)
+                .add("point", Json.createObjectBuilder().add("lat", lat).add("lng", lon)).add("bounding", "")
+                .add("blurb", "Synthetic tasks").add("modified", CREATED.toString()).add("difficulty", 1)
+                .add("type", 2).add("status", status).add("priority", random.nextInt(3));
+        if (status != 0) {
+            point.add("mappedOn", CREATED.toString()).add("completedTimeSpent", 60_000).add("completedBy",
+                    Json.createObjectBuilder().add("username", "synthetic").add("id", 1));
+        }
+        return point.add("pointReview", JsonValue.EMPTY_JSON_OBJECT);
+    }
+
+    private JsonObjectBuilder taskObject(long task) {
+        final var random = this.random(task);
+        final var lat = lat(random);
+        final var lon = lon(random);
+        final var status = status(random);
+        final var priority = random.nextInt(3);
+        final var features = Json.createArrayBuilder();
+        for (var i = 0; i < this.features; i++) {
+            features.add(this.feature(random, task, i, lat, lon));
+        }
+        return Json.createObjectBuilder().add("id", task).add("name", Long.toString(task))
+                .add("created", CREATED.toString()).add("modified", CREATED.toString())
+                .add("parent", this.challengeFor(task))
+                .add("instruction", "Check the {{highway}} with id {{osmIdentifier}}")
+                .add("location",
+                        Json.createObjectBuilder().add("type", "Point").add("coordinates",
+                                Json.createArrayBuilder().add(lon).add(lat)))
+                .add("geometries",
+                        Json.createObjectBuilder().add("type", "FeatureCollection").add("features", features))
+                .add("status", status).add("review", JsonValue.EMPTY_JSON_OBJECT).add("priority", priority)
+                .add("changesetId", -1).add("errorTags", "");
+    }
+
+    private JsonObjectBuilder feature(SplittableRandom random, long task, int index, double lat, double lon) {
+        final JsonObjectBuilder geometry;
+        // The first feature is always the task location, so the task location is in the geometry
+        if (index == 0) {
+            geometry = Json.createObjectBuilder().add("type", "Point").add("coordinates",
+                    Json.createArrayBuilder().add(lon).add(lat));
+        } else if (index % 2 == 1 || this.vertices < 4) {
+            final var line = Json.createArrayBuilder();
+            for (var i = 0; i < this.vertices; i++) {
+                line.add(near(random, lat, lon));
+            }
+            geometry = Json.createObjectBuilder().add("type", "LineString").add("coordinates", line);
+        } else {
+            final var first = near(random, lat, lon).build();
+            final var ring = Json.createArrayBuilder().add(first);
+            for (var i = 2; i < this.vertices; i++) {
+                ring.add(near(random, lat, lon));
+            }
+            ring.add(first);
+            geometry = Json.createObjectBuilder().add("type", "Polygon").add("coordinates",
+                    Json.createArrayBuilder().add(ring));
+        }
+        return Json.createObjectBuilder().add("type", "Feature").add("geometry", geometry).add("properties",
+                Json.createObjectBuilder().add("highway", HIGHWAYS[random.nextInt(HIGHWAYS.length)])
+                        .add("osmIdentifier", Long.toString(task * 100 + index)));
+    }
+
+    private long challengeFor(long task) {
+        return FIRST_CHALLENGE + (task - FIRST_TASK) % this.challenges;
+    }
+
+    private SplittableRandom random(long id) {
+        // Per-id streams, so a task can be generated without generating the tasks before it
+        return new SplittableRandom(this.seed * 0x9E37_79B9_7F4A_7C15L + id);
+    }
+
+    private static int status(SplittableRandom random) {
+        return random.nextInt(10) < 7 ? 0 : random.nextInt(7);
+    }
+
+    private double lat(SplittableRandom random) {
+        return random.nextDouble(this.bounds.getMinLat(), this.bounds.getMaxLat());
+    }
+
+    private double lon(SplittableRandom random) {
+        return random.nextDouble(this.bounds.getMinLon(), this.bounds.getMaxLon());
+    }
+
+    private static JsonArrayBuilder near(SplittableRandom random, double lat, double lon) {
+        return Json.createArrayBuilder().add(lon + random.nextDouble(-0.001, 0.001))
+                .add(lat + random.nextDouble(-0.001, 0.001));
+    }
+
+    private static byte[] write(JsonValue value) {
+        final var outputStream = new ByteArrayOutputStream();
+        try (var writer = Json.createWriter(outputStream)) {
+            writer.write(value);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * A wiremock extension that serves synthetic challenges. URLs look like
+     * {@code /synthetic/{tasks}/api/v2/...}; the other parameters come from the {@code transformerParameters} of the
+     * mapping ({@code challenges}, {@code features}, {@code vertices}, {@code seed}, and
+     * {@code minLat}/{@code minLon}/{@code maxLat}/{@code maxLon}).
+     */
+    public static class Transformer implements ResponseDefinitionTransformerV2 {
+        private static final Pattern URL = Pattern.compile("^/synthetic/(\\d+)/api/v2(/[^?]*)");
+        private static final Pattern BOX = Pattern.compile("^/tasks/box/([-.\\d]+)/([-.\\d]+)/([-.\\d]+)/([-.\\d]+)$");
+        private static final Pattern TASK = Pattern.compile("^/task/(\\d+)(/start|/release|/refreshLock)?$");
+        private static final Pattern CHALLENGE = Pattern.compile("^/challenge/(view/)?(\\d+)$");
+
+        @Override
+        public ResponseDefinition transform(ServeEvent serveEvent) {
+            final var request = serveEvent.getRequest();
+            final var urlMatcher = URL.matcher(request.getUrl());
+            if (!urlMatcher.find()) {
+                return serveEvent.getResponseDefinition();
+            }
+            final var generator = generator(Integer.parseInt(urlMatcher.group(1)),
+                    serveEvent.getTransformerParameters());
+            final var path = urlMatcher.group(2);
+            final byte[] body;
+            final var box = BOX.matcher(path);
+            final var task = TASK.matcher(path);
+            final var challenge = CHALLENGE.matcher(path);
+            if (box.matches()) {
+                final var limit = request.queryParameter("limit");
+                final var page = request.queryParameter("page");
+                final var includeTotal = request.queryParameter("includeTotal");
+                final var minLon = Double.parseDouble(box.group(1));
+                final var minLat = Double.parseDouble(box.group(2));
+                final var maxLon = Double.parseDouble(box.group(3));
+                final var maxLat = Double.parseDouble(box.group(4));
+                final var limitValue = limit.isPresent() ? Integer.parseInt(limit.firstValue()) : 0;
+                final var pageValue = page.isPresent() ? Integer.parseInt(page.firstValue()) : 0;
+                if (includeTotal.isPresent() && Boolean.parseBoolean(includeTotal.firstValue())) {
+                    body = generator.boxWithTotal(minLon, minLat, maxLon, maxLat, limitValue, pageValue);
+                } else {
+                    body = generator.box(minLon, minLat, maxLon, maxLat, limitValue, pageValue);
+                }
+            } else if (task.matches() && generator.isTask(Long.parseLong(task.group(1)))) {
+                body = generator.task(Long.parseLong(task.group(1)));
+            } else if (challenge.matches() && generator.isChallenge(Long.parseLong(challenge.group(2)))) {
+                final var id = Long.parseLong(challenge.group(2));
+                body = challenge.group(1) == null ? generator.challenge(id) : generator.view(id);
+            } else {
+                return ResponseDefinitionBuilder.responseDefinition().withStatus(HTTP_NOT_FOUND).build();
+            }
+            return ResponseDefinitionBuilder.like(serveEvent.getResponseDefinition()).withStatus(HTTP_OK)
+                    .withResponseBody(Body.ofBinaryOrText(body, new ContentTypeHeader("application/json"))).build();
+        }
+
+        private static SyntheticChallenge generator(int tasks, Parameters parameters) {
+            return new SyntheticChallenge(tasks, parameters.getInt("challenges", 10),
+                    parameters.getInt("features", 1), parameters.getInt("vertices", 4),
+                    parameters.getLong("seed", 42L),
+                    new Bounds(parameters.getDouble("minLat", 38.5), parameters.getDouble("minLon", -109.0),
+                            parameters.getDouble("maxLat", 39.5), parameters.getDouble("maxLon", -108.0)));
+        }
+
+        @Override
+        public boolean applyGlobally() {
+            return false;
+        }
+
+        @Override
+        public String getName() {
+            return "SyntheticChallenge";
+        }
+    }
+}
@@ -0,0 +1,83 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins.maproulette.util;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.plugins.maproulette.api.ChallengeAPI;
+import org.openstreetmap.josm.plugins.maproulette.api.TaskAPI;
+import org.openstreetmap.josm.plugins.maproulette.api.model.ClusteredPoint;
+import org.openstreetmap.josm.plugins.maproulette.api.model.Identifier;
+import org.openstreetmap.josm.plugins.maproulette.api.model.Task;
+
+/**
+ * Test class for {@link SyntheticChallenge}
+ */
+@MapRouletteConfig
+class SyntheticChallengeTest {
+    @BeforeEach
+    void setup() {
+        final var baseUrl = org.openstreetmap.josm.plugins.maproulette.config.MapRouletteConfig.getBaseUrl();
+        org.openstreetmap.josm.plugins.maproulette.config.MapRouletteConfig
+                .setInstance(new org.openstreetmap.josm.plugins.maproulette.config.MapRouletteConfig(
+                        baseUrl.replace("/api/v2", "/synthetic/2000/api/v2")));
+    }
+
+    @Test
+    void testDeterministic() {
+        final var bounds = new Bounds(38.5, -109.0, 39.5, -108.0);
+        final var first = new SyntheticChallenge(100, 3, 2, 5, 1, bounds);
+        final var second = new SyntheticChallenge(100, 3, 2, 5, 1, bounds);
+        assertAll(
+                () -> assertArrayEquals(first.box(-109.0, 38.5, -108.0, 39.5, 0, 0),
+                        second.box(-109.0, 38.5, -108.0, 39.5, 0, 0)),
+                () -> assertArrayEquals(first.task(SyntheticChallenge.FIRST_TASK + 5),
+                        second.task(SyntheticChallenge.FIRST_TASK + 5)));
+    }
+
+    @Test
+    void testServedThroughWireMock() throws IOException {
+        final var all = TaskAPI.box(-109.0, 38.5, -108.0, 39.5, 0, 0, true, null, null, false, true, true);
+        assertEquals(2000, all.length);
+        final var part = TaskAPI.box(-108.75, 38.75, -108.25, 39.25, 0, 0, true, null, null, false, true, true);
+        assertTrue(part.length > 0 && part.length < all.length);
+        for (ClusteredPoint point : part) {
+            assertTrue(point.location().lat() >= 38.75 && point.location().lat() <= 39.25);
+        }
+        final var paged = TaskAPI.box(-109.0, 38.5, -108.0, 39.5, 500, 1, true, null, null, false, true, true);
+        assertArrayEquals(Arrays.stream(all).skip(500).limit(500).mapToLong(Identifier::id).toArray(),
+                Arrays.stream(paged).mapToLong(Identifier::id).toArray());
+
+        final var point = all[1234];
+        final var task = TaskAPI.get(point.id());
+        assertAll(() -> assertEquals(point.parentId(), task.parentId()),
+                () -> assertEquals(point.status(), task.status()),
+                () -> assertEquals(point.location().lat(), task.location().lat(), 1e-9),
+                () -> assertEquals(2, task.geometries().getWays().size()));
+
+        final var challenge = ChallengeAPI.challenge(point.parentId());
+        assertEquals(point.parentId(), challenge.id());
+        final var view = (Task[]) ChallengeAPI.view(point.parentId());
+        assertEquals(200, view.length);
+    }
+
+    @Test
+    void testBoxPage() throws IOException {
+        final var all = TaskAPI.box(-109.0, 38.5, -108.0, 39.5, 0, 0, true, null, null, false, true, true);
+        final var page = TaskAPI.boxPage(-109.0, 38.5, -108.0, 39.5, 500, 3, true, "id", "ASC");
+        assertEquals(2000, page.total());
+        assertArrayEquals(Arrays.stream(all).skip(1500).mapToLong(Identifier::id).toArray(),
+                Arrays.stream(page.tasks()).mapToLong(Identifier::id).toArray());
+        // The total is only sent when it is requested, but the points should be the same either way
+        final var withTotal = TaskAPI.box(-109.0, 38.5, -108.0, 39.5, 500, 3, true, null, null, true, true, true);
+        assertArrayEquals(page.tasks(), withTotal);
+    }
+}